@@ -0,0 +1,324 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * A multiple sequence alignment as it is read in, before its
+ * parsimony informative points have been picked out.  Each MSA
+ * reader fills one of these in, then turns it into taxa.
+ * <p>
+ * Picking out informative points looks at every column, so it is
+ * split up by column across all available processors.  The points
+ * that are kept are written straight into the point-major layout
+ * that MSAStore uses.
+ *
+ * @author Kyle Dewey
+ */
+public class Alignment {
+    // begin constants
+    public static final int MIN_COLUMNS_PER_JOB = 4096;
+    public static final int JOBS_PER_THREAD = 4;
+    public static final int BUFFER_SIZE = 1 << 16;
+    // end constants
+
+    // begin instance variables
+    private Map< String, StringBuilder > sequences; // sequence of each taxa, by name
+    // end instance variables
+
+    /**
+     * Creates a new, empty alignment.
+     */
+    public Alignment() {
+        sequences = new LinkedHashMap< String, StringBuilder >();
+    }
+
+    /**
+     * Opens an MSA file for reading, line by line.
+     *
+     * @param file The file to open
+     *
+     * @return A reader over the file
+     *
+     * @exception IOException If the file could not be opened
+     */
+    public static BufferedReader open( File file )
+        throws IOException {
+        return new BufferedReader( new InputStreamReader( Files.newInputStream( file.toPath() ),
+                                                          StandardCharsets.ISO_8859_1 ),
+                                   BUFFER_SIZE );
+    }
+
+    /**
+     * Gets the number of taxa seen so far.
+     *
+     * @return The number of taxa
+     */
+    public int getNumTaxa() {
+        return sequences.size();
+    }
+
+    /**
+     * Gets the sequence of the given taxa, adding the taxa
+     * if it hasn't been seen yet.
+     *
+     * @param name The name of the taxa
+     *
+     * @return The sequence of the taxa so far
+     */
+    public StringBuilder getSequence( String name ) {
+        StringBuilder retval = sequences.get( name );
+
+        if ( retval == null ) {
+            retval = new StringBuilder();
+            sequences.put( name, retval );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Appends part of a line to the sequence of the given taxa.
+     * Whitespace is skipped, and nucleotides are upper cased.
+     *
+     * @param name The name of the taxa
+     * @param line Line holding part of the sequence
+     * @param start Where the sequence starts in the line
+     * @param end Where the sequence ends in the line
+     */
+    public void append( String name,
+                        CharSequence line,
+                        int start,
+                        int end ) {
+        append( getSequence( name ), line, start, end );
+    }
+
+    /**
+     * Appends part of a line to a sequence.
+     * Whitespace is skipped, and nucleotides are upper cased.
+     *
+     * @param sequence The sequence to append to
+     * @param line Line holding part of the sequence
+     * @param start Where the sequence starts in the line
+     * @param end Where the sequence ends in the line
+     */
+    public static void append( StringBuilder sequence,
+                               CharSequence line,
+                               int start,
+                               int end ) {
+        for( int x = start; x < end; x++ ) {
+            char current = line.charAt( x );
+
+            if ( current == ' ' || current == '\t' ) {
+                continue;
+            } else if ( current >= 'a' && current <= 'z' ) {
+                current = (char)( current - 'a' + 'A' );
+            }
+            sequence.append( current );
+        }
+    }
+
+    /**
+     * Determines if the given data shows a parsimony informative
+     * site.
+     *
+     * @param numA The number of A's at this site
+     * @param numT The number of T's at this site
+     * @param numC The number of C's at this site
+     * @param numG The number of G's at this site
+     * @param numGaps The number of gaps at this site
+     * @return true if the data shows an informative site
+     */
+    public static boolean informativeSite( int numA,
+                                           int numT,
+                                           int numC,
+                                           int numG,
+                                           int numGaps ) {
+        // by definition, there must be at least two nucleotides
+        // observed, and at least two of the nucleotides observed
+        // must be observed at least twice
+        // additionally, there must be no gaps at this site
+        int numTwice = 0; // number of nucleotides observed at least twice
+
+        if ( numGaps > 0 ) {
+            return false;
+        }
+
+        if ( numA >= 2 ) numTwice++;
+        if ( numT >= 2 ) numTwice++;
+        if ( numC >= 2 ) numTwice++;
+        if ( numG >= 2 ) numTwice++;
+
+        return numTwice >= 2;
+    }
+
+    /**
+     * Determines if the given point is parsimony informative.
+     *
+     * @param point Which point is in question.  Assumes it's valid
+     * @param rows The sequence of each taxa
+     *
+     * @return true if the point is parimony informative, else false
+     */
+    public static boolean informativeSite( int point,
+                                           CharSequence[] rows ) {
+        int numA = 0; // number of A at this site
+        int numT = 0; // number of T at this site
+        int numC = 0; // number of C at this site
+        int numG = 0; // number of G at this site
+
+        for( CharSequence row : rows ) {
+            switch( row.charAt( point ) ) {
+            case 'A':
+                numA++;
+                break;
+            case 'T':
+                numT++;
+                break;
+            case 'C':
+                numC++;
+                break;
+            case 'G':
+                numG++;
+                break;
+            default:
+                // gaps, ambiguity codes, and anything else make
+                // the point uninformative, so stop here
+                return false;
+            }
+        }
+
+        return informativeSite( numA, numT, numC, numG, 0 );
+    }
+
+    /**
+     * Like <code>toTaxa()</code>, but problems with the alignment
+     * are reported as problems with the file it came from.
+     *
+     * @param file The file the alignment was read from
+     *
+     * @return A leaf item for each taxa, in the order they were seen
+     *
+     * @exception IOException If there are no taxa, or the sequences
+     *            differ in length
+     */
+    public List< PhylogeneticTreeItem > toTaxa( File file )
+        throws IOException {
+        try {
+            return toTaxa();
+        } catch ( IllegalArgumentException e ) {
+            throw new IOException( "Malformed alignment in " + file + ": " +
+                                   e.getMessage() );
+        }
+    }
+
+    /**
+     * Picks out the parsimony informative points, and makes taxa
+     * that share a store of them.  Columns are split among threads,
+     * first to find the informative ones, then to copy them out.
+     *
+     * @return A leaf item for each taxa, in the order they were seen
+     *
+     * @exception IllegalArgumentException If there are no taxa, or the
+     *            sequences differ in length
+     */
+    public List< PhylogeneticTreeItem > toTaxa() {
+        final String[] names = sequences.keySet().toArray( new String[ 0 ] );
+        final CharSequence[] rows = sequences.values().toArray( new CharSequence[ 0 ] );
+        final int length;
+        final boolean[] informative;
+        final byte[] states;
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        int jobSize;
+        int numJobs;
+        final int[] firstPoint; // first kept point of each job
+        int numPoints = 0;
+        ExecutorService pool;
+
+        if ( rows.length == 0 ) {
+            throw new IllegalArgumentException( "No taxa" );
+        }
+        length = rows[ 0 ].length();
+        for( int x = 0; x < rows.length; x++ ) {
+            if ( rows[ x ].length() != length ) {
+                throw new IllegalArgumentException( "Sequence of " + names[ x ] + " has " +
+                                                    rows[ x ].length() + " points; expected " +
+                                                    length );
+            }
+        }
+
+        jobSize = Math.max( MIN_COLUMNS_PER_JOB,
+                            ( length + numThreads * JOBS_PER_THREAD - 1 ) /
+                            ( numThreads * JOBS_PER_THREAD ) );
+        numJobs = ( length + jobSize - 1 ) / jobSize;
+        informative = new boolean[ length ];
+        firstPoint = new int[ numJobs ];
+        pool = Executors.newFixedThreadPool( Math.max( 1, Math.min( numThreads, numJobs ) ) );
+
+        try {
+            // find which columns are informative
+            List< Callable< Integer > > find = new ArrayList< Callable< Integer > >( numJobs );
+            for( int job = 0; job < numJobs; job++ ) {
+                final int start = job * jobSize;
+                final int end = Math.min( length, start + jobSize );
+                find.add( new Callable< Integer >() {
+                        public Integer call() {
+                            int retval = 0;
+                            for( int point = start; point < end; point++ ) {
+                                informative[ point ] = informativeSite( point, rows );
+                                if ( informative[ point ] ) {
+                                    retval++;
+                                }
+                            }
+                            return retval;
+                        }
+                    } );
+            }
+            List< Future< Integer > > counts = pool.invokeAll( find );
+            for( int job = 0; job < numJobs; job++ ) {
+                firstPoint[ job ] = numPoints;
+                numPoints += counts.get( job ).get();
+            }
+
+            // copy them out, point-major
+            if ( (long)numPoints * rows.length > Integer.MAX_VALUE ) {
+                throw new IllegalArgumentException( "Alignment too large: " + rows.length +
+                                                    " taxa by " + numPoints + " points" );
+            }
+            states = new byte[ numPoints * rows.length ];
+            List< Callable< Object > > copy = new ArrayList< Callable< Object > >( numJobs );
+            for( int job = 0; job < numJobs; job++ ) {
+                final int start = job * jobSize;
+                final int end = Math.min( length, start + jobSize );
+                final int first = firstPoint[ job ];
+                copy.add( new Callable< Object >() {
+                        public Object call() {
+                            int position = first * rows.length;
+                            for( int point = start; point < end; point++ ) {
+                                if ( informative[ point ] ) {
+                                    for( CharSequence row : rows ) {
+                                        states[ position++ ] =
+                                            (byte)MSAStore.encode( row.charAt( point ) );
+                                    }
+                                }
+                            }
+                            return null;
+                        }
+                    } );
+            }
+            for( Future< Object > future : pool.invokeAll( copy ) ) {
+                future.get();
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( e );
+        } catch ( ExecutionException e ) {
+            throw new RuntimeException( e.getCause() );
+        } finally {
+            pool.shutdown();
+        }
+
+        return new MSAStore( names, numPoints, states ).getTaxa();
+    }
+}
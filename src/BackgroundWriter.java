@@ -0,0 +1,177 @@
+import java.util.concurrent.*;
+import java.io.*;
+
+/**
+ * A writer that hands what is written to it to a background thread,
+ * which prints it to a stream.  Text is gathered in memory, and each
+ * flush() passes it on without waiting for it to be printed, so the
+ * thread writing is never held up by a slow terminal, file, or client.
+ * Only if the background thread falls more than MAX_PENDING chunks
+ * behind does writing wait, so a stalled stream can't use up the heap.
+ * <p>
+ * Closing the writer waits until everything written has been printed,
+ * but leaves the stream itself open.
+ *
+ * @author Kyle Dewey
+ */
+public class BackgroundWriter extends Writer {
+    // begin constants
+    public static final int CHUNK_SIZE = 1 << 16; // chars handed over at once
+    public static final int MAX_PENDING = 256; // chunks waiting to be printed
+    private static final String END = new String( "" ); // no more chunks
+    // end constants
+
+    // begin instance variables
+    private PrintStream output; // where everything ends up
+    private BlockingQueue< String > pending; // chunks not yet printed
+    private StringBuilder buffer; // written since the last hand-off
+    private Thread thread; // prints the pending chunks
+    private boolean closed;
+    // end instance variables
+
+    /**
+     * Creates a new writer, and starts its background thread.
+     *
+     * @param output Where text is printed
+     */
+    public BackgroundWriter( final PrintStream output ) {
+        this.output = output;
+        pending = new ArrayBlockingQueue< String >( MAX_PENDING );
+        buffer = new StringBuilder();
+        closed = false;
+        thread = new Thread( new Runnable() {
+                public void run() {
+                    printPending();
+                }
+            }, "output-writer" );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+    /**
+     * Run in the background.  Prints chunks as they come, flushing
+     * the stream whenever it has caught up.
+     */
+    private void printPending() {
+        try {
+            String chunk;
+            while ( ( chunk = pending.take() ) != END ) {
+                output.print( chunk );
+                if ( pending.isEmpty() ) {
+                    output.flush();
+                }
+            }
+            output.flush();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Makes sure the writer hasn't been closed.
+     *
+     * @exception IOException If it has
+     */
+    private void ensureOpen() throws IOException {
+        if ( closed ) {
+            throw new IOException( "Writer closed" );
+        }
+    }
+
+    /**
+     * Passes what has been written so far to the background thread.
+     *
+     * @exception IOException If interrupted waiting for the thread
+     *            to catch up
+     */
+    private void handOff() throws IOException {
+        if ( buffer.length() > 0 ) {
+            enqueue( buffer.toString() );
+            buffer.setLength( 0 );
+        }
+    }
+
+    /**
+     * Puts a chunk in line for the background thread.
+     *
+     * @param chunk The chunk
+     *
+     * @exception IOException If interrupted waiting for room
+     */
+    private void enqueue( String chunk ) throws IOException {
+        try {
+            pending.put( chunk );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted writing output" );
+        }
+    }
+
+    /**
+     * Writes part of an array of characters.
+     *
+     * @param chars The characters
+     * @param offset Where to start
+     * @param length How many to write
+     *
+     * @exception IOException If the writer is closed
+     */
+    public void write( char[] chars, int offset, int length )
+        throws IOException {
+        ensureOpen();
+        buffer.append( chars, offset, length );
+        if ( buffer.length() >= CHUNK_SIZE ) {
+            handOff();
+        }
+    }
+
+    /**
+     * Writes part of a string, without copying it to an array first.
+     *
+     * @param string The string
+     * @param offset Where to start
+     * @param length How many characters to write
+     *
+     * @exception IOException If the writer is closed
+     */
+    public void write( String string, int offset, int length )
+        throws IOException {
+        ensureOpen();
+        buffer.append( string, offset, offset + length );
+        if ( buffer.length() >= CHUNK_SIZE ) {
+            handOff();
+        }
+    }
+
+    /**
+     * Passes everything written so far to the background thread.
+     * Doesn't wait for it to be printed.
+     *
+     * @exception IOException If the writer is closed
+     */
+    public void flush() throws IOException {
+        ensureOpen();
+        handOff();
+    }
+
+    /**
+     * Waits until everything written has been printed, and stops
+     * the background thread.  The stream is left open.
+     *
+     * @exception IOException If interrupted while waiting
+     */
+    public void close() throws IOException {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        handOff();
+        enqueue( END );
+        try {
+            thread.join();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted waiting for output" );
+        }
+    }
+}
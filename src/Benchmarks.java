@@ -0,0 +1,437 @@
+import java.util.*;
+import java.io.*;
+import java.nio.file.Files;
+
+/**
+ * Microbenchmarks of the framework's hot paths: fitness calculation
+ * for several alignment sizes, crossover and mutation, finding nodes
+ * in trees, each selection mechanism, reading an alignment, and a
+ * whole generation.  Each benchmark is run for WARMUP_ITERATIONS
+ * iterations that aren't counted, so the code is compiled by the
+ * time it is measured, then for a number of timed iterations.  The
+ * time of an operation in each iteration is the time of the iteration
+ * over the number of operations done in it; the median, lowest, and
+ * highest of these are reported.  Operations are done in batches that
+ * grow until a batch takes at least BATCH_TIME, so reading the clock
+ * doesn't swamp short operations.
+ * <p>
+ * Inputs are synthetic alignments made by MSAGenerator from a fixed
+ * seed, and the random number generators are seeded before each
+ * benchmark, so runs on different commits measure the same work.
+ * Results of operations are folded into a volatile field, so they
+ * can't be optimized away.
+ *
+ * @author Kyle Dewey
+ */
+public class Benchmarks {
+    // begin constants
+    public static final long SEED = 20100515;
+    public static final int WARMUP_ITERATIONS = 3;
+    public static final int DEFAULT_ITERATIONS = 5;
+    public static final long DEFAULT_ITERATION_TIME = 500; // ms
+    public static final long BATCH_TIME = 1000000; // ns
+    public static final int NUM_SELECTED = 5000; // of SELECTION_POOL_SIZE
+    public static final int SELECTION_POOL_SIZE = 10000;
+    // end constants
+
+    /**
+     * A benchmark: something set up once, then an operation
+     * done over and over.
+     */
+    public static abstract class Benchmark {
+        private String name;
+
+        /**
+         * Creates a new benchmark.
+         *
+         * @param name The name of the benchmark, as reported
+         */
+        public Benchmark( String name ) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the name of the benchmark.
+         *
+         * @return The name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Prepares the inputs.  Not timed.
+         *
+         * @exception Exception If the inputs couldn't be made
+         */
+        public void setup() throws Exception {}
+
+        /**
+         * Does the operation being measured once.
+         *
+         * @return The result of the operation, or anything else
+         *         that depends on it being done; may be null
+         *
+         * @exception Exception If the operation failed
+         */
+        public abstract Object run() throws Exception;
+    }
+
+    // begin global variables
+    private static volatile int sink; // results end up here
+    // end global variables
+
+    /**
+     * Prints usage information for the benchmarks.
+     */
+    public static void usage() {
+        System.out.println( "Takes the following optional params:\n" +
+                            "only run benchmarks whose names contain this (default all)\n" +
+                            "number of timed iterations (default " +
+                            DEFAULT_ITERATIONS + ")\n" +
+                            "ms per iteration (default " +
+                            DEFAULT_ITERATION_TIME + ")\n" );
+    }
+
+    /**
+     * Makes a synthetic alignment in the given directory, named
+     * after its size, evolved down a random tree under MSAGenerator's
+     * defaults.
+     *
+     * @param directory Where to put the alignment
+     * @param numTaxa The number of taxa
+     * @param numSites The number of sites
+     *
+     * @return The alignment file
+     *
+     * @exception IOException If the file couldn't be written
+     * @exception ArgsException If the size is too small
+     */
+    public static File makeAlignment( File directory,
+                                      int numTaxa,
+                                      int numSites )
+        throws IOException, ArgsException {
+        File retval = new File( directory, numTaxa + "x" + numSites + ".aln" );
+
+        if ( !retval.exists() ) {
+            new MSAGenerator( numTaxa,
+                              numSites,
+                              MSAGenerator.DEFAULT_MODEL,
+                              MSAGenerator.DEFAULT_KAPPA,
+                              MSAGenerator.DEFAULT_BRANCH_LENGTH,
+                              -1.0,
+                              SEED,
+                              false ).write( retval, 1 );
+            retval.deleteOnExit();
+        }
+
+        return retval;
+    }
+
+    /**
+     * Makes a random tree over the taxa of an alignment.
+     *
+     * @param alignment The alignment
+     *
+     * @return A genotype holding the tree
+     *
+     * @exception IOException If the alignment couldn't be read
+     */
+    public static PhylogeneticTreeGenotype makeGenotype( File alignment )
+        throws IOException {
+        return new PhylogeneticTreeGenotype( PhylogeneticTreeIndividual
+                                             .getTaxaFromFile( alignment.getPath() ) );
+    }
+
+    /**
+     * Gets every node of a tree, in post-order.
+     *
+     * @param genotype The genotype holding the tree
+     *
+     * @return The nodes
+     */
+    public static List< BinaryTreeNode< PhylogeneticTreeItem > > getNodes( PhylogeneticTreeGenotype genotype ) {
+        List< BinaryTreeNode< PhylogeneticTreeItem > > retval =
+            new ArrayList< BinaryTreeNode< PhylogeneticTreeItem > >();
+
+        for( BinaryTreeNode< PhylogeneticTreeItem > node :
+                 (BinaryTree< PhylogeneticTreeItem >)genotype.getPhenotype() ) {
+            retval.add( node );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Makes every benchmark.
+     *
+     * @param directory Where to put the alignments they read
+     *
+     * @return The benchmarks
+     *
+     * @exception IOException If an alignment couldn't be written
+     */
+    public static List< Benchmark > makeBenchmarks( final File directory )
+        throws IOException {
+        List< Benchmark > retval = new ArrayList< Benchmark >();
+        int[][] fitnessSizes = { { 16, 1000 },
+                                 { 64, 1000 },
+                                 { 64, 10000 },
+                                 { 256, 2000 } };
+
+        for( final int[] size : fitnessSizes ) {
+            retval.add( new Benchmark( "calculateFitness/" + size[ 0 ] + "x" + size[ 1 ] ) {
+                    private PhylogeneticTreeIndividual individual;
+
+                    public void setup() throws Exception {
+                        File alignment = makeAlignment( directory, size[ 0 ], size[ 1 ] );
+                        // fitness is given, so none is calculated in the background
+                        individual = new PhylogeneticTreeIndividual( makeGenotype( alignment ), 0.0 );
+                    }
+
+                    public Object run() {
+                        return individual.calculateFitness();
+                    }
+                } );
+        }
+
+        retval.add( new Benchmark( "crossover/64" ) {
+                private Genotype first;
+                private Genotype second;
+
+                public void setup() throws Exception {
+                    File alignment = makeAlignment( directory, 64, 1000 );
+                    first = makeGenotype( alignment );
+                    second = makeGenotype( alignment );
+                }
+
+                public Object run() throws Exception {
+                    return first.crossover( second );
+                }
+            } );
+        retval.add( new Benchmark( "mutate/64" ) {
+                private Genotype genotype;
+
+                public void setup() throws Exception {
+                    genotype = makeGenotype( makeAlignment( directory, 64, 1000 ) );
+                }
+
+                public Object run() {
+                    return genotype.mutate( 0.05 );
+                }
+            } );
+        retval.add( new Benchmark( "getNthNode/256" ) {
+                private BinaryTree< PhylogeneticTreeItem > tree;
+                private int numNodes;
+                private int next;
+
+                public void setup() throws Exception {
+                    PhylogeneticTreeGenotype genotype =
+                        makeGenotype( makeAlignment( directory, 256, 2000 ) );
+                    tree = (BinaryTree< PhylogeneticTreeItem >)genotype.getPhenotype();
+                    numNodes = getNodes( genotype ).size();
+                    next = 0;
+                }
+
+                public Object run() {
+                    next = ( next + 97 ) % numNodes;
+                    return tree.getNthNode( next );
+                }
+            } );
+        retval.add( new Benchmark( "inDistinctSubtrees/256" ) {
+                private List< BinaryTreeNode< PhylogeneticTreeItem > > nodes;
+                private int next;
+
+                public void setup() throws Exception {
+                    nodes = getNodes( makeGenotype( makeAlignment( directory, 256, 2000 ) ) );
+                    next = 0;
+                }
+
+                public Object run() {
+                    next = ( next + 1 ) % nodes.size();
+                    return BinaryTree.inDistinctSubtrees( nodes.get( next ),
+                                                          nodes.get( ( next * 7 + 3 ) % nodes.size() ) );
+                }
+            } );
+
+        String[] selections = { "TruncationSelection",
+                                "RouletteWheelSelection",
+                                "BinaryTournamentSelection",
+                                "TournamentSelection:4" };
+        for( final String selectionName : selections ) {
+            retval.add( new Benchmark( "selection/" + selectionName ) {
+                    private Selection< Individual > selection;
+                    private List< Individual > pool;
+                    private double[] fitnesses;
+
+                    public void setup() throws Exception {
+                        Genotype genotype = makeGenotype( makeAlignment( directory, 16, 1000 ) );
+                        Random random = new Random( SEED );
+                        selection = Registry.makeSelection( selectionName, true );
+                        pool = new ArrayList< Individual >( SELECTION_POOL_SIZE );
+                        for( int x = 0; x < SELECTION_POOL_SIZE; x++ ) {
+                            // only fitness matters, so they can share a genotype
+                            pool.add( new PhylogeneticTreeIndividual( genotype,
+                                                                      1000.0 * random.nextDouble() ) );
+                        }
+                        fitnesses = Selection.getFitnesses( pool );
+                    }
+
+                    public Object run() {
+                        return selection.performSelection( pool, fitnesses, NUM_SELECTED );
+                    }
+                } );
+        }
+
+        retval.add( new Benchmark( "readMSAFile/256x10000" ) {
+                private File alignment;
+
+                public void setup() throws Exception {
+                    alignment = makeAlignment( directory, 256, 10000 );
+                }
+
+                public Object run() throws Exception {
+                    return new ReadClustalWMSA().readMSAFile( alignment );
+                }
+            } );
+        retval.add( new Benchmark( "undergoGeneration/16x1000x200" ) {
+                private Population population;
+
+                public void setup() throws Exception {
+                    File alignment = makeAlignment( directory, 16, 1000 );
+                    population = RunGA.makePopulation( "PhylogeneticTreeIndividual" + RunGA.DELIM +
+                                                       alignment.getPath(),
+                                                       0.5,
+                                                       0.1,
+                                                       0.1,
+                                                       200,
+                                                       Registry.makeSelection( "BinaryTournamentSelection", true ),
+                                                       Registry.makeSelection( "TruncationSelection", true ),
+                                                       true,
+                                                       200 );
+                }
+
+                public Object run() {
+                    population.undergoGeneration();
+                    return population.getPopulationSize();
+                }
+            } );
+
+        return retval;
+    }
+
+    /**
+     * Folds a result into the sink.
+     *
+     * @param result The result; may be null
+     */
+    private static void consume( Object result ) {
+        sink += System.identityHashCode( result );
+    }
+
+    /**
+     * Does one iteration of a benchmark.
+     *
+     * @param benchmark The benchmark
+     * @param iterationTime How long to keep doing the operation, in ms
+     *
+     * @return The time of one operation, in ns
+     *
+     * @exception Exception If the operation failed
+     */
+    public static double iterate( Benchmark benchmark,
+                                  long iterationTime ) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + iterationTime * 1000000;
+        long numOps = 0;
+        long batchSize = 1;
+        long now;
+
+        do {
+            long batchStart = System.nanoTime();
+            for( long x = 0; x < batchSize; x++ ) {
+                consume( benchmark.run() );
+            }
+            numOps += batchSize;
+            now = System.nanoTime();
+            if ( now - batchStart < BATCH_TIME ) {
+                batchSize *= 2;
+            }
+        } while ( now < deadline );
+
+        return (double)( now - start ) / numOps;
+    }
+
+    /**
+     * Runs a benchmark: sets it up, warms it up, and times it.
+     *
+     * @param benchmark The benchmark
+     * @param iterations The number of timed iterations
+     * @param iterationTime The length of each iteration, in ms
+     *
+     * @return The time of an operation in each timed iteration, in ns
+     *
+     * @exception Exception If the benchmark failed
+     */
+    public static double[] measure( Benchmark benchmark,
+                                    int iterations,
+                                    long iterationTime ) throws Exception {
+        double[] retval = new double[ iterations ];
+
+        Checkpointer.seedRandoms( SEED );
+        benchmark.setup();
+        for( int x = 0; x < WARMUP_ITERATIONS; x++ ) {
+            iterate( benchmark, iterationTime );
+        }
+        for( int x = 0; x < iterations; x++ ) {
+            retval[ x ] = iterate( benchmark, iterationTime );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Prints the results of a benchmark.
+     *
+     * @param benchmark The benchmark
+     * @param times The time of an operation in each iteration, in ns
+     */
+    public static void printResults( Benchmark benchmark,
+                                     double[] times ) {
+        double[] sorted = times.clone();
+
+        Arrays.sort( sorted );
+        System.out.printf( "%-34s %14.1f ns/op   min %14.1f   max %14.1f   %12.1f ops/s\n",
+                           benchmark.getName(),
+                           sorted[ sorted.length / 2 ],
+                           sorted[ 0 ],
+                           sorted[ sorted.length - 1 ],
+                           1e9 / sorted[ sorted.length / 2 ] );
+    }
+
+    public static void main( String[] args ) {
+        try {
+            String filter = ( args.length > 0 ) ? args[ 0 ] : "";
+            int iterations = ( args.length > 1 ) ?
+                Integer.parseInt( args[ 1 ] ) : DEFAULT_ITERATIONS;
+            long iterationTime = ( args.length > 2 ) ?
+                Long.parseLong( args[ 2 ] ) : DEFAULT_ITERATION_TIME;
+            File directory = Files.createTempDirectory( "benchmarks" ).toFile();
+
+            directory.deleteOnExit();
+            for( Benchmark benchmark : makeBenchmarks( directory ) ) {
+                if ( benchmark.getName().contains( filter ) ) {
+                    printResults( benchmark,
+                                  measure( benchmark, iterations, iterationTime ) );
+                }
+            }
+            Individual.cleanup();
+        } catch ( NumberFormatException e ) {
+            usage();
+            System.exit( 1 );
+        } catch ( Exception e ) {
+            System.err.println( e );
+            System.exit( 1 );
+        }
+    }
+}
@@ -13,6 +13,8 @@
  */
 
 import java.util.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Represents a binary tree.
@@ -22,7 +24,7 @@ import java.util.*;
  */
 public class BinaryTree< T extends Comparable< T > > implements Iterable< BinaryTreeNode< T > > {
     // begin constants
-    protected static final Random random = new Random();
+    protected static final RestorableRandom random = new RestorableRandom();
     // end constants
 
     // begin instance variables
@@ -110,31 +112,54 @@ public class BinaryTree< T extends Comparable< T > > implements Iterable< Binary
      * @return A string representing this tree
      */
     public String toString() {
-        return toString( root );
+        StringBuilder retval = new StringBuilder();
+
+        try {
+            write( retval );
+        } catch ( IOException e ) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException( e );
+        }
+
+        return retval.toString();
     }
 
     /**
-     * Prints out a tree, starting from the given node.
-     * Note that it only prints out leaf nodes - internal
-     * nodes are printed with parenthesis.
+     * Writes out this tree, in the same form as toString(), without
+     * building up a string for each subtree.
+     *
+     * @param out Where to write the tree
+     *
+     * @exception IOException If writing failed
+     */
+    public void write( Appendable out ) throws IOException {
+        write( root, out );
+    }
+
+    /**
+     * Writes out a tree, starting from the given node.
+     * Note that it only writes out leaf nodes - internal
+     * nodes are written with parenthesis.
      *
      * @param node The node to start from
+     * @param out Where to write the tree
      *
-     * @return A string representing this tree
+     * @exception IOException If writing failed
      */
-    private String toString( BinaryTreeNode< T > node ) {
+    private void write( BinaryTreeNode< T > node,
+                        Appendable out ) throws IOException {
         if ( node != null ) {
             if ( isLeaf( node ) ) {
-                return node.toString();
+                out.append( node.toString() );
             } else {
                 // internal node
-                return "(" + toString( node.getLeft() ) + ", " +
-                    toString( node.getRight() ) + ")";
+                out.append( '(' );
+                write( node.getLeft(), out );
+                out.append( ", " );
+                write( node.getRight(), out );
+                out.append( ')' );
             }
         }
-
-        // in case of null
-        return "";
     }
 
     /**
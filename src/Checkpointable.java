@@ -0,0 +1,31 @@
+import java.io.*;
+
+/**
+ * Something whose internal state can be saved to a checkpoint
+ * and restored from it, such as a termination condition that
+ * remembers past generations.
+ *
+ * @author Kyle Dewey
+ */
+public interface Checkpointable {
+    /**
+     * Writes out the internal state.
+     *
+     * @param output Where to write the state
+     *
+     * @exception IOException If an error occurred on writing
+     */
+    public void writeState( DataOutput output )
+        throws IOException;
+
+    /**
+     * Replaces the internal state with one written by writeState().
+     *
+     * @param input Where to read the state from
+     *
+     * @exception IOException If an error occurred on reading, or
+     *            the state is malformed
+     */
+    public void readState( DataInput input )
+        throws IOException;
+}
@@ -0,0 +1,348 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.lang.reflect.Constructor;
+
+/**
+ * Periodically saves the state of a GA run to a file, so that the
+ * run can be resumed after the JVM goes away.  The snapshot holds
+ * the random number generators, the next individual ID, and for
+ * each island its generation, termination condition state (if it is
+ * Checkpointable), and every individual's genotype and fitness.
+ * <p>
+ * The snapshot is put together in memory at the end of a generation,
+ * and written out on a background thread, so the GA carries on while
+ * the file is written.  The file is written beside the target and
+ * then moved into place, so a crash mid-write leaves the previous
+ * checkpoint intact.  If a write is still going when the next
+ * checkpoint comes due, that checkpoint is skipped.
+ * <p>
+ * The format is: MAGIC, VERSION, the number of random number
+ * generators and the state of each, the next individual ID, the
+ * environment's generation, the number of islands, then per island
+ * its generation, its terminator state (length-prefixed, possibly
+ * empty), its number of individuals, and per individual its fitness
+ * and genotype as written by a GenotypeCodec.
+ *
+ * @author Kyle Dewey
+ */
+public class Checkpointer implements EnvironmentListener {
+    // begin constants
+    public static final int MAGIC = 0x47414350; // "GACP"
+    public static final int VERSION = 3;
+    public static final String TEMP_SUFFIX = ".tmp";
+    // end constants
+
+    // begin instance variables
+    private Path file; // where checkpoints go
+    private long interval; // generations between checkpoints
+    private GenotypeCodec codec; // for writing genotypes
+    private ExecutorService writer; // writes checkpoints in the background
+    private AtomicBoolean writing; // if a checkpoint is being written
+    // end instance variables
+
+    /**
+     * Creates a new checkpointer.
+     *
+     * @param file Where checkpoints are written
+     * @param interval Number of generations between checkpoints; <= 0
+     *        means only at GA end
+     * @param codec Writes genotypes
+     */
+    public Checkpointer( File file,
+                         long interval,
+                         GenotypeCodec codec ) {
+        this.file = file.toPath();
+        this.interval = interval;
+        this.codec = codec;
+        writing = new AtomicBoolean( false );
+        writer = Executors.newSingleThreadExecutor( new ThreadFactory() {
+                public Thread newThread( Runnable job ) {
+                    Thread retval = new Thread( job, "checkpoint-writer" );
+                    retval.setDaemon( true );
+                    return retval;
+                }
+            } );
+    }
+
+    /**
+     * Nothing to do at GA start.
+     *
+     * @param environment The environment being run
+     */
+    public void gaStarted( Environment environment ) {}
+
+    /**
+     * Saves a checkpoint if one is due.
+     *
+     * @param environment The environment being run
+     */
+    public void generationDone( Environment environment ) {
+        if ( interval > 0 &&
+             environment.getCurrentGeneration() % interval == 0 ) {
+            checkpoint( environment, false );
+        }
+    }
+
+    /**
+     * Saves a final checkpoint, and waits for it to be written.
+     *
+     * @param environment The environment being run
+     */
+    public void gaEnded( Environment environment ) {
+        checkpoint( environment, true );
+        writer.shutdown();
+        try {
+            writer.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the environment, and has it written out
+     * in the background.
+     *
+     * @param environment The environment to save
+     * @param force If false, the checkpoint is skipped when another
+     *        is still being written
+     */
+    public void checkpoint( Environment environment, boolean force ) {
+        final byte[] snapshot;
+
+        if ( !writing.compareAndSet( false, true ) && !force ) {
+            return;
+        }
+
+        try {
+            snapshot = snapshot( environment );
+        } catch ( IOException e ) {
+            System.err.println( "Could not take checkpoint: " + e );
+            writing.set( false );
+            return;
+        }
+
+        writer.execute( new Runnable() {
+                public void run() {
+                    try {
+                        write( snapshot );
+                    } catch ( IOException e ) {
+                        System.err.println( "Could not write checkpoint " +
+                                            file + ": " + e );
+                    } finally {
+                        writing.set( false );
+                    }
+                }
+            } );
+    }
+
+    /**
+     * Writes out a snapshot, replacing the previous checkpoint.
+     *
+     * @param snapshot The snapshot to write
+     *
+     * @exception IOException If an error occurred on writing
+     */
+    private void write( byte[] snapshot )
+        throws IOException {
+        Path temp = file.resolveSibling( file.getFileName() + TEMP_SUFFIX );
+        FileChannel channel = FileChannel.open( temp,
+                                                StandardOpenOption.CREATE,
+                                                StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING );
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap( snapshot );
+            while ( buffer.hasRemaining() ) {
+                channel.write( buffer );
+            }
+            channel.force( true );
+        } finally {
+            channel.close();
+        }
+        Files.move( temp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    /**
+     * Gets the random number generators that make up the state
+     * of a run.
+     *
+     * @return The random number generators, in snapshot order
+     */
+    private static RestorableRandom[] getRandoms() {
+        return new RestorableRandom[]{ Population.random,
+                                       Selection.random,
+                                       Genotype.random,
+                                       BinaryTree.random,
+                                       RandomTopology.random };
+    }
+
+    /**
+     * Seeds the random number generators that make up the state of a
+     * run, so a run, or a benchmark, makes the same choices every
+     * time.  Only repeatable if fitness is calculated on the calling
+     * thread or waited for in order.
+     *
+     * @param seed The seed
+     */
+    public static void seedRandoms( long seed ) {
+        RestorableRandom[] randoms = getRandoms();
+
+        for( int x = 0; x < randoms.length; x++ ) {
+            randoms[ x ].setSeed( seed + x );
+        }
+    }
+
+    /**
+     * Takes a snapshot of the given environment.
+     *
+     * @param environment The environment
+     *
+     * @return The snapshot, in the format described above
+     *
+     * @exception IOException If something couldn't be written
+     */
+    public byte[] snapshot( Environment environment )
+        throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream( bytes );
+        RestorableRandom[] randoms = getRandoms();
+        List< Environment > islands = environment.getIslands();
+
+        output.writeInt( MAGIC );
+        output.writeInt( VERSION );
+        output.writeInt( randoms.length );
+        for( RestorableRandom random : randoms ) {
+            output.writeLong( random.getState() );
+        }
+        output.writeLong( Individual.getNextId() );
+
+        output.writeLong( environment.getCurrentGeneration() );
+        output.writeInt( islands.size() );
+        for( Environment island : islands ) {
+            Population population = island.getPopulation();
+            Terminator terminator = island.getTerminator();
+            ByteArrayOutputStream state = new ByteArrayOutputStream();
+            List< Individual > individuals = population.getIndividuals();
+
+            output.writeLong( population.getCurrentGeneration() );
+            if ( terminator instanceof Checkpointable ) {
+                ( (Checkpointable)terminator ).writeState( new DataOutputStream( state ) );
+            }
+            output.writeInt( state.size() );
+            state.writeTo( output );
+
+            output.writeInt( individuals.size() );
+            for( Individual current : individuals ) {
+                output.writeDouble( current.getFitness() );
+                codec.write( current.getPhenotype(), output );
+            }
+        }
+        output.flush();
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores a run from a checkpoint.  The environment must have the
+     * same number of islands as the one that was saved, and their
+     * populations should be empty; they are filled from the checkpoint.
+     *
+     * @param file The checkpoint
+     * @param environment The environment to restore into
+     * @param codec Reads genotypes
+     * @param individualClass The class of the saved individuals
+     *
+     * @exception IOException If the checkpoint couldn't be read, is
+     *            malformed, or doesn't match the environment
+     */
+    public static void restore( File file,
+                                Environment environment,
+                                GenotypeCodec codec,
+                                Class< ? extends Individual > individualClass )
+        throws IOException {
+        DataInputStream input =
+            new DataInputStream( new ByteArrayInputStream( Files.readAllBytes( file.toPath() ) ) );
+        List< Environment > islands = environment.getIslands();
+        Constructor< ? extends Individual > withFitness = null;
+        Constructor< ? extends Individual > withoutFitness = null;
+        long[] states;
+        long nextId;
+
+        try {
+            withFitness = individualClass.getConstructor( Genotype.class, Double.TYPE );
+        } catch ( NoSuchMethodException e ) {
+            try {
+                withoutFitness = individualClass.getConstructor( Genotype.class );
+            } catch ( NoSuchMethodException e2 ) {
+                throw new IOException( individualClass + " has no Genotype constructor" );
+            }
+        }
+
+        if ( input.readInt() != MAGIC ) {
+            throw new IOException( file + " is not a checkpoint" );
+        } else if ( input.readInt() != VERSION ) {
+            throw new IOException( file + " is from an unsupported version" );
+        }
+
+        states = new long[ input.readInt() ];
+        if ( states.length != getRandoms().length ) {
+            throw new IOException( "Unexpected number of random number generators" );
+        }
+        for( int x = 0; x < states.length; x++ ) {
+            states[ x ] = input.readLong();
+        }
+        nextId = input.readLong();
+
+        long generation = input.readLong();
+        int numIslands = input.readInt();
+        if ( numIslands != islands.size() ) {
+            throw new IOException( "Checkpoint has " + numIslands + " islands; " +
+                                   "expected " + islands.size() );
+        }
+
+        for( Environment island : islands ) {
+            Population population = island.getPopulation();
+            Terminator terminator = island.getTerminator();
+            long islandGeneration = input.readLong();
+            byte[] state = new byte[ input.readInt() ];
+            int numIndividuals;
+
+            input.readFully( state );
+            if ( terminator instanceof Checkpointable ) {
+                ( (Checkpointable)terminator )
+                    .readState( new DataInputStream( new ByteArrayInputStream( state ) ) );
+            }
+
+            numIndividuals = input.readInt();
+            for( int x = 0; x < numIndividuals; x++ ) {
+                double fitness = input.readDouble();
+                Genotype genotype = codec.read( input );
+                try {
+                    if ( withFitness != null ) {
+                        population.addIndividual( withFitness.newInstance( genotype, fitness ) );
+                    } else {
+                        population.addIndividual( withoutFitness.newInstance( genotype ) );
+                    }
+                } catch ( Exception e ) {
+                    throw new IOException( "Could not recreate individual: " + e );
+                }
+            }
+            population.setCurrentGeneration( islandGeneration );
+        }
+
+        environment.setCurrentGeneration( generation );
+        RestorableRandom[] randoms = getRandoms();
+        for( int x = 0; x < states.length; x++ ) {
+            randoms[ x ].setState( states[ x ] );
+        }
+        // after the individuals, which took IDs of their own
+        Individual.setNextId( nextId );
+    }
+}
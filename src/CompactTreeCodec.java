@@ -0,0 +1,168 @@
+import java.io.*;
+
+/**
+ * Encodes compact tree genotypes in binary, in the same form as
+ * PhylogeneticTreeCodec: pre-order, one number per node, the index
+ * of the taxa for leaves or INTERNAL_NODE for ancestors.  A tree
+ * written by either codec can be read by the other, so the two kinds
+ * of individual can share checkpoints and fitness workers.
+ * Both sides must have read in the same taxa, in the same order.
+ *
+ * @author Kyle Dewey
+ */
+public class CompactTreeCodec implements GenotypeCodec {
+    // begin constants
+    public static final int INTERNAL_NODE = PhylogeneticTreeCodec.INTERNAL_NODE;
+    // end constants
+
+    // begin instance variables
+    private MSAStore store; // taxa, by index
+    private boolean wide; // true if indices must be written as ints
+    // end instance variables
+
+    /**
+     * Creates a codec for trees built from the taxa in the given file.
+     *
+     * @param msaFile File containing a multiple sequence alignment
+     *
+     * @exception IOException If an error occurred on reading the file
+     */
+    public CompactTreeCodec( String msaFile )
+        throws IOException {
+        this( CompactTreeIndividual.getStoreFromFile( msaFile ) );
+    }
+
+    /**
+     * Creates a codec for trees built from the taxa in the given store.
+     *
+     * @param store The store holding the taxa
+     */
+    public CompactTreeCodec( MSAStore store ) {
+        this.store = store;
+        wide = store.getNumTaxa() > Short.MAX_VALUE;
+    }
+
+    /**
+     * Writes out a compact tree genotype.
+     *
+     * @param genotype The genotype to write
+     * @param output Where to write it
+     *
+     * @exception IOException If an error occurred on writing
+     */
+    public void write( Genotype genotype, DataOutput output )
+        throws IOException {
+        CompactTreeGenotype tree = (CompactTreeGenotype)genotype;
+        int[] children = tree.getChildren();
+        int numTaxa = tree.getNumTaxa();
+        int[] stack = new int[ tree.getNumNodes() ];
+        int top = 0;
+
+        if ( numTaxa != store.getNumTaxa() ) {
+            throw new IOException( "Tree has " + numTaxa + " taxa; expected " +
+                                   store.getNumTaxa() );
+        }
+        output.writeByte( genotype.getSource().ordinal() );
+        stack[ top++ ] = tree.getRoot();
+        while ( top > 0 ) {
+            int node = stack[ --top ];
+            if ( node < numTaxa ) {
+                writeIndex( node, output );
+            } else {
+                writeIndex( INTERNAL_NODE, output );
+                // right first, so left comes off the stack first
+                stack[ top++ ] = children[ 2 * ( node - numTaxa ) + 1 ];
+                stack[ top++ ] = children[ 2 * ( node - numTaxa ) ];
+            }
+        }
+    }
+
+    /**
+     * Reads in a compact tree genotype.  Internal nodes are numbered
+     * down from the root, in the order they are read.
+     *
+     * @param input Where to read from
+     *
+     * @return The genotype that was read in
+     *
+     * @exception IOException If an error occurred on reading, or the
+     *            data is malformed
+     */
+    public Genotype read( DataInput input )
+        throws IOException {
+        Genotype.Source[] sources = Genotype.Source.values();
+        int source = input.readUnsignedByte();
+        int numTaxa = store.getNumTaxa();
+        int[] children = new int[ 2 * ( numTaxa - 1 ) ];
+        boolean[] seen = new boolean[ numTaxa ];
+        int[] stack = new int[ children.length + 1 ]; // slots waiting to be filled
+        int top = 0;
+        int nextInternal = children.length; // the root
+
+        if ( source >= sources.length ) {
+            throw new IOException( "Unknown genotype source: " + source );
+        }
+        // the root is read like any other node, but has no slot
+        stack[ top++ ] = -1;
+        while ( top > 0 ) {
+            int slot = stack[ --top ];
+            int index = readIndex( input );
+            int node;
+            if ( index == INTERNAL_NODE ) {
+                if ( nextInternal < numTaxa ) {
+                    throw new IOException( "Too many internal nodes" );
+                }
+                node = nextInternal--;
+                stack[ top++ ] = 2 * ( node - numTaxa ) + 1;
+                stack[ top++ ] = 2 * ( node - numTaxa );
+            } else if ( index >= 0 && index < numTaxa && !seen[ index ] ) {
+                seen[ index ] = true;
+                node = index;
+            } else {
+                throw new IOException( "Unknown or repeated taxa index: " + index );
+            }
+            if ( slot != -1 ) {
+                children[ slot ] = node;
+            }
+        }
+        if ( nextInternal != numTaxa - 1 ) {
+            throw new IOException( "Tree doesn't hold every taxa" );
+        }
+
+        Genotype retval = new CompactTreeGenotype( store, children );
+        retval.setSource( sources[ source ] );
+
+        return retval;
+    }
+
+    /**
+     * Writes out the index of a node.
+     *
+     * @param index The index
+     * @param output Where to write it
+     *
+     * @exception IOException If an error occurred on writing
+     */
+    private void writeIndex( int index, DataOutput output )
+        throws IOException {
+        if ( wide ) {
+            output.writeInt( index );
+        } else {
+            output.writeShort( index );
+        }
+    }
+
+    /**
+     * Reads in the index of a node.
+     *
+     * @param input Where to read from
+     *
+     * @return The index
+     *
+     * @exception IOException If an error occurred on reading
+     */
+    private int readIndex( DataInput input )
+        throws IOException {
+        return ( wide ? input.readInt() : input.readShort() );
+    }
+}
@@ -0,0 +1,370 @@
+import java.util.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A phylogenetic tree genotype that takes a fraction of the memory
+ * of PhylogeneticTreeGenotype, for very large populations.  Instead
+ * of a node object, an item, and a Sankoff array for every node, the
+ * whole tree is a single array of ints.  Nodes are numbered: leaves
+ * are numbered by the index of their taxa in the store, and internal
+ * nodes come after them, with the root last.  The array holds the
+ * left and right children of each internal node, in the order of the
+ * internal nodes.  Names and states of the taxa are looked up in the
+ * store, which every tree built from the same alignment shares.
+ * <p>
+ * Crossover and mutation work as they do for
+ * PhylogeneticTreeGenotype.  The root is never moved by either, so
+ * it stays the last node.
+ *
+ * @author Kyle Dewey
+ */
+public class CompactTreeGenotype extends Genotype {
+    // begin instance variables
+    private MSAStore store; // the taxa, shared by every tree
+    private int[] children; // left and right child of each internal node
+    // end instance variables
+
+    /**
+     * Creates a new genotype with the given tree.
+     *
+     * @param store The store holding the taxa
+     * @param children The left and right child of each internal node,
+     *        numbered as described above; not copied
+     */
+    public CompactTreeGenotype( MSAStore store, int[] children ) {
+        this.store = store;
+        this.children = children;
+    }
+
+    /**
+     * Creates a new, randomly generated tree over every taxa in the
+     * store.  Random pairs of subtrees are joined until there is
+     * only one.
+     *
+     * @param store The store holding the taxa; must have at least two
+     */
+    public CompactTreeGenotype( MSAStore store ) {
+        this( store, createRandomTree( store.getNumTaxa() ) );
+        setSource( Source.INITIAL );
+    }
+
+    /**
+     * Makes the children of a random tree.
+     *
+     * @param numTaxa The number of taxa
+     *
+     * @return The left and right child of each internal node
+     */
+    public static int[] createRandomTree( int numTaxa ) {
+        int[] retval = new int[ 2 * ( numTaxa - 1 ) ];
+        int[] subtrees = new int[ numTaxa ]; // roots of the subtrees left to join
+        int numSubtrees = numTaxa;
+
+        for( int x = 0; x < numTaxa; x++ ) {
+            subtrees[ x ] = x;
+        }
+        for( int node = numTaxa; node < 2 * numTaxa - 1; node++ ) {
+            for( int child = 0; child < 2; child++ ) {
+                int pick = random.nextInt( numSubtrees );
+                retval[ 2 * ( node - numTaxa ) + child ] = subtrees[ pick ];
+                subtrees[ pick ] = subtrees[ --numSubtrees ];
+            }
+            subtrees[ numSubtrees++ ] = node;
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets the underlying phenotype: the array of children.
+     *
+     * @return The left and right child of each internal node;
+     *         not to be changed
+     */
+    public Object getPhenotype() {
+        return children;
+    }
+
+    /**
+     * Gets the store holding the taxa.
+     *
+     * @return The store
+     */
+    public MSAStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the left and right child of each internal node.
+     *
+     * @return The children; not to be changed
+     */
+    public int[] getChildren() {
+        return children;
+    }
+
+    /**
+     * Gets the number of taxa, which are the leaves.
+     *
+     * @return The number of taxa
+     */
+    public int getNumTaxa() {
+        return children.length / 2 + 1;
+    }
+
+    /**
+     * Gets the number of nodes in the tree.
+     *
+     * @return The number of nodes
+     */
+    public int getNumNodes() {
+        return children.length + 1;
+    }
+
+    /**
+     * Gets the root of the tree.
+     *
+     * @return The number of the root node
+     */
+    public int getRoot() {
+        return children.length;
+    }
+
+    /**
+     * The crossover operation, as proposed in Hill et. al.  A random
+     * subtree of a copy of this tree is picked, and its taxa are put
+     * in the order that they are found in the other tree.
+     *
+     * @param other The other genotype to crossover with
+     *
+     * @return A new genotype, a mixture of the two
+     *
+     * @exception GenotypeCastException If the other genotype isn't a
+     *            CompactTreeGenotype over the same number of taxa
+     */
+    public Genotype crossover( Genotype other )
+        throws GenotypeCastException {
+        if ( !this.getClass().equals( other.getClass() ) ) {
+            throw new GenotypeCastException( "Incompatible genotypes tried to cross: " +
+                                             this.getClass().toString() + " and " +
+                                             other.getClass().toString() );
+        }
+        CompactTreeGenotype otherTree = (CompactTreeGenotype)other;
+        if ( otherTree.getNumTaxa() != getNumTaxa() ) {
+            throw new GenotypeCastException( "Trees over different taxa tried to cross" );
+        }
+        int numTaxa = getNumTaxa();
+        int[] newChildren = children.clone();
+        int[] slots = new int[ numTaxa ]; // where the subtree's taxa are in newChildren
+        int[] stack = new int[ getNumNodes() ];
+        boolean[] inSubtree = new boolean[ numTaxa ];
+        int subtree;
+        int numSlots;
+        int numPlaced = 0;
+
+        // a random subtree that isn't a single node
+        subtree = numTaxa + random.nextInt( numTaxa - 1 );
+        numSlots = getLeafSlots( newChildren, subtree, slots, stack );
+        for( int x = 0; x < numSlots; x++ ) {
+            inSubtree[ newChildren[ slots[ x ] ] ] = true;
+        }
+
+        // the same taxa, in the order of the other tree
+        int[] otherSlots = new int[ numTaxa ];
+        int numOther = getLeafSlots( otherTree.children, otherTree.getRoot(), otherSlots, stack );
+        for( int x = 0; x < numOther; x++ ) {
+            int taxa = otherTree.children[ otherSlots[ x ] ];
+            if ( inSubtree[ taxa ] ) {
+                newChildren[ slots[ numPlaced++ ] ] = taxa;
+            }
+        }
+
+        CompactTreeGenotype retval = new CompactTreeGenotype( store, newChildren );
+        retval.setSource( Source.CROSSOVER );
+
+        return retval;
+    }
+
+    /**
+     * Finds where the leaves under a node are in an array of children,
+     * in order from left to right, as a post-order traversal meets
+     * them.
+     *
+     * @param children The children of each internal node
+     * @param node An internal node
+     * @param slots Where to put the positions in children of the leaves
+     * @param stack Room for a traversal; as long as the number of nodes
+     *
+     * @return The number of leaves found
+     */
+    private static int getLeafSlots( int[] children,
+                                     int node,
+                                     int[] slots,
+                                     int[] stack ) {
+        int numTaxa = children.length / 2 + 1;
+        int top = 0;
+        int retval = 0;
+
+        // right first, so left comes off the stack first
+        stack[ top++ ] = 2 * ( node - numTaxa ) + 1;
+        stack[ top++ ] = 2 * ( node - numTaxa );
+        while ( top > 0 ) {
+            int slot = stack[ --top ];
+            int child = children[ slot ];
+            if ( child < numTaxa ) {
+                slots[ retval++ ] = slot;
+            } else {
+                stack[ top++ ] = 2 * ( child - numTaxa ) + 1;
+                stack[ top++ ] = 2 * ( child - numTaxa );
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * The mutation operation.  Makes a copy of this genotype, and
+     * swaps random subtrees of that, as many times as there were
+     * nodes picked to mutate.
+     *
+     * @param prob The probability of any given node to be swapped
+     *        with another
+     *
+     * @return The mutated copy of this genotype, or null if
+     *         no mutations occurred
+     */
+    public Genotype mutate( double prob ) {
+        int numNodes = getNumNodes();
+        int numMutations = 0; // number of mutations to undergo
+
+        for( int x = 0; x < numNodes; x++ ) {
+            if ( prob >= random.nextDouble() ) {
+                numMutations++;
+            }
+        }
+        if ( numMutations == 0 ) {
+            return null;
+        }
+
+        int[] newChildren = children.clone();
+        int[] parentSlots = getParentSlots( newChildren );
+        for( int x = 0; x < numMutations; x++ ) {
+            int node1;
+            int node2;
+            do {
+                node1 = random.nextInt( numNodes );
+                node2 = random.nextInt( numNodes );
+            } while ( node1 == node2 ||
+                      isAncestor( node1, node2, parentSlots ) ||
+                      isAncestor( node2, node1, parentSlots ) );
+            int slot1 = parentSlots[ node1 ];
+            int slot2 = parentSlots[ node2 ];
+            newChildren[ slot1 ] = node2;
+            newChildren[ slot2 ] = node1;
+            parentSlots[ node1 ] = slot2;
+            parentSlots[ node2 ] = slot1;
+        }
+
+        CompactTreeGenotype retval = new CompactTreeGenotype( store, newChildren );
+        retval.setSource( Source.MUTATION );
+
+        return retval;
+    }
+
+    /**
+     * Finds where each node is in an array of children.
+     *
+     * @param children The children of each internal node
+     *
+     * @return The position in children of each node, by node;
+     *         -1 for the root
+     */
+    private static int[] getParentSlots( int[] children ) {
+        int[] retval = new int[ children.length + 1 ];
+
+        retval[ children.length ] = -1;
+        for( int slot = 0; slot < children.length; slot++ ) {
+            retval[ children[ slot ] ] = slot;
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets whether one node is an ancestor of another.
+     *
+     * @param ancestor The possible ancestor
+     * @param node The node
+     * @param parentSlots Where each node is in the array of children
+     *
+     * @return true if ancestor is above node in the tree
+     */
+    private static boolean isAncestor( int ancestor,
+                                       int node,
+                                       int[] parentSlots ) {
+        int numTaxa = parentSlots.length / 2 + 1;
+
+        for( int slot = parentSlots[ node ]; slot != -1; ) {
+            int parent = numTaxa + slot / 2;
+            if ( parent == ancestor ) {
+                return true;
+            }
+            slot = parentSlots[ parent ];
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns a string representation of this genotype, in the same
+     * form as a PhylogeneticTreeGenotype.
+     *
+     * @return A string representing this genotype
+     */
+    public String toString() {
+        StringBuilder retval = new StringBuilder();
+
+        try {
+            write( retval );
+        } catch ( IOException e ) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException( e );
+        }
+
+        return retval.toString();
+    }
+
+    /**
+     * Writes out the tree, in the same form as toString().
+     *
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void write( Appendable out ) throws IOException {
+        write( getRoot(), out );
+    }
+
+    /**
+     * Writes out the subtree starting at the given node.
+     *
+     * @param node The node to start from
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    private void write( int node, Appendable out ) throws IOException {
+        int numTaxa = getNumTaxa();
+
+        if ( node < numTaxa ) {
+            out.append( store.getName( node ) );
+        } else {
+            out.append( '(' );
+            write( children[ 2 * ( node - numTaxa ) ], out );
+            out.append( ", " );
+            write( children[ 2 * ( node - numTaxa ) + 1 ], out );
+            out.append( ')' );
+        }
+    }
+}
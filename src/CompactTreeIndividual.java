@@ -0,0 +1,200 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * A phylogenetic tree individual built on a CompactTreeGenotype, for
+ * populations too large to hold as PhylogeneticTreeIndividuals.  Its
+ * fitness is the same: the Sankoff score over every parsimony
+ * informative point, with the costs in PhylogeneticTreeIndividual.c,
+ * so lower is better.  The Sankoff values are worked out in arrays
+ * kept by each thread that calculates fitness, rather than in the
+ * nodes of every tree.
+ *
+ * @author Kyle Dewey
+ */
+public class CompactTreeIndividual extends Individual {
+    // begin constants
+    public static final int NUM_NUCLEOTIDES = PhylogeneticTreeItem.NUM_NUCLEOTIDES;
+    // end constants
+
+    /**
+     * Room for calculating fitness, kept by each thread.
+     */
+    private static class Scratch {
+        public double[] sankoff = new double[ 0 ]; // NUM_NUCLEOTIDES per internal node
+        public int[] order = new int[ 0 ]; // internal nodes, children first
+    }
+
+    // begin global variables
+    private static final ThreadLocal< Scratch > scratch = new ThreadLocal< Scratch >() {
+            protected Scratch initialValue() {
+                return new Scratch();
+            }
+        };
+    // end global variables
+
+    /**
+     * Gets the store of the taxa in the given file, read in as
+     * PhylogeneticTreeIndividual.getTaxaFromFile() does, so it is
+     * shared with any other individuals using the same file.
+     *
+     * @param msaFile The msa file name
+     *
+     * @return The store
+     */
+    public static MSAStore getStoreFromFile( String msaFile )
+        throws FileNotFoundException, IOException {
+        List< PhylogeneticTreeItem > taxa =
+            PhylogeneticTreeIndividual.getTaxaFromFile( msaFile );
+
+        if ( taxa.size() < 2 ) {
+            throw new IOException( "Need at least 2 taxa in " + msaFile );
+        }
+        return taxa.get( 0 ).getStore();
+    }
+
+    /**
+     * Creates a new individual with a random tree, based on the
+     * taxa found in the given file.
+     *
+     * @param msaFile File containing a multiple sequence alignment
+     */
+    public CompactTreeIndividual( String msaFile )
+        throws FileNotFoundException, IOException {
+        this( new CompactTreeGenotype( getStoreFromFile( msaFile ) ) );
+    }
+
+    /**
+     * Creates a new individual, based on a preexisting phenotype.
+     *
+     * @param phenotype The phenotype to use
+     */
+    public CompactTreeIndividual( Genotype phenotype ) {
+        super( phenotype );
+    }
+
+    /**
+     * Creates a new individual whose fitness is already known.
+     *
+     * @param phenotype The phenotype to use
+     * @param fitness The fitness of the phenotype
+     */
+    public CompactTreeIndividual( Genotype phenotype, double fitness ) {
+        super( phenotype, fitness );
+    }
+
+    /**
+     * Gets the fitness of this individual, as per the Sankoff
+     * algorithm.  Lower fitness values correlate to more fit
+     * individuals.
+     *
+     * @return The score of the Sankoff algorithm combined for all
+     *         parsimony informative points
+     */
+    protected double calculateFitness() {
+        CompactTreeGenotype tree = (CompactTreeGenotype)getPhenotype();
+        MSAStore store = tree.getStore();
+        int[] children = tree.getChildren();
+        int numTaxa = tree.getNumTaxa();
+        int numPoints = store.getNumPoints();
+        Scratch room = scratch.get();
+        double retval = 0.0;
+
+        if ( room.order.length < numTaxa - 1 ) {
+            room.order = new int[ numTaxa - 1 ];
+            room.sankoff = new double[ ( numTaxa - 1 ) * NUM_NUCLEOTIDES ];
+        }
+        int[] order = room.order;
+        double[] sankoff = room.sankoff;
+        getPostOrder( children, numTaxa, order );
+
+        for( int point = 0; point < numPoints; point++ ) {
+            for( int x = 0; x < numTaxa - 1; x++ ) {
+                int node = order[ x ] - numTaxa;
+                int left = children[ 2 * node ];
+                int right = children[ 2 * node + 1 ];
+                for( int position = 0; position < NUM_NUCLEOTIDES; position++ ) {
+                    sankoff[ node * NUM_NUCLEOTIDES + position ] =
+                        getCost( position, left, point, numTaxa, store, sankoff ) +
+                        getCost( position, right, point, numTaxa, store, sankoff );
+                }
+            }
+            int root = ( tree.getRoot() - numTaxa ) * NUM_NUCLEOTIDES;
+            double min = sankoff[ root ];
+            for( int position = 1; position < NUM_NUCLEOTIDES; position++ ) {
+                min = Math.min( min, sankoff[ root + position ] );
+            }
+            retval += min;
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets the least cost of a child of a node, given the nucleotide
+     * at the node.  A leaf costs nothing for its own nucleotide, and
+     * infinitely much for any other, so its cost is just that of
+     * changing to its nucleotide.
+     *
+     * @param position The nucleotide at the parent
+     * @param child The child node
+     * @param point The informative point
+     * @param numTaxa The number of taxa
+     * @param store The store holding the taxa
+     * @param sankoff The Sankoff values of the internal nodes so far
+     *
+     * @return The least cost
+     */
+    private static double getCost( int position,
+                                   int child,
+                                   int point,
+                                   int numTaxa,
+                                   MSAStore store,
+                                   double[] sankoff ) {
+        if ( child < numTaxa ) {
+            int state = store.getState( child, point );
+            return ( state < 0 ) ? Double.POSITIVE_INFINITY :
+                PhylogeneticTreeIndividual.cost( position, state );
+        }
+        int base = ( child - numTaxa ) * NUM_NUCLEOTIDES;
+        double retval = Double.POSITIVE_INFINITY;
+        for( int other = 0; other < NUM_NUCLEOTIDES; other++ ) {
+            retval = Math.min( retval,
+                               PhylogeneticTreeIndividual.cost( position, other ) +
+                               sankoff[ base + other ] );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Puts the internal nodes of a tree in an order where each comes
+     * after its children.
+     *
+     * @param children The children of each internal node
+     * @param numTaxa The number of taxa
+     * @param order Where to put the nodes; at least numTaxa - 1 long
+     */
+    private static void getPostOrder( int[] children,
+                                      int numTaxa,
+                                      int[] order ) {
+        int found = 0; // nodes found, from the root down
+        int next = 0; // next found node whose children to look at
+
+        // breadth first from the root, then backwards
+        order[ found++ ] = children.length;
+        while ( next < found ) {
+            int node = order[ next++ ] - numTaxa;
+            for( int child = 2 * node; child < 2 * node + 2; child++ ) {
+                if ( children[ child ] >= numTaxa ) {
+                    order[ found++ ] = children[ child ];
+                }
+            }
+        }
+        for( int x = 0; x < found / 2; x++ ) {
+            int temp = order[ x ];
+            order[ x ] = order[ found - 1 - x ];
+            order[ found - 1 - x ] = temp;
+        }
+    }
+}
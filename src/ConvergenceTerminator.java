@@ -24,6 +24,7 @@
  */
 
 import java.util.*;
+import java.io.*;
 
 /**
  * Terminates the GA when convergence is detected.
@@ -32,7 +33,7 @@ import java.util.*;
  *
  * @author Kyle Dewey
  */
-public class ConvergenceTerminator implements Terminator {
+public class ConvergenceTerminator implements Terminator, Checkpointable {
     // begin instance variables
     private long whenConverge; // how many generations until convergence
     private boolean lowGood;
@@ -55,6 +56,38 @@ public class ConvergenceTerminator implements Terminator {
         pastAverages = new LinkedList< Double >();
     }
 
+    /**
+     * Writes out the averages seen so far.
+     *
+     * @param output Where to write them
+     *
+     * @exception IOException If an error occurred on writing
+     */
+    public void writeState( DataOutput output )
+        throws IOException {
+        output.writeInt( pastAverages.size() );
+        for( Double current : pastAverages ) {
+            output.writeDouble( current.doubleValue() );
+        }
+    }
+
+    /**
+     * Reads in the averages seen so far, replacing the current ones.
+     *
+     * @param input Where to read them from
+     *
+     * @exception IOException If an error occurred on reading
+     */
+    public void readState( DataInput input )
+        throws IOException {
+        int size = input.readInt();
+
+        pastAverages.clear();
+        for( int x = 0; x < size; x++ ) {
+            pastAverages.add( input.readDouble() );
+        }
+    }
+
     /**
      * Gets the average of all elements in a list of doubles.
      *
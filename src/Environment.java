@@ -28,6 +28,11 @@
  *
  */
 
+import java.util.*;
+import java.io.PrintStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * Represents the environment, which consists of a listing
  * of populations.  Populations can interact with each other, if
@@ -40,6 +45,9 @@ public class Environment {
     private Population population;
     private EnvironmentPrinter printer; // used for printing information
     private Terminator terminator; // when the population is done
+    private List< EnvironmentListener > listeners; // told about progress
+    private PrintStream output; // where printer output goes
+    private volatile boolean stopped; // if asked to stop early
     // end instance variables
 
     /**
@@ -69,6 +77,9 @@ public class Environment {
         this.population = population;
         this.terminator = terminator;
         this.printer = printer;
+        listeners = new ArrayList< EnvironmentListener >();
+        output = System.out;
+        stopped = false;
     }
 
     /**
@@ -80,21 +91,245 @@ public class Environment {
         return population;
     }
 
+    /**
+     * Gets the islands in this environment, each of which has its
+     * own population and termination condition.  An ordinary
+     * environment is its own single island.
+     *
+     * @return The islands in this environment
+     */
+    public List< Environment > getIslands() {
+        return Collections.singletonList( this );
+    }
+
+    /**
+     * Gets the global number of the first island in this environment.
+     * Islands spread across processes are numbered across all of
+     * them; the rest of the islands here follow on from the first.
+     *
+     * @return The global number of the first island
+     */
+    public int getFirstIsland() {
+        return 0;
+    }
+
+    /**
+     * Gets the number of generations this environment has run.
+     *
+     * @return The current generation
+     */
+    public long getCurrentGeneration() {
+        return population.getCurrentGeneration();
+    }
+
+    /**
+     * Sets the number of generations this environment has run.
+     * Intended for resuming from a checkpoint.
+     *
+     * @param currentGeneration The current generation
+     */
+    public void setCurrentGeneration( long currentGeneration ) {
+        population.setCurrentGeneration( currentGeneration );
+    }
+
+    /**
+     * Asks the GA to stop early, once the current generation
+     * is done, whether or not the termination condition has
+     * been met.  May be called from any thread, including
+     * from a listener.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Gets whether the GA has been asked to stop early.
+     *
+     * @return true if stop() has been called, else false
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Adds something to be told about the progress of the GA.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener( EnvironmentListener listener ) {
+        listeners.add( listener );
+    }
+
+    /**
+     * Tells every listener that the GA has started.
+     */
+    protected void fireGAStarted() {
+        for( EnvironmentListener listener : listeners ) {
+            listener.gaStarted( this );
+        }
+    }
+
+    /**
+     * Tells every listener that a generation is done.
+     */
+    protected void fireGenerationDone() {
+        for( EnvironmentListener listener : listeners ) {
+            listener.generationDone( this );
+        }
+    }
+
+    /**
+     * Tells every listener that the GA has ended.
+     */
+    protected void fireGAEnded() {
+        for( EnvironmentListener listener : listeners ) {
+            listener.gaEnded( this );
+        }
+    }
+
+    /**
+     * Gets the termination condition of this environment.
+     *
+     * @return The termination condition
+     */
+    public Terminator getTerminator() {
+        return terminator;
+    }
+
+    /**
+     * Gets the printer used by this environment.
+     *
+     * @return The printer used by this environment
+     */
+    public EnvironmentPrinter getPrinter() {
+        return printer;
+    }
+
+    /**
+     * Gets where the printer's output goes.
+     *
+     * @return Where output goes; System.out unless set otherwise
+     */
+    public PrintStream getOutput() {
+        return output;
+    }
+
+    /**
+     * Sets where the printer's output goes, such as when several
+     * GAs run in the same process.
+     *
+     * @param output Where output should go
+     */
+    public void setOutput( PrintStream output ) {
+        this.output = output;
+    }
+
+    /**
+     * Writes what the given printer prints at the start of the GA,
+     * streaming it if the printer can.
+     *
+     * @param printer The printer
+     * @param environment The environment to print
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    protected static void writeGAStart( EnvironmentPrinter printer,
+                                        Environment environment,
+                                        Appendable out ) throws IOException {
+        if ( printer instanceof StreamingPrinter ) {
+            ( (StreamingPrinter)printer ).writeGAStart( environment, out );
+        } else {
+            out.append( printer.printGAStart( environment ) );
+        }
+    }
+
+    /**
+     * Writes what the given printer prints at the end of each
+     * generation, streaming it if the printer can.
+     *
+     * @param printer The printer
+     * @param environment The environment to print
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    protected static void writeGAGeneration( EnvironmentPrinter printer,
+                                             Environment environment,
+                                             Appendable out ) throws IOException {
+        if ( printer instanceof StreamingPrinter ) {
+            ( (StreamingPrinter)printer ).writeGAGeneration( environment, out );
+        } else {
+            out.append( printer.printGAGeneration( environment ) );
+        }
+    }
+
+    /**
+     * Writes what the given printer prints at the end of the GA,
+     * streaming it if the printer can.
+     *
+     * @param printer The printer
+     * @param environment The environment to print
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    protected static void writeGAEnd( EnvironmentPrinter printer,
+                                      Environment environment,
+                                      Appendable out ) throws IOException {
+        if ( printer instanceof StreamingPrinter ) {
+            ( (StreamingPrinter)printer ).writeGAEnd( environment, out );
+        } else {
+            out.append( printer.printGAEnd( environment ) );
+        }
+    }
+
     /**
      * Runs the GA.
      * Stops when the termination condition has been met.
      * For this, it means that 10 generations have passed.
      * At each generation, it prints information.
+     * Also stops if asked to with stop().
+     * Output is printed by a background thread, and is all
+     * printed by the time listeners hear that the GA ended.
+     * The fitness evaluator is left running, as other runs may be
+     * sharing it; Individual.cleanup() stops it.
      */
     public void runGA() {
-        System.out.print( printer.printGAStart( this ) );
-        System.out.print( printer.printGAGeneration( this ) );
-        while ( !terminator.shouldTerminate( population ) ) {
-            population.undergoGeneration();
-            System.out.print( printer.printGAGeneration( this ) );
+        BackgroundWriter out = new BackgroundWriter( output );
+
+        try {
+            fireGAStarted();
+            writeGAStart( printer, this, out );
+            writeGAGeneration( printer, this, out );
+            out.flush();
+            while ( !stopped && !terminator.shouldTerminate( population ) ) {
+                population.undergoGeneration();
+                writeGAGeneration( printer, this, out );
+                out.flush();
+                fireGenerationDone();
+            }
+            writeGAEnd( printer, this, out );
+            out.close();
+        } catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        } finally {
+            closeQuietly( out );
         }
-        System.out.print( printer.printGAEnd( this ) );
-        Individual.cleanup();
+        fireGAEnded();
     }
-}
 
+    /**
+     * Closes a background writer, if it wasn't already, when the GA
+     * didn't end normally.
+     *
+     * @param out The writer
+     */
+    protected static void closeQuietly( BackgroundWriter out ) {
+        try {
+            out.close();
+        } catch ( IOException e ) {
+            System.err.println( e );
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Something that is told about the progress of a GA run.
+ * Unlike an EnvironmentPrinter, a listener produces no output
+ * of its own; it may record or act on the state of the run.
+ *
+ * @author Kyle Dewey
+ */
+public interface EnvironmentListener {
+    /**
+     * Called once, before the first generation.
+     *
+     * @param environment The environment being run
+     */
+    public void gaStarted( Environment environment );
+
+    /**
+     * Called at the end of each generation.
+     *
+     * @param environment The environment being run
+     */
+    public void generationDone( Environment environment );
+
+    /**
+     * Called once, after the termination condition has been met.
+     *
+     * @param environment The environment being run
+     */
+    public void gaEnded( Environment environment );
+}
@@ -0,0 +1,213 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A pool of fitness calculation threads shared by several GA runs
+ * going at once.  Each run has its own queue of jobs, and the threads
+ * take jobs from the queues in turn, so a run with a large population
+ * can't starve the others.  When a run has no jobs waiting, its share
+ * goes to the rest.
+ * <p>
+ * Jobs belong to the run set with <code>setOwner</code> on the thread
+ * that submits them.  The owner is inherited by threads that thread
+ * creates, such as the threads of an IslandEnvironment.  Jobs
+ * submitted without an owner share a single default queue.
+ *
+ * @author Kyle Dewey
+ */
+public class FairEvaluator implements FitnessEvaluator {
+    // begin constants
+    public static final Object DEFAULT_OWNER = new Object();
+    // end constants
+
+    // begin global variables
+    private static final InheritableThreadLocal< Object > owner =
+        new InheritableThreadLocal< Object >();
+    // end global variables
+
+    // begin instance variables
+    private Map< Object, Queue< FutureTask< Object > > > queues; // waiting jobs, by owner
+    private Queue< Object > turns; // owners with waiting jobs, next first
+    private Map< Runnable, FutureTask< Object > > submitted; // jobs not yet done
+    private List< Thread > threads;
+    private volatile boolean closed;
+    // end instance variables
+
+    /**
+     * Creates a new evaluator, with a thread for each processor.
+     */
+    public FairEvaluator() {
+        this( Runtime.getRuntime().availableProcessors() );
+    }
+
+    /**
+     * Creates a new evaluator.
+     *
+     * @param numThreads The number of threads to calculate fitness on
+     */
+    public FairEvaluator( int numThreads ) {
+        queues = new HashMap< Object, Queue< FutureTask< Object > > >();
+        turns = new ArrayDeque< Object >();
+        submitted = new ConcurrentHashMap< Runnable, FutureTask< Object > >();
+        threads = new ArrayList< Thread >( numThreads );
+        closed = false;
+
+        for( int x = 0; x < numThreads; x++ ) {
+            Thread thread = new Thread( new Runnable() {
+                    public void run() {
+                        work();
+                    }
+                }, "fair-evaluator-" + x );
+            thread.setDaemon( true );
+            threads.add( thread );
+            thread.start();
+        }
+    }
+
+    /**
+     * Sets the run that jobs submitted by the calling thread,
+     * and threads it goes on to create, belong to.
+     *
+     * @param newOwner The run; null for the default queue
+     */
+    public static void setOwner( Object newOwner ) {
+        owner.set( newOwner );
+    }
+
+    /**
+     * Gets the run that jobs submitted by the calling thread belong to.
+     *
+     * @return The run, or DEFAULT_OWNER if none was set
+     */
+    public static Object getOwner() {
+        Object retval = owner.get();
+        return ( retval == null ) ? DEFAULT_OWNER : retval;
+    }
+
+    /**
+     * Submits a job, to the queue of the calling thread's run.
+     *
+     * @param job The job to submit
+     *
+     * @exception IllegalStateException If cleanup() has been called
+     */
+    public void addJob( final Runnable job ) {
+        FutureTask< Object > task = new FutureTask< Object >( new Runnable() {
+                public void run() {
+                    try {
+                        job.run();
+                    } finally {
+                        submitted.remove( job );
+                    }
+                }
+            }, null );
+        Object current = getOwner();
+
+        synchronized( this ) {
+            if ( closed ) {
+                throw new IllegalStateException( "Evaluator has been cleaned up" );
+            }
+            submitted.put( job, task );
+            Queue< FutureTask< Object > > queue = queues.get( current );
+            if ( queue == null ) {
+                queue = new ArrayDeque< FutureTask< Object > >();
+                queues.put( current, queue );
+                turns.add( current );
+            }
+            queue.add( task );
+            notify();
+        }
+    }
+
+    /**
+     * Causes the calling thread to wait for the given job to complete.
+     *
+     * @param job The job to wait for
+     */
+    public void waitForJob( Runnable job ) {
+        FutureTask< Object > task = submitted.get( job );
+
+        if ( task != null ) {
+            try {
+                task.get();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            } catch ( Exception e ) {
+            }
+        }
+    }
+
+    /**
+     * Gets the next job to run, taking turns between runs.
+     *
+     * @return The next job, or null if this evaluator was cleaned up
+     */
+    private synchronized FutureTask< Object > nextJob() {
+        while ( !closed && turns.isEmpty() ) {
+            try {
+                wait();
+            } catch ( InterruptedException e ) {
+                return null;
+            }
+        }
+        if ( closed ) {
+            return null;
+        }
+
+        Object next = turns.remove();
+        Queue< FutureTask< Object > > queue = queues.get( next );
+        FutureTask< Object > retval = queue.remove();
+        if ( queue.isEmpty() ) {
+            queues.remove( next );
+        } else {
+            turns.add( next );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Run by each thread.  Runs jobs until cleaned up.
+     */
+    private void work() {
+        FutureTask< Object > job;
+
+        while ( ( job = nextJob() ) != null ) {
+            job.run();
+        }
+    }
+
+    /**
+     * Gets the number of jobs waiting for the given run.
+     *
+     * @param run The run
+     *
+     * @return The number of jobs waiting
+     */
+    public synchronized int getNumWaiting( Object run ) {
+        Queue< FutureTask< Object > > queue = queues.get( run );
+        return ( queue == null ) ? 0 : queue.size();
+    }
+
+    /**
+     * Stops the threads.  Jobs still waiting are cancelled, so
+     * nobody is left waiting on them.
+     */
+    public void cleanup() {
+        synchronized( this ) {
+            closed = true;
+            for( Queue< FutureTask< Object > > queue : queues.values() ) {
+                for( FutureTask< Object > task : queue ) {
+                    task.cancel( false );
+                }
+            }
+            queues.clear();
+            turns.clear();
+            submitted.clear();
+            notifyAll();
+        }
+        for( Thread thread : threads ) {
+            thread.interrupt();
+        }
+    }
+}
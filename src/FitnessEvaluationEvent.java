@@ -0,0 +1,26 @@
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for a fitness calculation that took longer
+ * than the threshold, which defaults to 20 ms and can be changed in
+ * the recording's settings.  When nothing is recording this event,
+ * timing a calculation costs next to nothing.
+ *
+ * @author Kyle Dewey
+ */
+@Name( "ga.FitnessEvaluation" )
+@Label( "Slow Fitness Evaluation" )
+@Category( "Genetic Algorithm" )
+@Description( "A fitness calculation that took longer than the threshold" )
+@Threshold( "20 ms" )
+@StackTrace( false )
+public class FitnessEvaluationEvent extends Event {
+    @Label( "Individual ID" )
+    public long individualId;
+
+    @Label( "Individual Class" )
+    public String individualClass;
+
+    @Label( "Fitness" )
+    public double fitness;
+}
@@ -0,0 +1,28 @@
+/**
+ * Something that fitness calculations are submitted to.
+ * Jobs are run asynchronously; callers wait for the specific
+ * jobs whose results they need.
+ *
+ * @author Kyle Dewey
+ */
+public interface FitnessEvaluator {
+    /**
+     * Submits a job.  Returns without waiting for the job to run.
+     *
+     * @param job The job to submit
+     */
+    public void addJob( Runnable job );
+
+    /**
+     * Causes the calling thread to wait for the given job
+     * to complete.  Returns immediately if it already has.
+     *
+     * @param job The job to wait for
+     */
+    public void waitForJob( Runnable job );
+
+    /**
+     * Performs internal cleanup.  To be called at GA end.
+     */
+    public void cleanup();
+}
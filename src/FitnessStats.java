@@ -0,0 +1,392 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Statistics of the fitness of a population: the lowest and highest
+ * fitness and where they are, the mean, the variance, and percentiles.
+ * Everything but percentiles is found in a single pass over a fitness
+ * column, and kept up to date as values are added to the end of the
+ * column, without going over the values already seen.  Large columns
+ * are split into parts that are summarized in parallel, then merged.
+ * <p>
+ * Whether low fitness is good decides which of the lowest and highest
+ * fitness is the best.  Of equal values, the first is reported.
+ *
+ * @author Kyle Dewey
+ */
+public class FitnessStats {
+    // begin constants
+    public static final int VALUES_PER_JOB = 1 << 15;
+    // end constants
+
+    // begin instance variables
+    private boolean lowGood;
+    private int count; // number of values summarized
+    private double min;
+    private double max;
+    private int minIndex; // position of the first lowest value
+    private int maxIndex; // position of the first highest value
+    private double mean;
+    private double squares; // sum of squared differences from the mean
+    private double[] values; // the values summarized are the first count
+    private double[] sorted; // copy of the values, sorted; null if out of date
+    // end instance variables
+
+    /**
+     * Creates statistics of no values.
+     *
+     * @param lowGood If low fitness is good
+     */
+    public FitnessStats( boolean lowGood ) {
+        this.lowGood = lowGood;
+        count = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        minIndex = -1;
+        maxIndex = -1;
+        mean = 0.0;
+        squares = 0.0;
+        values = new double[ 0 ];
+        sorted = null;
+    }
+
+    /**
+     * Creates statistics of the given values.
+     *
+     * @param values The values; kept, not copied, and not modified
+     * @param lowGood If low fitness is good
+     */
+    public FitnessStats( double[] values, boolean lowGood ) {
+        this( lowGood );
+        addAll( values );
+    }
+
+    /**
+     * Summarizes part of an array in a single pass.
+     *
+     * @param values The values
+     * @param start The position of the first value
+     * @param end One past the position of the last value
+     *
+     * @return Statistics of the part; positions are in values
+     */
+    private static FitnessStats summarize( double[] values,
+                                           int start,
+                                           int end ) {
+        FitnessStats retval = new FitnessStats( false );
+
+        for( int x = start; x < end; x++ ) {
+            double value = values[ x ];
+            double delta = value - retval.mean;
+
+            retval.count++;
+            retval.mean += delta / retval.count;
+            retval.squares += delta * ( value - retval.mean );
+            if ( value < retval.min ) {
+                retval.min = value;
+                retval.minIndex = x;
+            }
+            if ( value > retval.max ) {
+                retval.max = value;
+                retval.maxIndex = x;
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * Merges in statistics of values that come after the values
+     * already summarized.
+     *
+     * @param other Statistics of the later values
+     */
+    private void merge( FitnessStats other ) {
+        if ( other.count == 0 ) {
+            return;
+        }
+        int total = count + other.count;
+        double delta = other.mean - mean;
+
+        squares += other.squares + delta * delta * ( (double)count * other.count / total );
+        mean += delta * other.count / total;
+        count = total;
+        if ( other.min < min ) {
+            min = other.min;
+            minIndex = other.minIndex;
+        }
+        if ( other.max > max ) {
+            max = other.max;
+            maxIndex = other.maxIndex;
+        }
+    }
+
+    /**
+     * Adds the values at the end of the given array that haven't
+     * been summarized yet.  The array must hold the values already
+     * summarized at the start, as when a fitness column grows.
+     *
+     * @param values The values; kept, not copied, and not modified
+     */
+    public synchronized void addAll( final double[] values ) {
+        int start = count;
+        int numJobs = ( values.length - start + VALUES_PER_JOB - 1 ) / VALUES_PER_JOB;
+
+        this.values = values;
+        sorted = null;
+        if ( numJobs <= 1 ) {
+            merge( summarize( values, start, values.length ) );
+            return;
+        }
+
+        List< Callable< FitnessStats > > jobs = new ArrayList< Callable< FitnessStats > >( numJobs );
+        for( int job = 0; job < numJobs; job++ ) {
+            final int jobStart = start + job * VALUES_PER_JOB;
+            final int jobEnd = Math.min( values.length, jobStart + VALUES_PER_JOB );
+            jobs.add( new Callable< FitnessStats >() {
+                    public FitnessStats call() {
+                        return summarize( values, jobStart, jobEnd );
+                    }
+                } );
+        }
+        for( Future< FitnessStats > result : ForkJoinPool.commonPool().invokeAll( jobs ) ) {
+            try {
+                merge( result.get() );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( e );
+            } catch ( ExecutionException e ) {
+                throw new RuntimeException( e.getCause() );
+            }
+        }
+    }
+
+    /**
+     * Gets whether low fitness is good.
+     *
+     * @return true if low fitness is good
+     */
+    public boolean isLowGood() {
+        return lowGood;
+    }
+
+    /**
+     * Gets the number of values summarized.
+     *
+     * @return The number of values
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the lowest value.
+     *
+     * @return The lowest value; positive infinity if there are none
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Gets the highest value.
+     *
+     * @return The highest value; negative infinity if there are none
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the position of the first lowest value.
+     *
+     * @return The position; -1 if there are no values
+     */
+    public int getMinIndex() {
+        return minIndex;
+    }
+
+    /**
+     * Gets the position of the first highest value.
+     *
+     * @return The position; -1 if there are no values
+     */
+    public int getMaxIndex() {
+        return maxIndex;
+    }
+
+    /**
+     * Gets the best fitness.
+     *
+     * @return The lowest value if low fitness is good, else the highest
+     */
+    public double getBest() {
+        return ( lowGood ) ? min : max;
+    }
+
+    /**
+     * Gets the worst fitness.
+     *
+     * @return The highest value if low fitness is good, else the lowest
+     */
+    public double getWorst() {
+        return ( lowGood ) ? max : min;
+    }
+
+    /**
+     * Gets the position of the first best fitness.
+     *
+     * @return The position; -1 if there are no values
+     */
+    public int getBestIndex() {
+        return ( lowGood ) ? minIndex : maxIndex;
+    }
+
+    /**
+     * Gets the position of the first worst fitness.
+     *
+     * @return The position; -1 if there are no values
+     */
+    public int getWorstIndex() {
+        return ( lowGood ) ? maxIndex : minIndex;
+    }
+
+    /**
+     * Gets the mean of the values.
+     *
+     * @return The mean; NaN if there are no values
+     */
+    public double getMean() {
+        return ( count == 0 ) ? Double.NaN : mean;
+    }
+
+    /**
+     * Gets the variance of the values, taken as the whole population.
+     *
+     * @return The variance; NaN if there are no values
+     */
+    public double getVariance() {
+        return ( count == 0 ) ? Double.NaN : squares / count;
+    }
+
+    /**
+     * Gets the standard deviation of the values.
+     *
+     * @return The standard deviation; NaN if there are no values
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt( getVariance() );
+    }
+
+    /**
+     * Makes the sorted copy of the values, if it is out of date.
+     */
+    private void sortValues() {
+        if ( sorted == null ) {
+            sorted = Arrays.copyOf( values, count );
+            Arrays.parallelSort( sorted );
+        }
+    }
+
+    /**
+     * Gets the number of different values, a rough measure of
+     * how diverse the population is.  Like percentiles, this sorts
+     * the values if they have changed.
+     *
+     * @return The number of different values
+     */
+    public synchronized int getNumDistinct() {
+        sortValues();
+        return countSorted( sorted, count );
+    }
+
+    /**
+     * Copies the values summarized, so they can be looked at on
+     * another thread.
+     *
+     * @return A copy of the values
+     */
+    public synchronized double[] copyValues() {
+        return ( values == null ) ? new double[ 0 ] : Arrays.copyOf( values, count );
+    }
+
+    /**
+     * Counts the different values in an array, as getNumDistinct()
+     * does, on the calling thread alone.
+     *
+     * @param values The values; sorted in place
+     *
+     * @return The number of different values
+     */
+    public static int countDistinct( double[] values ) {
+        Arrays.sort( values );
+        return countSorted( values, values.length );
+    }
+
+    /**
+     * Counts the different values at the start of a sorted array.
+     *
+     * @param sorted The values, sorted
+     * @param count The number of values
+     *
+     * @return The number of different values
+     */
+    private static int countSorted( double[] sorted, int count ) {
+        int retval = 0;
+
+        for( int x = 0; x < count; x++ ) {
+            if ( x == 0 || Double.compare( sorted[ x ], sorted[ x - 1 ] ) != 0 ) {
+                retval++;
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets a percentile of the values, interpolating between the
+     * closest two.  The values are sorted the first time a percentile
+     * is asked for after values were added.
+     *
+     * @param percent Which percentile, from 0 (the lowest value)
+     *        to 100 (the highest)
+     *
+     * @return The percentile; NaN if there are no values
+     */
+    public synchronized double getPercentile( double percent ) {
+        if ( count == 0 ) {
+            return Double.NaN;
+        } else if ( percent < 0.0 || percent > 100.0 ) {
+            throw new IllegalArgumentException( "Percentile out of range: " + percent );
+        }
+        sortValues();
+
+        double position = percent / 100.0 * ( count - 1 );
+        int below = (int)position;
+        int above = Math.min( below + 1, count - 1 );
+        return sorted[ below ] + ( position - below ) * ( sorted[ above ] - sorted[ below ] );
+    }
+
+    /**
+     * Gets the median of the values.
+     *
+     * @return The median; NaN if there are no values
+     */
+    public double getMedian() {
+        return getPercentile( 50.0 );
+    }
+
+    /**
+     * Represents these statistics as a string, on one line.
+     *
+     * @return The statistics as a string
+     */
+    public String toString() {
+        return "count=" + count +
+            " min=" + getMin() +
+            " max=" + getMax() +
+            " mean=" + getMean() +
+            " sd=" + getStandardDeviation() +
+            " median=" + getMedian();
+    }
+}
@@ -34,11 +34,34 @@ public class FitnessThread implements Runnable {
         this.individual = individual;
     }
 
+    /**
+     * Gets the individual whose fitness is calculated.
+     *
+     * @return The individual
+     */
+    public Individual getIndividual() {
+        return individual;
+    }
+
     /**
      * Calculates the fitness of the individual.
+     * Calculations that take long are reported to the flight
+     * recorder, if it is recording them.
      */
     public void run() {
-        individual.setFitness( individual.calculateFitness() );
+        FitnessEvaluationEvent event = new FitnessEvaluationEvent();
+        double fitness;
+
+        event.begin();
+        fitness = individual.calculateFitness();
+        individual.setFitness( fitness );
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.individualId = individual.getId();
+            event.individualClass = individual.getClass().getName();
+            event.fitness = fitness;
+            event.commit();
+        }
     }
 
     /**
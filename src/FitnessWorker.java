@@ -0,0 +1,210 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.net.*;
+import java.lang.reflect.Constructor;
+
+/**
+ * A process that calculates fitness values for a RemoteEvaluator.
+ * Batches of genotypes are read in, rebuilt as individuals (which
+ * calculates their fitness in parallel locally), and their fitness
+ * values are written back in the order the batches arrived.
+ * Reading continues while earlier batches are being calculated,
+ * so several batches may be in progress at once.
+ * <p>
+ * Anything sent to the worker is read in and calculated, so it only
+ * listens on the loopback address unless given the address of the
+ * network it should serve.
+ *
+ * @author Kyle Dewey
+ */
+public class FitnessWorker {
+    // begin constants
+    public static final int MAX_BATCH_SIZE = 1 << 20; // most accepted in one batch
+    // end constants
+
+    // begin instance variables
+    private ServerSocket server;
+    private GenotypeCodec codec; // for reading genotypes
+    private Constructor< ? extends Individual > makeIndividual;
+    // end instance variables
+
+    /**
+     * Prints usage information for the worker.
+     */
+    public static void usage() {
+        System.out.println( "Takes the following params:\n" +
+                            "port to listen on\n" +
+                            "individual class name:individual parameter\n" +
+                            "genotype codec (class name)\n" +
+                            "address to listen on (optional; default loopback)\n" );
+    }
+
+    /**
+     * Creates a new worker, listening on the loopback address.
+     *
+     * @param port The port to listen on
+     * @param indivArg The individual class name:individual parameter
+     * @param codecName Class name of the genotype codec
+     *
+     * @exception Exception If the individual or codec couldn't be
+     *            made, or we couldn't listen on the port
+     */
+    public FitnessWorker( int port,
+                          String indivArg,
+                          String codecName )
+        throws Exception {
+        this( InetAddress.getLoopbackAddress(), port, indivArg, codecName );
+    }
+
+    /**
+     * Creates a new worker.
+     *
+     * @param address The address to listen on
+     * @param port The port to listen on
+     * @param indivArg The individual class name:individual parameter
+     * @param codecName Class name of the genotype codec
+     *
+     * @exception Exception If the individual or codec couldn't be
+     *            made, or we couldn't listen on the port
+     */
+    public FitnessWorker( InetAddress address,
+                          int port,
+                          String indivArg,
+                          String codecName )
+        throws Exception {
+        String[] split = RunGA.split( indivArg );
+
+        codec = RunGA.readCodec( codecName, split[ 1 ] );
+        makeIndividual = Registry.getIndividualClass( split[ 0 ] )
+            .getConstructor( Genotype.class );
+        server = new ServerSocket();
+        server.setReuseAddress( true );
+        server.bind( new InetSocketAddress( address, port ) );
+    }
+
+    /**
+     * Serves coordinators until the process is killed.
+     */
+    public void serve() {
+        while ( true ) {
+            try {
+                final Socket socket = server.accept();
+                Thread thread = new Thread( new Runnable() {
+                        public void run() {
+                            serve( socket );
+                        }
+                    }, "worker-" + socket.getRemoteSocketAddress() );
+                thread.setDaemon( true );
+                thread.start();
+            } catch ( IOException e ) {
+                System.err.println( e );
+            }
+        }
+    }
+
+    /**
+     * Serves a single coordinator.  This thread reads batches, and
+     * a second thread writes results once they are calculated.
+     *
+     * @param socket The connection to the coordinator
+     */
+    private void serve( final Socket socket ) {
+        final BlockingQueue< Pair< Integer, List< Individual > > > inProgress =
+            new LinkedBlockingQueue< Pair< Integer, List< Individual > > >();
+        Thread writer = null;
+
+        try {
+            socket.setTcpNoDelay( true );
+            DataInputStream input =
+                new DataInputStream( new BufferedInputStream( socket.getInputStream() ) );
+            final DataOutputStream output =
+                new DataOutputStream( new BufferedOutputStream( socket.getOutputStream() ) );
+
+            writer = new Thread( new Runnable() {
+                    public void run() {
+                        writeResults( socket, output, inProgress );
+                    }
+                }, "worker-writer-" + socket.getRemoteSocketAddress() );
+            writer.setDaemon( true );
+            writer.start();
+
+            while ( true ) {
+                int batchId = input.readInt();
+                int count = input.readInt();
+                List< Individual > batch;
+
+                if ( count < 0 || count > MAX_BATCH_SIZE ) {
+                    throw new IOException( "Bad batch size: " + count );
+                }
+                batch = new ArrayList< Individual >( count );
+
+                for( int x = 0; x < count; x++ ) {
+                    batch.add( makeIndividual.newInstance( codec.read( input ) ) );
+                }
+                inProgress.add( new Pair< Integer, List< Individual > >( batchId, batch ) );
+            }
+        } catch ( EOFException e ) {
+            // coordinator went away
+        } catch ( Exception e ) {
+            System.err.println( "Bad batch from " +
+                                socket.getRemoteSocketAddress() + ": " + e );
+        } finally {
+            if ( writer != null ) {
+                writer.interrupt();
+            }
+            try {
+                socket.close();
+            } catch ( IOException e ) {}
+        }
+    }
+
+    /**
+     * Writes out the fitness of each batch, in order, waiting for
+     * each to be calculated.
+     *
+     * @param socket The connection to the coordinator
+     * @param output Where to write results
+     * @param inProgress Batches that have been read in
+     */
+    private void writeResults( Socket socket,
+                               DataOutputStream output,
+                               BlockingQueue< Pair< Integer, List< Individual > > > inProgress ) {
+        try {
+            while ( true ) {
+                Pair< Integer, List< Individual > > batch = inProgress.take();
+
+                output.writeInt( batch.first );
+                output.writeInt( batch.second.size() );
+                for( Individual current : batch.second ) {
+                    output.writeDouble( current.getFitness() );
+                }
+                output.flush();
+            }
+        } catch ( InterruptedException e ) {
+            // reader is done
+        } catch ( IOException e ) {
+            System.err.println( "Could not send results to " +
+                                socket.getRemoteSocketAddress() + ": " + e );
+        }
+    }
+
+    public static void main( String[] args ) {
+        if ( args.length != 3 && args.length != 4 ) {
+            usage();
+            System.exit( 1 );
+        }
+        try {
+            InetAddress address = ( args.length == 4 ) ?
+                InetAddress.getByName( args[ 3 ] ) : InetAddress.getLoopbackAddress();
+            new FitnessWorker( address,
+                               Integer.parseInt( args[ 0 ] ),
+                               args[ 1 ],
+                               args[ 2 ] ).serve();
+        } catch ( Exception e ) {
+            e.printStackTrace();
+            System.err.println( e );
+            System.exit( 1 );
+        }
+    }
+}
@@ -0,0 +1,29 @@
+import java.util.*;
+
+/**
+ * Every island sends migrants to every other island.
+ *
+ * @author Kyle Dewey
+ */
+public class FullyConnectedTopology implements MigrationTopology {
+    /**
+     * Gets every island other than the given one.
+     *
+     * @param source The island that migrants leave from
+     * @param numIslands The total number of islands
+     *
+     * @return Every island except source
+     */
+    public List< Integer > getDestinations( int source,
+                                            int numIslands ) {
+        List< Integer > retval = new ArrayList< Integer >( numIslands );
+
+        for( int x = 0; x < numIslands; x++ ) {
+            if ( x != source ) {
+                retval.add( x );
+            }
+        }
+
+        return retval;
+    }
+}
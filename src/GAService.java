@@ -0,0 +1,306 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Runs GAs for as long as it is up, so that JVM startup, reading in
+ * alignments, and JIT warm-up are paid once rather than per run.
+ * Jobs are submitted over standard input, or over a socket on the
+ * loopback interface.  Any number of jobs may run at once; they share
+ * a single FairEvaluator, which takes turns between them, and share
+ * the MSA cache.
+ * <p>
+ * The protocol is line based.  Commands are:
+ * <pre>
+ * run &lt;RunGA parameters&gt;   starts a job; replies "&lt;id&gt; started"
+ * status                     replies "&lt;id&gt; &lt;state&gt;" for each job, then "end"
+ * quit                       closes this connection (or, on standard
+ *                            input, shuts down once jobs are done)
+ * shutdown                   waits for every job, then exits
+ * </pre>
+ * Each line a job prints is sent to whoever submitted it, prefixed with
+ * the job's ID.  When a job ends, "&lt;id&gt; done &lt;ms&gt;" or
+ * "&lt;id&gt; failed &lt;reason&gt;" is sent.
+ * <p>
+ * Jobs may not use the options in RunGA.GLOBAL_OPTIONS, which change
+ * state every job shares: remote fitness workers would replace the
+ * shared evaluator, checkpoints save and restore the random number
+ * generators every job draws from, and JMX names could collide.
+ *
+ * @author Kyle Dewey
+ */
+public class GAService {
+    // begin constants
+    public static final String STDIN = "stdin";
+    public static final String RUN_COMMAND = "run";
+    public static final String STATUS_COMMAND = "status";
+    public static final String QUIT_COMMAND = "quit";
+    public static final String SHUTDOWN_COMMAND = "shutdown";
+    public static final String RUNNING = "running";
+    public static final String DONE = "done";
+    public static final String FAILED = "failed";
+    // end constants
+
+    // begin instance variables
+    private FairEvaluator evaluator; // shared by every job
+    private AtomicInteger nextJobId;
+    private Map< Integer, String > states; // state of each job, by ID
+    private List< Thread > jobs; // every job that was started
+    private volatile boolean shuttingDown;
+    // end instance variables
+
+    /**
+     * Output of a job.  Complete lines are sent to the client,
+     * prefixed with the job's ID.
+     */
+    private static class JobOutput extends OutputStream {
+        private int id;
+        private PrintStream client;
+        private ByteArrayOutputStream line;
+
+        public JobOutput( int id, PrintStream client ) {
+            this.id = id;
+            this.client = client;
+            line = new ByteArrayOutputStream();
+        }
+
+        public void write( int b ) {
+            if ( b == '\n' ) {
+                send( id + " " + new String( line.toByteArray(), StandardCharsets.UTF_8 ) );
+                line.reset();
+            } else {
+                line.write( b );
+            }
+        }
+
+        public void send( String message ) {
+            synchronized( client ) {
+                client.println( message );
+                client.flush();
+            }
+        }
+
+        public void close() {
+            if ( line.size() > 0 ) {
+                write( '\n' );
+            }
+        }
+    }
+
+    /**
+     * Prints usage information for the service.
+     */
+    public static void usage() {
+        System.out.println( "Takes the following params:\n" +
+                            "port to listen on (loopback only), or " + STDIN + "\n" +
+                            "number of fitness threads (optional, default " +
+                            "number of processors)\n" );
+    }
+
+    /**
+     * Creates a new service.  Replaces the fitness evaluator
+     * of every individual made from now on.
+     *
+     * @param numThreads The number of threads to calculate fitness on
+     */
+    public GAService( int numThreads ) {
+        evaluator = new FairEvaluator( numThreads );
+        Individual.getEvaluator().cleanup();
+        Individual.setEvaluator( evaluator );
+        nextJobId = new AtomicInteger( 0 );
+        states = new ConcurrentHashMap< Integer, String >();
+        jobs = new CopyOnWriteArrayList< Thread >();
+        shuttingDown = false;
+    }
+
+    /**
+     * Starts a job on its own thread.
+     *
+     * @param args RunGA parameters
+     * @param client Where the job's output goes
+     *
+     * @return The job's ID
+     */
+    public int submit( final String[] args, PrintStream client ) {
+        final int id = nextJobId.getAndIncrement();
+        final JobOutput output = new JobOutput( id, client );
+        Thread thread = new Thread( new Runnable() {
+                public void run() {
+                    runJob( id, args, output );
+                }
+            }, "ga-job-" + id );
+
+        states.put( id, RUNNING );
+        jobs.add( thread );
+        output.send( id + " started" );
+        thread.start();
+
+        return id;
+    }
+
+    /**
+     * Runs a job.  Called on the job's own thread.
+     *
+     * @param id The job's ID
+     * @param args RunGA parameters
+     * @param output Where the job's output goes
+     */
+    private void runJob( int id, String[] args, JobOutput output ) {
+        long start = System.currentTimeMillis();
+
+        FairEvaluator.setOwner( Integer.valueOf( id ) );
+        try {
+            RunGA.rejectGlobalOptions( args );
+            RunGA ga = new RunGA( args );
+            ga.getEnvironment().setOutput( new PrintStream( output, true ) );
+            ga.start();
+            output.close();
+            states.put( id, DONE );
+            output.send( id + " " + DONE + " " + ( System.currentTimeMillis() - start ) );
+        } catch ( Exception e ) {
+            output.close();
+            states.put( id, FAILED );
+            output.send( id + " " + FAILED + " " + e );
+        }
+    }
+
+    /**
+     * Handles commands from a single client until it quits or
+     * goes away.
+     *
+     * @param input Where commands come from
+     * @param client Where replies go
+     *
+     * @return true if the client asked the service to shut down
+     *
+     * @exception IOException If an error occurred on reading
+     */
+    public boolean serve( BufferedReader input, PrintStream client )
+        throws IOException {
+        String line;
+
+        while ( !shuttingDown && ( line = input.readLine() ) != null ) {
+            String[] command = line.trim().split( "\\s+" );
+
+            if ( command[ 0 ].equals( "" ) ) {
+                continue;
+            } else if ( command[ 0 ].equals( RUN_COMMAND ) ) {
+                submit( Arrays.copyOfRange( command, 1, command.length ), client );
+            } else if ( command[ 0 ].equals( STATUS_COMMAND ) ) {
+                synchronized( client ) {
+                    for( Map.Entry< Integer, String > entry : new TreeMap< Integer, String >( states ).entrySet() ) {
+                        client.println( entry.getKey() + " " + entry.getValue() );
+                    }
+                    client.println( "end" );
+                    client.flush();
+                }
+            } else if ( command[ 0 ].equals( QUIT_COMMAND ) ) {
+                return false;
+            } else if ( command[ 0 ].equals( SHUTDOWN_COMMAND ) ) {
+                return true;
+            } else {
+                synchronized( client ) {
+                    client.println( "unknown command: " + command[ 0 ] );
+                    client.flush();
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Accepts clients on the given port until one asks for shutdown.
+     * Only connections from this host are possible.
+     *
+     * @param port The port to listen on
+     *
+     * @exception IOException If we couldn't listen on the port
+     */
+    public void serve( int port )
+        throws IOException {
+        final ServerSocket server = new ServerSocket();
+        server.setReuseAddress( true );
+        server.bind( new InetSocketAddress( InetAddress.getLoopbackAddress(), port ) );
+
+        while ( !shuttingDown ) {
+            final Socket socket;
+            try {
+                socket = server.accept();
+            } catch ( SocketException e ) {
+                // closed for shutdown
+                break;
+            }
+            Thread thread = new Thread( new Runnable() {
+                    public void run() {
+                        try {
+                            BufferedReader input =
+                                new BufferedReader( new InputStreamReader( socket.getInputStream(),
+                                                                           StandardCharsets.UTF_8 ) );
+                            PrintStream client =
+                                new PrintStream( new BufferedOutputStream( socket.getOutputStream() ),
+                                                 false,
+                                                 "UTF-8" );
+                            if ( serve( input, client ) ) {
+                                shutdown();
+                                server.close();
+                            }
+                        } catch ( IOException e ) {
+                            System.err.println( "Lost client " +
+                                                socket.getRemoteSocketAddress() + ": " + e );
+                        } finally {
+                            try {
+                                socket.close();
+                            } catch ( IOException e ) {}
+                        }
+                    }
+                }, "service-client-" + socket.getRemoteSocketAddress() );
+            thread.setDaemon( true );
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops taking commands, and waits for every job to finish.
+     */
+    public void shutdown() {
+        shuttingDown = true;
+        for( Thread job : jobs ) {
+            try {
+                job.join();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        evaluator.cleanup();
+    }
+
+    public static void main( String[] args ) {
+        if ( args.length < 1 || args.length > 2 ) {
+            usage();
+            System.exit( 1 );
+        }
+        try {
+            int numThreads = ( args.length > 1 ) ?
+                RunGA.readPopulationSize( args[ 1 ] ) :
+                Runtime.getRuntime().availableProcessors();
+            GAService service = new GAService( numThreads );
+
+            if ( args[ 0 ].equals( STDIN ) ) {
+                service.serve( new BufferedReader( new InputStreamReader( System.in ) ),
+                               System.out );
+            } else {
+                service.serve( Integer.parseInt( args[ 0 ] ) );
+            }
+            service.shutdown();
+        } catch ( Exception e ) {
+            e.printStackTrace();
+            System.err.println( e );
+            System.exit( 1 );
+        }
+    }
+}
@@ -0,0 +1,40 @@
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for a generation of a population, from the
+ * start of parent selection to the end of survival selection.  The
+ * statistics are of the population the generation produced.
+ *
+ * @author Kyle Dewey
+ */
+@Name( "ga.Generation" )
+@Label( "Generation" )
+@Category( "Genetic Algorithm" )
+@Description( "A generation of a population" )
+@StackTrace( false )
+public class GenerationEvent extends Event {
+    @Label( "Generation" )
+    public long generation;
+
+    @Label( "Population Size" )
+    public int populationSize;
+
+    @Label( "Best Fitness" )
+    public double bestFitness;
+
+    @Label( "Mean Fitness" )
+    public double meanFitness;
+
+    @Label( "Worst Fitness" )
+    public double worstFitness;
+
+    @Label( "Offspring" )
+    public long offspring;
+
+    @Label( "Evaluations Discarded" )
+    public long discarded;
+
+    @Label( "Fitness Wait" )
+    @Timespan( Timespan.NANOSECONDS )
+    public long fitnessWait;
+}
@@ -0,0 +1,213 @@
+/**
+ * How long each phase of a generation took, and how many individuals
+ * were made and evaluated.  A population keeps these for its last
+ * generation, and totals over every generation so far.  Times are in
+ * ns, from System.nanoTime().
+ * <p>
+ * Offspring have their fitness calculated as soon as they are made,
+ * alongside the rest of the generation; the time spent in FITNESS_WAIT
+ * is only the time the population waited for calculations that
+ * weren't done yet when parent or survival selection needed them.
+ * Evaluations discarded are offspring that didn't survive into the
+ * next generation.
+ *
+ * @author Kyle Dewey
+ */
+public class GenerationMetrics {
+    /**
+     * The phases of a generation.  Crossover and mutation take
+     * turns until there are enough offspring, and the population
+     * waits for fitness both before parent selection and before
+     * survival selection; the times of each are added up.
+     */
+    public enum Phase { PARENT_SELECTION( "parentSelection" ),
+                        CROSSOVER( "crossover" ),
+                        MUTATION( "mutation" ),
+                        ELITISM( "elitism" ),
+                        FITNESS_WAIT( "fitnessWait" ),
+                        SURVIVAL_SELECTION( "survivalSelection" );
+
+        private String columnName; // name in logs and printouts
+
+        private Phase( String columnName ) {
+            this.columnName = columnName;
+        }
+
+        /**
+         * Gets the name of the phase as used in logs and printouts.
+         *
+         * @return The name
+         */
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+
+    // begin instance variables
+    private long[] phaseTimes; // ns spent in each phase, by ordinal
+    private long numCrossovers; // offspring made by crossover
+    private long numMutations; // offspring made by mutation
+    private long numEvaluations; // fitness calculations started
+    private long numDiscarded; // evaluated offspring that didn't survive
+    // end instance variables
+
+    /**
+     * Creates metrics with nothing counted.
+     */
+    public GenerationMetrics() {
+        phaseTimes = new long[ Phase.values().length ];
+        numCrossovers = 0;
+        numMutations = 0;
+        numEvaluations = 0;
+        numDiscarded = 0;
+    }
+
+    /**
+     * Creates a copy of other metrics.
+     *
+     * @param other The metrics to copy
+     */
+    public GenerationMetrics( GenerationMetrics other ) {
+        phaseTimes = other.phaseTimes.clone();
+        numCrossovers = other.numCrossovers;
+        numMutations = other.numMutations;
+        numEvaluations = other.numEvaluations;
+        numDiscarded = other.numDiscarded;
+    }
+
+    /**
+     * Adds time spent in a phase.
+     *
+     * @param phase The phase
+     * @param time The time, in ns
+     */
+    public void addTime( Phase phase, long time ) {
+        phaseTimes[ phase.ordinal() ] += time;
+    }
+
+    /**
+     * Adds to the counts of offspring made and evaluated.
+     *
+     * @param numCrossovers Offspring made by crossover
+     * @param numMutations Offspring made by mutation
+     * @param numEvaluations Fitness calculations started
+     * @param numDiscarded Evaluated offspring that didn't survive
+     */
+    public void addCounts( long numCrossovers,
+                           long numMutations,
+                           long numEvaluations,
+                           long numDiscarded ) {
+        this.numCrossovers += numCrossovers;
+        this.numMutations += numMutations;
+        this.numEvaluations += numEvaluations;
+        this.numDiscarded += numDiscarded;
+    }
+
+    /**
+     * Adds other metrics into these, as for a running total.
+     *
+     * @param other The metrics to add
+     */
+    public void add( GenerationMetrics other ) {
+        for( int x = 0; x < phaseTimes.length; x++ ) {
+            phaseTimes[ x ] += other.phaseTimes[ x ];
+        }
+        addCounts( other.numCrossovers,
+                   other.numMutations,
+                   other.numEvaluations,
+                   other.numDiscarded );
+    }
+
+    /**
+     * Gets the time spent in a phase.
+     *
+     * @param phase The phase
+     *
+     * @return The time, in ns
+     */
+    public long getTime( Phase phase ) {
+        return phaseTimes[ phase.ordinal() ];
+    }
+
+    /**
+     * Gets the time spent in every phase together.
+     *
+     * @return The time, in ns
+     */
+    public long getTotalTime() {
+        long retval = 0;
+
+        for( long time : phaseTimes ) {
+            retval += time;
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets the number of offspring made by crossover.
+     *
+     * @return The number of offspring
+     */
+    public long getNumCrossovers() {
+        return numCrossovers;
+    }
+
+    /**
+     * Gets the number of offspring made by mutation.
+     *
+     * @return The number of offspring
+     */
+    public long getNumMutations() {
+        return numMutations;
+    }
+
+    /**
+     * Gets the number of offspring made, by either means.
+     *
+     * @return The number of offspring
+     */
+    public long getNumOffspring() {
+        return numCrossovers + numMutations;
+    }
+
+    /**
+     * Gets the number of fitness calculations started.
+     *
+     * @return The number of evaluations
+     */
+    public long getNumEvaluations() {
+        return numEvaluations;
+    }
+
+    /**
+     * Gets the number of evaluated offspring that didn't survive
+     * into the next generation.
+     *
+     * @return The number of evaluations thrown away
+     */
+    public long getNumDiscarded() {
+        return numDiscarded;
+    }
+
+    /**
+     * Represents these metrics as a string, on one line, with
+     * times in ms.
+     *
+     * @return The metrics as a string
+     */
+    public String toString() {
+        StringBuilder retval = new StringBuilder();
+
+        for( Phase phase : Phase.values() ) {
+            retval.append( phase.getColumnName() ).append( "Ms=" )
+                .append( String.format( "%.3f", getTime( phase ) / 1e6 ) ).append( ' ' );
+        }
+        retval.append( "crossovers=" ).append( numCrossovers )
+            .append( " mutations=" ).append( numMutations )
+            .append( " evaluations=" ).append( numEvaluations )
+            .append( " discarded=" ).append( numDiscarded );
+
+        return retval.toString();
+    }
+}
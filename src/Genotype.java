@@ -25,7 +25,7 @@
  *
  */
 
-import java.util.Random; // for making random numbers
+import java.io.IOException;
 
 /**
  * Represents a genotype in a GA.
@@ -47,7 +47,7 @@ public abstract class Genotype {
             
             
     // begin instance variables
-    protected static final Random random = new Random();
+    protected static final RestorableRandom random = new RestorableRandom();
     private Source source = Source.UNDEFINED;
     // end instance variables
 
@@ -99,6 +99,18 @@ public abstract class Genotype {
      */
     public abstract String toString();
 
+    /**
+     * Writes out the same as toString().  Genotypes with a lot to
+     * show can override this to write it out piece by piece.
+     *
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void write( Appendable out ) throws IOException {
+        out.append( toString() );
+    }
+
     /**
      * Gets the source of this genotype.
      *
@@ -0,0 +1,35 @@
+import java.io.*;
+
+/**
+ * Converts genotypes to and from a compact binary form, so they
+ * can be sent to other processes or saved to disk.
+ * Implementations are expected to have a constructor that takes
+ * the same string parameter as the individual they encode.
+ *
+ * @author Kyle Dewey
+ */
+public interface GenotypeCodec {
+    /**
+     * Writes out a genotype.
+     *
+     * @param genotype The genotype to write
+     * @param output Where to write it
+     *
+     * @exception IOException If an error occurred on writing
+     */
+    public void write( Genotype genotype, DataOutput output )
+        throws IOException;
+
+    /**
+     * Reads in a genotype previously written by <code>write</code>.
+     *
+     * @param input Where to read from
+     *
+     * @return The genotype that was read in
+     *
+     * @exception IOException If an error occurred on reading, or the
+     *            data is malformed
+     */
+    public Genotype read( DataInput input )
+        throws IOException;
+}
@@ -41,9 +41,9 @@
  *
  */
 
-// for breeding to work properly, reflection 
-// is required.
-import java.lang.reflect.Constructor;
+import java.util.concurrent.atomic.AtomicLong; // islands breed concurrently
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Represents an individual in the simulation.
@@ -63,15 +63,15 @@ public abstract class Individual {
     // end constants
 
     // begin global variables
-    private static WorkerPool pool = new WorkerPool();
+    private static FitnessEvaluator pool = new WorkerPool();
     // end global variables
 
     // begin instance variables
-    private static long nextId = 0; // ID the next ID to assign
+    private static final AtomicLong nextId = new AtomicLong(); // the next ID to assign
     private long id; // the ID of this individual
     private Genotype phenotype; // the phenotype of this individual
-    private double fitness; // the fitness of this individual
-    private FitnessThread fitnessCalculator;
+    private volatile double fitness; // the fitness of this individual
+    private volatile FitnessThread fitnessCalculator; // null once fitness is known
     // end instance variables
 
     /**
@@ -80,12 +80,64 @@ public abstract class Individual {
      * @param phenotype The phenotype of the individual
      */
     public Individual( Genotype phenotype ) {
+        this( phenotype, FITNESS_WAITING );
+    }
+
+    /**
+     * Creates a new individual whose fitness is already known,
+     * such as one restored from a checkpoint.  The fitness is not
+     * calculated again.
+     *
+     * @param phenotype The phenotype of the individual
+     * @param fitness The fitness of the individual; FITNESS_WAITING
+     *        if it should be calculated
+     */
+    public Individual( Genotype phenotype, double fitness ) {
         this.phenotype = phenotype;
-        id = nextId;
-        nextId++;
-        fitness = FITNESS_WAITING;
-        fitnessCalculator = new FitnessThread( this );
-        pool.addJob( fitnessCalculator );
+        id = nextId.getAndIncrement();
+        this.fitness = fitness;
+        if ( fitness == FITNESS_WAITING ) {
+            fitnessCalculator = new FitnessThread( this );
+            pool.addJob( fitnessCalculator );
+        }
+    }
+
+    /**
+     * Gets what fitness calculations are submitted to.
+     *
+     * @return The fitness evaluator
+     */
+    public static FitnessEvaluator getEvaluator() {
+        return pool;
+    }
+
+    /**
+     * Sets what fitness calculations are submitted to.
+     * Only individuals created afterwards are affected.
+     *
+     * @param evaluator The new fitness evaluator
+     */
+    public static void setEvaluator( FitnessEvaluator evaluator ) {
+        pool = evaluator;
+    }
+
+    /**
+     * Gets the ID the next individual will be given.
+     *
+     * @return The next ID
+     */
+    public static long getNextId() {
+        return nextId.get();
+    }
+
+    /**
+     * Sets the ID the next individual will be given, such as when
+     * a run is restored from a checkpoint.
+     *
+     * @param id The next ID
+     */
+    public static void setNextId( long id ) {
+        nextId.set( id );
     }
 
     /**
@@ -139,10 +191,8 @@ public abstract class Individual {
                                              "compatible genotypes tried " +
                                              "to breed." );
         } else {
-            Constructor con;
             try {
-                con = toMake.getConstructor( new Class[]{ Genotype.class } );
-                retval = (Individual)con.newInstance( new Object[]{ newPhenotype } );
+                retval = Registry.makeIndividual( toMake, newPhenotype );
             } catch ( Exception e ) {
                 e.printStackTrace();
                 throw new GenotypeCastException( e.getMessage() );
@@ -163,15 +213,13 @@ public abstract class Individual {
      *         mutation occurred
      */
     public Individual mutate( double prob ) {
-        Constructor con;
         Individual retval = null; // what will be returned
 
         try {
-            con = this.getClass().getConstructor( new Class[]{ Genotype.class } );
             Genotype newGenotype;
             newGenotype = phenotype.mutate( prob );
             if ( newGenotype != null ) {
-                retval = (Individual)con.newInstance( new Object[]{ newGenotype } );
+                retval = Registry.makeIndividual( this.getClass(), newGenotype );
             }
         } catch( Exception e ) {
             //impossible
@@ -181,12 +229,14 @@ public abstract class Individual {
     }
 
     /**
-     * Sets the fitness of this individual.
+     * Sets the fitness of this individual.  The job that calculated
+     * it is let go, so it isn't kept for as long as the individual is.
      *
      * @param fitness The fitness to set it to
      */
     public void setFitness( double fitness ) {
         this.fitness = fitness;
+        fitnessCalculator = null;
     }
 
     /**
@@ -200,7 +250,11 @@ public abstract class Individual {
         double retval = fitness; // what will be returned
 
         if ( retval == FITNESS_WAITING ) {
-            pool.waitForJob( fitnessCalculator );
+            // null if the fitness was set since it was read
+            FitnessThread calculator = fitnessCalculator;
+            if ( calculator != null ) {
+                pool.waitForJob( calculator );
+            }
             retval = fitness;
         }
 
@@ -226,14 +280,33 @@ public abstract class Individual {
      *         format
      */
     public String toString() {
-        String retval; // what will be returned
+        StringBuilder retval = new StringBuilder(); // what will be returned
 
-        retval = "Individual ID: " + Long.toString( id ) + "\n" +
-            "\t Phenotype: " + phenotype.toString() + "\n" +
-            "\t Fitness: " + Double.toString( getFitness() ) + "\n" +
-            "\t Source: " + phenotype.getSource().toString() + "\n";
+        try {
+            write( retval );
+        } catch ( IOException e ) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException( e );
+        }
 
-        return retval;
+        return retval.toString();
+    }
+
+    /**
+     * Writes out this individual in the same format as toString(),
+     * with the phenotype written out piece by piece.
+     *
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void write( Appendable out ) throws IOException {
+        out.append( "Individual ID: " ).append( Long.toString( id ) ).append( "\n" )
+            .append( "\t Phenotype: " );
+        phenotype.write( out );
+        out.append( "\n" )
+            .append( "\t Fitness: " ).append( Double.toString( getFitness() ) ).append( "\n" )
+            .append( "\t Source: " ).append( phenotype.getSource().toString() ).append( "\n" );
     }
 
     /**
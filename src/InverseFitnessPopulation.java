@@ -57,25 +57,12 @@ public class InverseFitnessPopulation< T extends Individual >
     }
 
     /**
-     * Gets the index of the individual with the maximum fitness
-     * in the population.  Note that for this, the maximum
-     * fitness is actually the LOWEST fitness in the population.
+     * Low fitness values are always good for this population.
      *
-     * @return The index of the individual with maximal (lowest) fitness
+     * @return true
      */
-    protected int getIndividualMaxFitness() {
-        return super.getIndividualMinFitness();
-    }
-
-    /**
-     * Gets the index of the individual with the minimal fitness
-     * in the population.  Note that for this, the minimal fitness
-     * is actually the HIGHEST fitness in the population.
-     *
-     * @return The index of the individual with minimal (highest) fitness
-     */
-    protected int getIndividualMinFitness() {
-        return super.getIndividualMaxFitness();
+    public boolean isLowGood() {
+        return true;
     }
 }
 
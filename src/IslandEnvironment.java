@@ -0,0 +1,318 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * An environment made up of several islands, each of which is
+ * an environment with its own population and termination condition.
+ * Islands evolve in parallel, each on its own thread.  Every so
+ * many generations, some individuals migrate between islands
+ * along a configurable topology.  Islands are numbered globally;
+ * with a transport that crosses processes, this environment only
+ * hosts some of them.
+ *
+ * @author Kyle Dewey
+ */
+public class IslandEnvironment extends Environment {
+    // begin instance variables
+    private List< Environment > islands; // the islands themselves
+    private MigrationTopology topology; // who sends migrants to whom
+    private Selection migrantSelection; // picks the individuals that migrate
+    private long migrationInterval; // generations between migrations
+    private double migrationRate; // portion of an island that migrates, 0-1
+    private MigrationTransport transport; // carries migrants between islands
+    private int firstIsland; // global number of the first island here
+    private int totalIslands; // number of islands across all processes
+    private boolean[] terminated; // which islands have finished
+    private long currentGeneration; // number of generations all islands have run
+    // end instance variables
+
+    /**
+     * Creates a new island environment, where all the islands
+     * are in this process.
+     *
+     * @param islands The islands.  Each must have its own population
+     *        and terminator; printers are used to print each island
+     * @param topology Which islands send migrants to which
+     * @param migrantSelection How migrants are picked from an island
+     * @param migrationInterval Number of generations between migrations
+     * @param migrationRate Portion of an island's population that
+     *        migrates, between 0-1
+     * @param printer Printer used for the start and end of the GA
+     */
+    public IslandEnvironment( List< Environment > islands,
+                              MigrationTopology topology,
+                              Selection migrantSelection,
+                              long migrationInterval,
+                              double migrationRate,
+                              EnvironmentPrinter printer ) {
+        this( islands,
+              topology,
+              migrantSelection,
+              migrationInterval,
+              migrationRate,
+              new LocalTransport(),
+              0,
+              islands.size(),
+              printer );
+    }
+
+    /**
+     * Creates a new island environment, hosting some of the islands.
+     *
+     * @param islands The islands hosted here.  Each must have its own
+     *        population and terminator; printers are used to print
+     *        each island
+     * @param topology Which islands send migrants to which
+     * @param migrantSelection How migrants are picked from an island
+     * @param migrationInterval Number of generations between migrations
+     * @param migrationRate Portion of an island's population that
+     *        migrates, between 0-1
+     * @param transport Carries migrants between islands
+     * @param firstIsland Global number of the first island given
+     * @param totalIslands Number of islands across all processes
+     * @param printer Printer used for the start and end of the GA
+     */
+    public IslandEnvironment( List< Environment > islands,
+                              MigrationTopology topology,
+                              Selection migrantSelection,
+                              long migrationInterval,
+                              double migrationRate,
+                              MigrationTransport transport,
+                              int firstIsland,
+                              int totalIslands,
+                              EnvironmentPrinter printer ) {
+        super( islands.get( 0 ).getPopulation(),
+               islands.get( 0 ).getTerminator(),
+               printer );
+        this.islands = new ArrayList< Environment >( islands );
+        this.topology = topology;
+        this.migrantSelection = migrantSelection;
+        this.migrationInterval = migrationInterval;
+        this.migrationRate = migrationRate;
+        this.transport = transport;
+        this.firstIsland = firstIsland;
+        this.totalIslands = totalIslands;
+        terminated = new boolean[ islands.size() ];
+        currentGeneration = 0;
+    }
+
+    /**
+     * Gets the islands hosted in this environment.
+     *
+     * @return The islands in this environment
+     */
+    public List< Environment > getIslands() {
+        return Collections.unmodifiableList( islands );
+    }
+
+    /**
+     * Gets the global number of the first island hosted here.
+     *
+     * @return The global number of the first island
+     */
+    public int getFirstIsland() {
+        return firstIsland;
+    }
+
+    /**
+     * Gets the population of the island holding the best
+     * individual seen across all islands.
+     *
+     * @return The population with the best individual
+     */
+    public Population getPopulation() {
+        Population retval = islands.get( 0 ).getPopulation();
+
+        for( Environment island : islands ) {
+            Population current = island.getPopulation();
+            double best = retval.getMaxFitness();
+            double fitness = current.getMaxFitness();
+
+            if ( ( current.isLowGood() && fitness < best ) ||
+                 ( !current.isLowGood() && fitness > best ) ) {
+                retval = current;
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets the number of generations all the islands have run.
+     *
+     * @return The current generation
+     */
+    public long getCurrentGeneration() {
+        return currentGeneration;
+    }
+
+    /**
+     * Sets the number of generations all the islands have run.
+     * Intended for resuming from a checkpoint; each island's
+     * population keeps its own count.
+     *
+     * @param currentGeneration The current generation
+     */
+    public void setCurrentGeneration( long currentGeneration ) {
+        this.currentGeneration = currentGeneration;
+    }
+
+    /**
+     * Checks each island's termination condition, marking those
+     * that are done.
+     *
+     * @return true if every island is done, else false
+     */
+    private boolean checkTerminated() {
+        boolean retval = true;
+
+        for( int x = 0; x < islands.size(); x++ ) {
+            if ( !terminated[ x ] ) {
+                Environment island = islands.get( x );
+                terminated[ x ] = island.getTerminator()
+                    .shouldTerminate( island.getPopulation() );
+            }
+            retval = retval && terminated[ x ];
+        }
+
+        return retval;
+    }
+
+    /**
+     * Has every island that isn't done undergo a generation.
+     * Each island runs on a thread of the given pool.
+     *
+     * @param pool The thread pool to use
+     */
+    private void undergoGeneration( ExecutorService pool ) {
+        List< Callable< Object > > jobs = new ArrayList< Callable< Object > >();
+
+        for( int x = 0; x < islands.size(); x++ ) {
+            if ( !terminated[ x ] ) {
+                final Population population = islands.get( x ).getPopulation();
+                jobs.add( new Callable< Object >() {
+                        public Object call() {
+                            population.undergoGeneration();
+                            return null;
+                        }
+                    } );
+            }
+        }
+
+        try {
+            for( Future< Object > future : pool.invokeAll( jobs ) ) {
+                future.get();
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( e );
+        } catch ( ExecutionException e ) {
+            throw new RuntimeException( e.getCause() );
+        }
+        currentGeneration++;
+    }
+
+    /**
+     * Sends migrants out of the islands here that are still running,
+     * then lets those islands take in whatever migrants have arrived.
+     * Migrants sent between islands here arrive immediately;
+     * migrants from other processes arrive whenever they make it.
+     */
+    private void migrate() {
+        for( int x = 0; x < islands.size(); x++ ) {
+            Population population = islands.get( x ).getPopulation();
+            int numMigrants = (int)( migrationRate * population.getPopulationSize() );
+            List< Individual > migrants;
+
+            if ( terminated[ x ] || numMigrants <= 0 ) {
+                continue;
+            }
+
+            migrants = population.selectMigrants( migrantSelection,
+                                                  numMigrants );
+            for( int destination : topology.getDestinations( firstIsland + x,
+                                                             totalIslands ) ) {
+                if ( !isHere( destination ) ||
+                     !terminated[ destination - firstIsland ] ) {
+                    transport.send( destination, migrants );
+                }
+            }
+        }
+
+        for( int x = 0; x < islands.size(); x++ ) {
+            List< Individual > migrants = transport.receive( firstIsland + x );
+            if ( !terminated[ x ] && !migrants.isEmpty() ) {
+                islands.get( x ).getPopulation().acceptMigrants( migrants );
+            }
+        }
+    }
+
+    /**
+     * Determines if the given island is hosted here.
+     *
+     * @param island The global number of the island
+     *
+     * @return true if the island is hosted here, else false
+     */
+    private boolean isHere( int island ) {
+        return island >= firstIsland &&
+            island < firstIsland + islands.size();
+    }
+
+    /**
+     * Writes what should be printed for every island at the end
+     * of a generation.
+     *
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    private void writeIslands( Appendable out ) throws IOException {
+        for( int x = 0; x < islands.size(); x++ ) {
+            Environment island = islands.get( x );
+            out.append( "Island #" ).append( Integer.toString( firstIsland + x ) ).append( ":\n" );
+            writeGAGeneration( island.getPrinter(), island, out );
+        }
+    }
+
+    /**
+     * Runs the GA.
+     * Islands run until each of their termination conditions have
+     * been met.  Once an island is done it no longer evolves, and
+     * it neither sends nor receives migrants.  Every island
+     * stops if asked to with stop().  As with an ordinary
+     * environment, the fitness evaluator is left running.
+     */
+    public void runGA() {
+        ExecutorService pool = Executors.newFixedThreadPool( islands.size() );
+        BackgroundWriter out = new BackgroundWriter( getOutput() );
+
+        try {
+            fireGAStarted();
+            writeGAStart( getPrinter(), this, out );
+            writeIslands( out );
+            out.flush();
+            while ( !isStopped() && !checkTerminated() ) {
+                undergoGeneration( pool );
+                if ( migrationInterval > 0 &&
+                     currentGeneration % migrationInterval == 0 ) {
+                    migrate();
+                }
+                writeIslands( out );
+                out.flush();
+                fireGenerationDone();
+            }
+            writeGAEnd( getPrinter(), this, out );
+            out.close();
+            fireGAEnded();
+        } catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        } finally {
+            closeQuietly( out );
+            pool.shutdownNow();
+            transport.close();
+        }
+    }
+}
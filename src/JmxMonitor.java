@@ -0,0 +1,216 @@
+import java.util.*;
+import java.lang.management.ManagementFactory;
+import javax.management.*;
+
+/**
+ * Shows a running GA over JMX, so it can be watched with a tool such
+ * as JConsole without stopping it.  Each island's population is
+ * registered as a PopulationMXBean, and the fitness evaluator, if it
+ * is a WorkerPool, as a WorkerPoolMXBean.  Beans are registered in
+ * the "ga" domain under the given name when the GA starts, and taken
+ * away when it ends.
+ * <p>
+ * Population values are copied at the end of each generation, on the
+ * GA's thread, so reading them never touches the population itself.
+ *
+ * @author Kyle Dewey
+ */
+public class JmxMonitor implements EnvironmentListener {
+    // begin constants
+    public static final String DOMAIN = "ga";
+    // end constants
+
+    /**
+     * The values of an island's population at the end of its last
+     * generation.
+     */
+    public static class IslandMonitor implements PopulationMXBean {
+        private volatile long currentGeneration;
+        private volatile int populationSize;
+        private volatile double bestFitness;
+        private volatile double meanFitness;
+        private volatile double worstFitness;
+        private volatile double standardDeviation;
+        private volatile long totalEvaluations;
+        private volatile double evaluationsPerSecond;
+        private volatile long lastGenerationMs;
+        private volatile double lastFitnessWaitMs;
+        private long lastUpdate; // when last updated, in ns
+
+        /**
+         * Copies the values of the population.
+         *
+         * @param population The island's population
+         */
+        public void update( Population population ) {
+            FitnessStats stats = population.getStats();
+            long now = System.nanoTime();
+            long evaluations = population.getNumEvaluations();
+
+            if ( lastUpdate != 0 && now > lastUpdate ) {
+                evaluationsPerSecond = ( evaluations - totalEvaluations ) /
+                    ( ( now - lastUpdate ) / 1e9 );
+            }
+            lastUpdate = now;
+            currentGeneration = population.getCurrentGeneration();
+            populationSize = stats.getCount();
+            bestFitness = stats.getBest();
+            meanFitness = stats.getMean();
+            worstFitness = stats.getWorst();
+            standardDeviation = stats.getStandardDeviation();
+            totalEvaluations = evaluations;
+            lastGenerationMs = population.getGenerationTime();
+            lastFitnessWaitMs =
+                population.getMetrics().getTime( GenerationMetrics.Phase.FITNESS_WAIT ) / 1e6;
+        }
+
+        public long getCurrentGeneration() {
+            return currentGeneration;
+        }
+
+        public int getPopulationSize() {
+            return populationSize;
+        }
+
+        public double getBestFitness() {
+            return bestFitness;
+        }
+
+        public double getMeanFitness() {
+            return meanFitness;
+        }
+
+        public double getWorstFitness() {
+            return worstFitness;
+        }
+
+        public double getFitnessStandardDeviation() {
+            return standardDeviation;
+        }
+
+        public long getTotalEvaluations() {
+            return totalEvaluations;
+        }
+
+        public double getEvaluationsPerSecond() {
+            return evaluationsPerSecond;
+        }
+
+        public long getLastGenerationMs() {
+            return lastGenerationMs;
+        }
+
+        public double getLastFitnessWaitMs() {
+            return lastFitnessWaitMs;
+        }
+    }
+
+    // begin instance variables
+    private String name; // the run, as named in the beans
+    private MBeanServer server;
+    private List< IslandMonitor > monitors; // one per island
+    private List< ObjectName > registered; // beans to take away at the end
+    // end instance variables
+
+    /**
+     * Creates a new monitor.  Nothing is registered until the GA starts.
+     *
+     * @param name Name of the run, to tell it apart from others in
+     *        the same JVM
+     */
+    public JmxMonitor( String name ) {
+        this.name = name;
+        server = ManagementFactory.getPlatformMBeanServer();
+        monitors = new ArrayList< IslandMonitor >();
+        registered = new ArrayList< ObjectName >();
+    }
+
+    /**
+     * Makes the name of a bean.
+     *
+     * @param type The type of bean
+     * @param island The island, or -1 for none
+     *
+     * @return The name
+     *
+     * @exception MalformedObjectNameException If the name is malformed
+     */
+    private ObjectName makeName( String type, int island )
+        throws MalformedObjectNameException {
+        String retval = DOMAIN + ":type=" + type + ",name=" + ObjectName.quote( name );
+
+        if ( island >= 0 ) {
+            retval += ",island=" + island;
+        }
+        return new ObjectName( retval );
+    }
+
+    /**
+     * Registers a bean.  Errors are printed, but otherwise ignored,
+     * as the GA runs fine without being watched.
+     *
+     * @param bean The bean
+     * @param type The type of bean
+     * @param island The island, or -1 for none
+     */
+    private void register( Object bean, String type, int island ) {
+        try {
+            ObjectName beanName = makeName( type, island );
+            server.registerMBean( bean, beanName );
+            registered.add( beanName );
+        } catch ( JMException e ) {
+            System.err.println( e );
+        }
+    }
+
+    /**
+     * Registers the beans, with the starting population's values.
+     * Islands are named by their number across every process, as
+     * in RunLog, so processes of a distributed run don't collide.
+     *
+     * @param environment The environment being run
+     */
+    public void gaStarted( Environment environment ) {
+        List< Environment > islands = environment.getIslands();
+
+        for( int x = 0; x < islands.size(); x++ ) {
+            IslandMonitor monitor = new IslandMonitor();
+            monitor.update( islands.get( x ).getPopulation() );
+            monitors.add( monitor );
+            register( monitor, "Population", environment.getFirstIsland() + x );
+        }
+        if ( Individual.getEvaluator() instanceof WorkerPoolMXBean ) {
+            register( Individual.getEvaluator(), "WorkerPool", -1 );
+        }
+    }
+
+    /**
+     * Copies each island's values.
+     *
+     * @param environment The environment being run
+     */
+    public void generationDone( Environment environment ) {
+        List< Environment > islands = environment.getIslands();
+
+        for( int x = 0; x < islands.size(); x++ ) {
+            monitors.get( x ).update( islands.get( x ).getPopulation() );
+        }
+    }
+
+    /**
+     * Takes the beans away.
+     *
+     * @param environment The environment being run
+     */
+    public void gaEnded( Environment environment ) {
+        for( ObjectName beanName : registered ) {
+            try {
+                server.unregisterMBean( beanName );
+            } catch ( JMException e ) {
+                System.err.println( e );
+            }
+        }
+        registered.clear();
+        monitors.clear();
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Carries migrants between islands that are all in this process.
+ * Migrants are handed over as-is.
+ *
+ * @author Kyle Dewey
+ */
+public class LocalTransport implements MigrationTransport {
+    // begin instance variables
+    private ConcurrentMap< Integer, Queue< Individual > > inboxes;
+    // end instance variables
+
+    /**
+     * Creates a new local transport.
+     */
+    public LocalTransport() {
+        inboxes = new ConcurrentHashMap< Integer, Queue< Individual > >();
+    }
+
+    /**
+     * Gets the queue that migrants for the given island wait in.
+     *
+     * @param island The island
+     *
+     * @return The queue for the island
+     */
+    protected Queue< Individual > getInbox( int island ) {
+        Queue< Individual > retval = inboxes.get( island );
+
+        if ( retval == null ) {
+            inboxes.putIfAbsent( island, new ConcurrentLinkedQueue< Individual >() );
+            retval = inboxes.get( island );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Sends migrants to the given island.
+     *
+     * @param destination The island the migrants go to
+     * @param migrants The migrants
+     */
+    public void send( int destination, List< Individual > migrants ) {
+        getInbox( destination ).addAll( migrants );
+    }
+
+    /**
+     * Gets all the migrants that have arrived for the given island.
+     *
+     * @param island The island to get migrants for
+     *
+     * @return The migrants that have arrived; may be empty
+     */
+    public List< Individual > receive( int island ) {
+        Queue< Individual > inbox = getInbox( island );
+        List< Individual > retval = new ArrayList< Individual >();
+        Individual current;
+
+        while ( ( current = inbox.poll() ) != null ) {
+            retval.add( current );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Nothing to release.
+     */
+    public void close() {}
+}
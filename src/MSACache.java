@@ -0,0 +1,218 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+
+/**
+ * Caches the taxa read in from MSA files, so every individual built
+ * from the same file shares them.  Safe to use from many threads:
+ * each file is read in exactly once, and anyone asking for it while
+ * it is being read waits on that same read.  Files are identified by
+ * their canonical path, and are read in again if they have been
+ * modified since.
+ * <p>
+ * The cache is bounded by the total number of informative states
+ * (taxa times points) it holds.  When it goes over, the least
+ * recently used alignments are dropped; individuals that still
+ * refer to them are unaffected.  The most recently used alignment
+ * is always kept, however large it is.
+ *
+ * @author Kyle Dewey
+ */
+public class MSACache {
+    // begin constants
+    public static final long DEFAULT_MAX_SIZE = 1L << 28; // in states
+    // end constants
+
+    // begin instance variables
+    private long maxSize; // most states to hold
+    private long size; // states held by loaded alignments
+    private LinkedHashMap< String, Entry > entries; // by canonical path, least recent first
+    // end instance variables
+
+    /**
+     * An alignment that has been, or is being, read in.
+     */
+    private static class Entry {
+        public long modified; // when the file was last modified
+        public FutureTask< List< PhylogeneticTreeItem > > load; // reads the file
+        public long size; // number of states, once loaded
+
+        public Entry( long modified,
+                      FutureTask< List< PhylogeneticTreeItem > > load ) {
+            this.modified = modified;
+            this.load = load;
+            size = 0;
+        }
+    }
+
+    /**
+     * Creates a new cache, bounded by DEFAULT_MAX_SIZE.
+     */
+    public MSACache() {
+        this( DEFAULT_MAX_SIZE );
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize Most informative states to hold
+     */
+    public MSACache( long maxSize ) {
+        this.maxSize = maxSize;
+        size = 0;
+        entries = new LinkedHashMap< String, Entry >( 16, 0.75f, true );
+    }
+
+    /**
+     * Reads in the taxa of a file.  The file may either be an
+     * alignment in any format ReadAnyMSA understands, or a store
+     * saved by MSAStore, which is memory mapped.
+     *
+     * @param file The file to read
+     *
+     * @return The taxa in the file
+     *
+     * @exception IOException If an error occurred on reading the file
+     */
+    public static List< PhylogeneticTreeItem > load( File file )
+        throws IOException {
+        if ( MSAStore.isStoreFile( file ) ) {
+            return MSAStore.map( file ).getTaxa();
+        } else {
+            return new ReadAnyMSA().readMSAFile( file );
+        }
+    }
+
+    /**
+     * Gets the taxa in the given file, reading it in if it hasn't
+     * been already, or has been modified since.
+     *
+     * @param msaFile The msa file name
+     *
+     * @return The taxa in the file
+     *
+     * @exception IOException If an error occurred on reading the file
+     */
+    public List< PhylogeneticTreeItem > get( String msaFile )
+        throws IOException {
+        final File file = new File( msaFile ).getCanonicalFile();
+        String path = file.getPath();
+        long modified = file.lastModified();
+        boolean loader = false; // if this thread reads the file
+        Entry entry;
+
+        synchronized( this ) {
+            entry = entries.get( path );
+            if ( entry == null || entry.modified != modified ) {
+                if ( entry != null ) {
+                    remove( path );
+                }
+                entry = new Entry( modified,
+                                   new FutureTask< List< PhylogeneticTreeItem > >(
+                                       new Callable< List< PhylogeneticTreeItem > >() {
+                                           public List< PhylogeneticTreeItem > call()
+                                               throws IOException {
+                                               return load( file );
+                                           }
+                                       } ) );
+                entries.put( path, entry );
+                loader = true;
+            }
+        }
+
+        if ( loader ) {
+            entry.load.run();
+        }
+
+        try {
+            List< PhylogeneticTreeItem > retval = entry.load.get();
+            if ( loader ) {
+                loaded( path, entry, retval );
+            }
+            return retval;
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted reading " + file );
+        } catch ( ExecutionException e ) {
+            synchronized( this ) {
+                if ( entries.get( path ) == entry ) {
+                    // let a later call try again
+                    remove( path );
+                }
+            }
+            if ( e.getCause() instanceof IOException ) {
+                throw (IOException)e.getCause();
+            } else if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new IOException( e.getCause() );
+        }
+    }
+
+    /**
+     * Records the size of a newly loaded alignment, and evicts
+     * others if the cache is now too large.
+     *
+     * @param path The canonical path of the file
+     * @param entry The entry that was loaded
+     * @param taxa What was loaded
+     */
+    private synchronized void loaded( String path,
+                                      Entry entry,
+                                      List< PhylogeneticTreeItem > taxa ) {
+        if ( entries.get( path ) != entry ) {
+            // replaced or dropped while loading
+            return;
+        }
+        MSAStore store = taxa.get( 0 ).getStore();
+        entry.size = (long)store.getNumTaxa() * store.getNumPoints();
+        size += entry.size;
+
+        Iterator< Map.Entry< String, Entry > > iterator = entries.entrySet().iterator();
+        while ( size > maxSize && iterator.hasNext() ) {
+            Map.Entry< String, Entry > eldest = iterator.next();
+            if ( eldest.getValue() != entry && eldest.getValue().load.isDone() ) {
+                size -= eldest.getValue().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the given file from the cache.
+     *
+     * @param path The canonical path of the file
+     */
+    private synchronized void remove( String path ) {
+        Entry entry = entries.remove( path );
+        if ( entry != null ) {
+            size -= entry.size;
+        }
+    }
+
+    /**
+     * Gets the number of alignments cached, including any being read.
+     *
+     * @return The number of alignments cached
+     */
+    public synchronized int getNumEntries() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of informative states held by cached alignments.
+     *
+     * @return The size of the cache
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Drops every alignment from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+}
@@ -0,0 +1,691 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Generates synthetic alignments, for trying out the framework on
+ * inputs much bigger than the bundled example.  Sequences evolve down
+ * a random tree: the pairs of subtrees that are joined, and the
+ * length of each branch, are random, with branch lengths drawn from
+ * an exponential distribution.  Each column starts from a random
+ * nucleotide at the root, which changes along each branch under the
+ * Jukes-Cantor model, or the Kimura two-parameter model with a given
+ * transition/transversion ratio.
+ * <p>
+ * The fraction of columns that are parsimony informative can be
+ * fixed.  A column that should be informative, or shouldn't be, is
+ * simulated again until it is, up to MAX_ATTEMPTS times; an
+ * uninformative column that never comes out that way is made
+ * constant, and an informative one is kept as it came out last.
+ * <p>
+ * The alignment is made in blocks of BLOCK_COLUMNS columns, which are
+ * simulated in parallel and written straight to their place in the
+ * file, as ClustalW or FASTA, so the whole alignment is never held in
+ * memory.  Only as many blocks as fit in MAX_PENDING_BYTES are made
+ * at once.  Each block has its own random number generator, seeded
+ * from the seed and the block's position, so the same seed always
+ * gives the same file, however many threads make it.
+ *
+ * @author Kyle Dewey
+ */
+public class MSAGenerator {
+    // begin constants
+    public static final int NUM_REQUIRED_ARGS = 3;
+    public static final String[] OPTIONS = { "model",
+                                             "kappa",
+                                             "branchLength",
+                                             "informative",
+                                             "seed",
+                                             "format",
+                                             "tree" };
+    public static final String JC = "JC";
+    public static final String K2P = "K2P";
+    public static final String CLUSTAL = "clustal";
+    public static final String FASTA = "fasta";
+    public static final String[] FASTA_SUFFIXES = { ".fasta", ".fa", ".fas" };
+    public static final String DEFAULT_MODEL = JC;
+    public static final double DEFAULT_KAPPA = 2.0;
+    public static final double DEFAULT_BRANCH_LENGTH = 0.1; // mean substitutions per site
+    public static final long DEFAULT_SEED = 20100515;
+    public static final String NAME_PREFIX = "taxon";
+    public static final int MIN_NAME_DIGITS = 5;
+    public static final int LINE_LENGTH = 60; // columns per line in either format
+    public static final int BLOCK_COLUMNS = LINE_LENGTH * 64;
+    public static final int MAX_ATTEMPTS = 100; // simulations of a column
+    public static final long MAX_PENDING_BYTES = 1L << 28;
+    public static final long BLOCK_SEED_STEP = 0x9E3779B97F4A7C15L;
+    public static final String CLUSTAL_HEADER = ReadClustalWMSA.FILE_HEADER +
+        " W (1.83) multiple sequence alignment\n\n\n";
+    public static final int CLUSTAL_NAME_PADDING = 7; // spaces after a name
+    // end constants
+
+    // begin instance variables
+    private int numTaxa;
+    private long numSites;
+    private boolean fasta; // else ClustalW
+    private double informative; // fraction of informative columns, or -1 for any
+    private long seed;
+    private int[] parents; // of each node; leaves come first, and the root last
+    private int[] children; // two per internal node, by node - numTaxa
+    private double[] branchLengths; // from each node to its parent
+    private double[][] changes; // cumulative probabilities, per node, of each change
+    private byte[][] names; // of the taxa, all the same length
+    // end instance variables
+
+    /**
+     * Creates a new generator, making its random tree.
+     *
+     * @param numTaxa The number of taxa; at least 2
+     * @param numSites The number of columns; at least 1
+     * @param model JC or K2P
+     * @param kappa The transition/transversion rate ratio; only used by K2P
+     * @param branchLength The mean length of a branch, in expected
+     *        substitutions per site
+     * @param informative The fraction of columns that are parsimony
+     *        informative, or -1 to leave it to chance
+     * @param seed The seed
+     * @param fasta Whether to write FASTA; else ClustalW
+     *
+     * @exception ArgsException If the model is unknown or a value is
+     *            out of range
+     */
+    public MSAGenerator( int numTaxa,
+                         long numSites,
+                         String model,
+                         double kappa,
+                         double branchLength,
+                         double informative,
+                         long seed,
+                         boolean fasta ) throws ArgsException {
+        if ( numTaxa < 2 ) {
+            throw new ArgsException( "Need at least 2 taxa; received " + numTaxa );
+        } else if ( numSites < 1 ) {
+            throw new ArgsException( "Need at least 1 site; received " + numSites );
+        } else if ( !model.equals( JC ) && !model.equals( K2P ) ) {
+            throw new ArgsException( "Unknown model: " + model );
+        }
+        this.numTaxa = numTaxa;
+        this.numSites = numSites;
+        this.informative = informative;
+        this.seed = seed;
+        this.fasta = fasta;
+        makeTree( branchLength );
+        makeChanges( model.equals( K2P ) ? kappa : 1.0 );
+        makeNames();
+    }
+
+    /**
+     * Makes the random tree.  Random pairs of subtrees are joined
+     * until there is only one, so every node's parent comes after it.
+     *
+     * @param branchLength The mean length of a branch
+     */
+    private void makeTree( double branchLength ) {
+        int numNodes = 2 * numTaxa - 1;
+        SplittableRandom random = new SplittableRandom( seed );
+        int[] subtrees = new int[ numTaxa ];
+
+        parents = new int[ numNodes ];
+        children = new int[ 2 * ( numTaxa - 1 ) ];
+        branchLengths = new double[ numNodes ];
+        for( int x = 0; x < numTaxa; x++ ) {
+            subtrees[ x ] = x;
+        }
+        parents[ numNodes - 1 ] = -1;
+        for( int node = numTaxa; node < numNodes; node++ ) {
+            int numSubtrees = numNodes - node + 1;
+            for( int child = 0; child < 2; child++ ) {
+                int pick = random.nextInt( numSubtrees );
+                children[ 2 * ( node - numTaxa ) + child ] = subtrees[ pick ];
+                parents[ subtrees[ pick ] ] = node;
+                subtrees[ pick ] = subtrees[ --numSubtrees ];
+            }
+            subtrees[ numSubtrees ] = node;
+        }
+        for( int node = 0; node < numNodes - 1; node++ ) {
+            branchLengths[ node ] = -branchLength * Math.log( 1.0 - random.nextDouble() );
+        }
+    }
+
+    /**
+     * Works out the probabilities of change along each branch, under
+     * the Kimura two-parameter model; Jukes-Cantor is the case where
+     * kappa is 1.  For each node these are the cumulative
+     * probabilities of no change, a transition, and the first
+     * transversion; the second transversion takes the rest.
+     *
+     * @param kappa The transition/transversion rate ratio
+     */
+    private void makeChanges( double kappa ) {
+        changes = new double[ parents.length ][];
+
+        for( int node = 0; node < parents.length - 1; node++ ) {
+            double distance = branchLengths[ node ];
+            double transversion = Math.exp( -4.0 * distance / ( kappa + 2.0 ) );
+            double total = Math.exp( -2.0 * distance * ( kappa + 1.0 ) / ( kappa + 2.0 ) );
+            double same = 0.25 + 0.25 * transversion + 0.5 * total;
+            double transition = 0.25 + 0.25 * transversion - 0.5 * total;
+            double eachTransversion = 0.25 - 0.25 * transversion;
+            changes[ node ] = new double[]{ same,
+                                            same + transition,
+                                            same + transition + eachTransversion };
+        }
+    }
+
+    /**
+     * Makes the names of the taxa, padded to the same length.
+     */
+    private void makeNames() {
+        int digits = Math.max( MIN_NAME_DIGITS,
+                               Integer.toString( numTaxa - 1 ).length() );
+
+        names = new byte[ numTaxa ][];
+        for( int taxa = 0; taxa < numTaxa; taxa++ ) {
+            names[ taxa ] = String.format( "%s%0" + digits + "d", NAME_PREFIX, taxa )
+                .getBytes( StandardCharsets.US_ASCII );
+        }
+    }
+
+    /**
+     * Gets the name of a taxa.
+     *
+     * @param taxa The position of the taxa
+     *
+     * @return Its name
+     */
+    public String getName( int taxa ) {
+        return new String( names[ taxa ], StandardCharsets.US_ASCII );
+    }
+
+    /**
+     * Gets the tree the sequences evolved down, in Newick format,
+     * with branch lengths.
+     *
+     * @return The tree
+     */
+    public String getTree() {
+        StringBuilder retval = new StringBuilder();
+
+        appendTree( parents.length - 1, retval );
+        return retval.append( ";\n" ).toString();
+    }
+
+    /**
+     * Appends a subtree in Newick format.
+     *
+     * @param node The root of the subtree
+     * @param builder What to append to
+     */
+    private void appendTree( int node, StringBuilder builder ) {
+        if ( node < numTaxa ) {
+            builder.append( getName( node ) );
+        } else {
+            int first = 2 * ( node - numTaxa );
+            builder.append( '(' );
+            appendTree( children[ first ], builder );
+            builder.append( ',' );
+            appendTree( children[ first + 1 ], builder );
+            builder.append( ')' );
+        }
+        if ( parents[ node ] != -1 ) {
+            builder.append( ':' ).append( String.format( "%.6f", branchLengths[ node ] ) );
+        }
+    }
+
+    /**
+     * Simulates a column down the tree.
+     *
+     * @param states Where to put the nucleotide at each node, as a
+     *        position in PhylogeneticTreeIndividual.NUCLEOTIDES
+     * @param random Where random numbers come from
+     */
+    private void simulateColumn( byte[] states, SplittableRandom random ) {
+        int root = parents.length - 1;
+
+        states[ root ] = (byte)random.nextInt( 4 );
+        // parents come after their children, so this goes down the tree
+        for( int node = root - 1; node >= 0; node-- ) {
+            double[] change = changes[ node ];
+            double pick = random.nextDouble();
+            int state = states[ parents[ node ] ];
+            // A, C, G, T: transitions are A-G and C-T
+            if ( pick >= change[ 2 ] ) {
+                state ^= 3;
+            } else if ( pick >= change[ 1 ] ) {
+                state ^= 1;
+            } else if ( pick >= change[ 0 ] ) {
+                state ^= 2;
+            }
+            states[ node ] = (byte)state;
+        }
+    }
+
+    /**
+     * Gets whether a column is parsimony informative: at least two
+     * nucleotides each occur in at least two taxa.
+     *
+     * @param states The nucleotide at each node; taxa come first
+     *
+     * @return true if it is informative
+     */
+    private boolean isInformative( byte[] states ) {
+        int[] counts = new int[ 4 ];
+        int numShared = 0;
+
+        for( int taxa = 0; taxa < numTaxa && numShared < 2; taxa++ ) {
+            if ( ++counts[ states[ taxa ] ] == 2 ) {
+                numShared++;
+            }
+        }
+
+        return numShared >= 2;
+    }
+
+    /**
+     * Makes a column, informative or not as asked for.
+     *
+     * @param states Where to put the nucleotide at each node
+     * @param random Where random numbers come from
+     */
+    private void makeColumn( byte[] states, SplittableRandom random ) {
+        if ( informative < 0.0 ) {
+            simulateColumn( states, random );
+            return;
+        }
+        boolean wanted = random.nextDouble() < informative;
+        for( int attempt = 0; attempt < MAX_ATTEMPTS; attempt++ ) {
+            simulateColumn( states, random );
+            if ( isInformative( states ) == wanted ) {
+                return;
+            }
+        }
+        if ( !wanted ) {
+            Arrays.fill( states, 0, numTaxa, states[ 0 ] );
+        }
+    }
+
+    /**
+     * Gets the length of a sequence as written out, including the
+     * newline after each line.
+     *
+     * @param numColumns The number of columns in the sequence
+     *
+     * @return The length, in bytes
+     */
+    private static long getLinedLength( long numColumns ) {
+        return numColumns + ( numColumns + LINE_LENGTH - 1 ) / LINE_LENGTH;
+    }
+
+    /**
+     * Gets the length of a line of a ClustalW file, holding some
+     * columns of one taxa.
+     *
+     * @param numColumns The number of columns on the line
+     *
+     * @return The length, in bytes
+     */
+    private int getClustalLineLength( int numColumns ) {
+        return names[ 0 ].length + CLUSTAL_NAME_PADDING + numColumns + 1;
+    }
+
+    /**
+     * Gets the length of the whole file.
+     *
+     * @return The length, in bytes
+     */
+    public long getFileLength() {
+        if ( fasta ) {
+            return numTaxa * ( names[ 0 ].length + 2 + getLinedLength( numSites ) );
+        }
+        long numFullLines = numSites / LINE_LENGTH;
+        int lastColumns = (int)( numSites % LINE_LENGTH );
+        long retval = CLUSTAL_HEADER.length() +
+            numFullLines * ( (long)numTaxa * getClustalLineLength( LINE_LENGTH ) + 1 );
+
+        if ( lastColumns > 0 ) {
+            retval += (long)numTaxa * getClustalLineLength( lastColumns ) + 1;
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets the number of bytes of the file that hold a block.
+     *
+     * @param numColumns The number of columns in the block
+     *
+     * @return The size of the block, in bytes
+     */
+    private int getBlockSize( int numColumns ) {
+        if ( fasta ) {
+            return (int)( numTaxa * getLinedLength( numColumns ) );
+        }
+        int numFullLines = numColumns / LINE_LENGTH;
+        int lastColumns = numColumns % LINE_LENGTH;
+        int retval = numFullLines * ( numTaxa * getClustalLineLength( LINE_LENGTH ) + 1 );
+
+        if ( lastColumns > 0 ) {
+            retval += numTaxa * getClustalLineLength( lastColumns ) + 1;
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets where a nucleotide goes in the bytes of a block.  Blocks
+     * start at the start of a line.  In FASTA the block holds the
+     * columns of each taxa in turn, and in ClustalW it holds the
+     * lines of every taxa, a line's worth of columns at a time.
+     *
+     * @param taxa The position of the taxa
+     * @param column The column, counting from the start of the block
+     * @param numColumns The number of columns in the block
+     *
+     * @return The position in the block
+     */
+    private int getPosition( int taxa, int column, int numColumns ) {
+        int line = column / LINE_LENGTH;
+        int within = column % LINE_LENGTH;
+
+        if ( fasta ) {
+            return (int)( taxa * getLinedLength( numColumns ) ) +
+                line * ( LINE_LENGTH + 1 ) + within;
+        }
+        int lineColumns = Math.min( LINE_LENGTH, numColumns - line * LINE_LENGTH );
+        int lineLength = getClustalLineLength( lineColumns );
+
+        return line * ( numTaxa * getClustalLineLength( LINE_LENGTH ) + 1 ) +
+            taxa * lineLength + names[ 0 ].length + CLUSTAL_NAME_PADDING + within;
+    }
+
+    /**
+     * Makes the bytes of a block: the nucleotides, and the newlines,
+     * and in ClustalW the names.
+     *
+     * @param block The position of the block
+     *
+     * @return The bytes
+     */
+    public byte[] makeBlock( long block ) {
+        long start = block * BLOCK_COLUMNS;
+        int numColumns = (int)Math.min( BLOCK_COLUMNS, numSites - start );
+        byte[] retval = new byte[ getBlockSize( numColumns ) ];
+        byte[] nucleotides =
+            PhylogeneticTreeIndividual.NUCLEOTIDES.getBytes( StandardCharsets.US_ASCII );
+        byte[] states = new byte[ parents.length ];
+        SplittableRandom random = new SplittableRandom( seed + ( block + 1 ) * BLOCK_SEED_STEP );
+
+        fillLayout( retval, numColumns );
+        for( int column = 0; column < numColumns; column++ ) {
+            makeColumn( states, random );
+            for( int taxa = 0; taxa < numTaxa; taxa++ ) {
+                retval[ getPosition( taxa, column, numColumns ) ] = nucleotides[ states[ taxa ] ];
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * Fills in the parts of a block that aren't nucleotides: the
+     * newlines, and in ClustalW the padded names.
+     *
+     * @param bytes The bytes of the block
+     * @param numColumns The number of columns in the block
+     */
+    private void fillLayout( byte[] bytes, int numColumns ) {
+        Arrays.fill( bytes, (byte)'\n' );
+        if ( fasta ) {
+            return;
+        }
+        int nameLength = names[ 0 ].length;
+        for( int line = 0; line * LINE_LENGTH < numColumns; line++ ) {
+            for( int taxa = 0; taxa < numTaxa; taxa++ ) {
+                int position = getPosition( taxa, line * LINE_LENGTH, numColumns ) -
+                    nameLength - CLUSTAL_NAME_PADDING;
+                System.arraycopy( names[ taxa ], 0, bytes, position, nameLength );
+                Arrays.fill( bytes, position + nameLength,
+                             position + nameLength + CLUSTAL_NAME_PADDING, (byte)' ' );
+            }
+        }
+    }
+
+    /**
+     * Writes out a block to its place in the file.
+     *
+     * @param block The position of the block
+     * @param bytes The bytes of the block
+     * @param channel The file
+     *
+     * @exception IOException If the file couldn't be written
+     */
+    private void writeBlock( long block, byte[] bytes, FileChannel channel )
+        throws IOException {
+        long start = block * BLOCK_COLUMNS;
+
+        if ( !fasta ) {
+            // every line of a ClustalW block before the last is full
+            long position = CLUSTAL_HEADER.length() +
+                start / LINE_LENGTH * ( (long)numTaxa * getClustalLineLength( LINE_LENGTH ) + 1 );
+            writeFully( ByteBuffer.wrap( bytes ), position, channel );
+            return;
+        }
+        int numColumns = (int)Math.min( BLOCK_COLUMNS, numSites - start );
+        int rowLength = (int)getLinedLength( numColumns );
+        long recordLength = names[ 0 ].length + 2 + getLinedLength( numSites );
+        for( int taxa = 0; taxa < numTaxa; taxa++ ) {
+            long position = taxa * recordLength + names[ 0 ].length + 2 +
+                getLinedLength( start );
+            writeFully( ByteBuffer.wrap( bytes, taxa * rowLength, rowLength ),
+                        position,
+                        channel );
+        }
+    }
+
+    /**
+     * Writes out the start of the file, and in FASTA the start of
+     * each taxa's record.
+     *
+     * @param channel The file
+     *
+     * @exception IOException If the file couldn't be written
+     */
+    private void writeHeaders( FileChannel channel ) throws IOException {
+        if ( !fasta ) {
+            writeFully( ByteBuffer.wrap( CLUSTAL_HEADER.getBytes( StandardCharsets.US_ASCII ) ),
+                        0,
+                        channel );
+            return;
+        }
+        long recordLength = names[ 0 ].length + 2 + getLinedLength( numSites );
+        for( int taxa = 0; taxa < numTaxa; taxa++ ) {
+            ByteBuffer header = ByteBuffer.allocate( names[ taxa ].length + 2 );
+            header.put( (byte)'>' ).put( names[ taxa ] ).put( (byte)'\n' ).flip();
+            writeFully( header, taxa * recordLength, channel );
+        }
+    }
+
+    /**
+     * Writes all of a buffer at a position in a file.
+     *
+     * @param buffer What to write
+     * @param position Where in the file
+     * @param channel The file
+     *
+     * @exception IOException If the file couldn't be written
+     */
+    private static void writeFully( ByteBuffer buffer,
+                                    long position,
+                                    FileChannel channel ) throws IOException {
+        while ( buffer.hasRemaining() ) {
+            position += channel.write( buffer, position );
+        }
+    }
+
+    /**
+     * Writes out the alignment, making blocks on the given number of
+     * threads.
+     *
+     * @param file Where to write it
+     * @param numThreads The number of threads
+     *
+     * @exception IOException If the file couldn't be written
+     */
+    public void write( File file, int numThreads ) throws IOException {
+        final long numBlocks = ( numSites + BLOCK_COLUMNS - 1 ) / BLOCK_COLUMNS;
+        int maxPending = (int)Math.max( 1, Math.min( numThreads + 1,
+                                                     MAX_PENDING_BYTES / getBlockSize( BLOCK_COLUMNS ) ) );
+        final Semaphore pending = new Semaphore( maxPending );
+        ExecutorService pool = Executors.newFixedThreadPool( numThreads );
+        List< Future< ? > > results = new ArrayList< Future< ? > >();
+        FileChannel channel = FileChannel.open( file.toPath(),
+                                                StandardOpenOption.CREATE,
+                                                StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING );
+
+        try {
+            final FileChannel output = channel;
+            writeHeaders( channel );
+            for( long x = 0; x < numBlocks; x++ ) {
+                final long block = x;
+                pending.acquireUninterruptibly();
+                results.add( pool.submit( new Callable< Void >() {
+                        public Void call() throws IOException {
+                            try {
+                                writeBlock( block, makeBlock( block ), output );
+                            } finally {
+                                pending.release();
+                            }
+                            return null;
+                        }
+                    } ) );
+            }
+            for( Future< ? > result : results ) {
+                result.get();
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( e.toString() );
+        } catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof IOException ) {
+                throw (IOException)e.getCause();
+            }
+            throw new IOException( e.getCause() );
+        } finally {
+            pool.shutdownNow();
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes out the tree the sequences evolved down.
+     *
+     * @param file Where to write it
+     *
+     * @exception IOException If the file couldn't be written
+     */
+    public void writeTree( File file ) throws IOException {
+        Writer output = new BufferedWriter( new FileWriter( file ) );
+
+        try {
+            output.write( getTree() );
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Gets whether a file should be FASTA, going by its name.
+     *
+     * @param file The file
+     *
+     * @return true if it ends in one of FASTA_SUFFIXES
+     */
+    public static boolean isFastaName( File file ) {
+        String name = file.getName().toLowerCase();
+
+        for( String suffix : FASTA_SUFFIXES ) {
+            if ( name.endsWith( suffix ) ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Prints usage information for the generator.
+     */
+    public static void usage() {
+        System.out.println( "Takes the following params:\n" +
+                            "file to write the alignment to\n" +
+                            "number of taxa\n" +
+                            "number of sites\n" +
+                            "Followed by any of these, as name" + RunGA.DELIM + "value:\n" +
+                            "model: " + JC + " or " + K2P + " (default " + DEFAULT_MODEL + ")\n" +
+                            "kappa: transition/transversion ratio for " + K2P +
+                            " (default " + DEFAULT_KAPPA + ")\n" +
+                            "branchLength: mean branch length (default " +
+                            DEFAULT_BRANCH_LENGTH + ")\n" +
+                            "informative: fraction of informative sites " +
+                            "(default left to chance)\n" +
+                            "seed: random seed (default " + DEFAULT_SEED + ")\n" +
+                            "format: " + CLUSTAL + " or " + FASTA +
+                            " (default " + FASTA + " if the file ends in " +
+                            String.join( ", ", FASTA_SUFFIXES ) + ", else " + CLUSTAL + ")\n" +
+                            "tree: file to write the tree to, in Newick format\n" );
+    }
+
+    public static void main( String[] args ) {
+        if ( args.length < NUM_REQUIRED_ARGS ) {
+            usage();
+            System.exit( 1 );
+        }
+        try {
+            File file = new File( args[ 0 ] );
+            Map< String, String > options = RunGA.readOptions( args, NUM_REQUIRED_ARGS, OPTIONS );
+            String format = RunGA.getOption( options,
+                                             "format",
+                                             isFastaName( file ) ? FASTA : CLUSTAL );
+            if ( !format.equals( FASTA ) && !format.equals( CLUSTAL ) ) {
+                throw new ArgsException( "Unknown format: " + format );
+            }
+            String informative = RunGA.getOption( options, "informative", null );
+            MSAGenerator generator =
+                new MSAGenerator( Integer.parseInt( args[ 1 ] ),
+                                  Long.parseLong( args[ 2 ] ),
+                                  RunGA.getOption( options, "model", DEFAULT_MODEL ),
+                                  RunGA.readDouble( RunGA.getOption( options,
+                                                                     "kappa",
+                                                                     Double.toString( DEFAULT_KAPPA ) ),
+                                                    0.0,
+                                                    Double.MAX_VALUE ),
+                                  RunGA.readDouble( RunGA.getOption( options,
+                                                                     "branchLength",
+                                                                     Double.toString( DEFAULT_BRANCH_LENGTH ) ),
+                                                    0.0,
+                                                    Double.MAX_VALUE ),
+                                  ( informative == null ) ? -1.0 :
+                                  RunGA.readDouble( informative, 0.0, 1.0 ),
+                                  Long.parseLong( RunGA.getOption( options,
+                                                                   "seed",
+                                                                   Long.toString( DEFAULT_SEED ) ) ),
+                                  format.equals( FASTA ) );
+            generator.write( file, Runtime.getRuntime().availableProcessors() );
+            if ( options.containsKey( "tree" ) ) {
+                generator.writeTree( new File( options.get( "tree" ) ) );
+            }
+        } catch ( NumberFormatException e ) {
+            System.err.println( e );
+            usage();
+            System.exit( 1 );
+        } catch ( Exception e ) {
+            System.err.println( e );
+            System.exit( 1 );
+        }
+    }
+}
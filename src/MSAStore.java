@@ -0,0 +1,302 @@
+import java.util.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Holds the parsimony informative points of every taxa in a multiple
+ * sequence alignment, encoded once as nucleotide positions (see
+ * PhylogeneticTreeIndividual.NUCLEOTIDES) rather than characters.
+ * Leaves in a phylogenetic tree refer to their taxa by index into
+ * a store, which is shared by every individual built from the
+ * same alignment.
+ * <p>
+ * States are stored one byte per point, point-major, so the states
+ * of every taxa at a given point are next to each other.  A store
+ * can be saved to a file, and later memory mapped from it, so very
+ * large alignments need neither be parsed again nor held on the heap.
+ * The file format is: MAGIC, VERSION, the number of taxa, the number
+ * of points, each taxa name as a length-prefixed UTF-8 string, then
+ * the states.
+ *
+ * @author Kyle Dewey
+ */
+public class MSAStore {
+    // begin constants
+    public static final int MAGIC = 0x4D534153; // "MSAS"
+    public static final int VERSION = 1;
+    // end constants
+
+    // begin instance variables
+    private String[] names; // name of each taxa, by index
+    private int numPoints; // number of informative points
+    private ByteBuffer states; // state of each taxa at each point
+    private List< PhylogeneticTreeItem > taxa; // a leaf item for each taxa
+    // end instance variables
+
+    /**
+     * Creates a new store over the given states.
+     *
+     * @param names The name of each taxa
+     * @param numPoints The number of informative points
+     * @param states The states, point-major
+     */
+    private MSAStore( String[] names,
+                      int numPoints,
+                      ByteBuffer states ) {
+        this.names = names;
+        this.numPoints = numPoints;
+        this.states = states;
+
+        List< PhylogeneticTreeItem > items =
+            new ArrayList< PhylogeneticTreeItem >( names.length );
+        for( int x = 0; x < names.length; x++ ) {
+            items.add( new PhylogeneticTreeItem( this, x ) );
+        }
+        taxa = Collections.unmodifiableList( items );
+    }
+
+    /**
+     * Creates a new store over already encoded states.
+     *
+     * @param names The name of each taxa
+     * @param numPoints The number of informative points
+     * @param states The state of each taxa at each point, point-major
+     *
+     * @exception IllegalArgumentException If the number of states
+     *            doesn't match
+     */
+    public MSAStore( String[] names,
+                     int numPoints,
+                     byte[] states ) {
+        this( names, numPoints, ByteBuffer.wrap( states ) );
+        if ( states.length != checkSize( names.length, numPoints ) ) {
+            throw new IllegalArgumentException( "Expected " + names.length * numPoints +
+                                                " states; received " + states.length );
+        }
+    }
+
+    /**
+     * Gets the state of a nucleotide.
+     *
+     * @param nucleotide The nucleotide
+     *
+     * @return Its position in PhylogeneticTreeIndividual.NUCLEOTIDES,
+     *         or -1 if it isn't a nucleotide
+     */
+    public static int encode( char nucleotide ) {
+        switch( nucleotide ) {
+        case 'A':
+            return 0;
+        case 'C':
+            return 1;
+        case 'G':
+            return 2;
+        case 'T':
+            return 3;
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * Makes sure that the states for the given dimensions can be
+     * held in a single buffer.
+     *
+     * @param numTaxa The number of taxa
+     * @param numPoints The number of points
+     *
+     * @return The number of states
+     *
+     * @exception IllegalArgumentException If there are too many
+     */
+    private static int checkSize( int numTaxa, int numPoints ) {
+        long retval = (long)numTaxa * numPoints;
+        if ( retval > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException( "Alignment too large: " + numTaxa +
+                                                " taxa by " + numPoints + " points" );
+        }
+        return (int)retval;
+    }
+
+    /**
+     * Gets the number of taxa in this store.
+     *
+     * @return The number of taxa
+     */
+    public int getNumTaxa() {
+        return names.length;
+    }
+
+    /**
+     * Gets the number of informative points of each taxa.
+     *
+     * @return The number of informative points
+     */
+    public int getNumPoints() {
+        return numPoints;
+    }
+
+    /**
+     * Gets the name of the given taxa.
+     *
+     * @param taxa The index of the taxa
+     *
+     * @return The name of the taxa
+     */
+    public String getName( int taxa ) {
+        return names[ taxa ];
+    }
+
+    /**
+     * Gets the state of the given taxa at the given point.
+     *
+     * @param taxa The index of the taxa
+     * @param point The informative point
+     *
+     * @return The position of the nucleotide in
+     *         PhylogeneticTreeIndividual.NUCLEOTIDES
+     */
+    public int getState( int taxa, int point ) {
+        return states.get( point * names.length + taxa );
+    }
+
+    /**
+     * Gets a leaf item for each taxa in this store, by index.
+     * These are templates; trees hold copies of them.
+     *
+     * @return The taxa in this store
+     */
+    public List< PhylogeneticTreeItem > getTaxa() {
+        return taxa;
+    }
+
+    /**
+     * Saves this store to a file, so it can later be mapped in.
+     *
+     * @param file The file to write to
+     *
+     * @exception IOException If an error occurred on writing
+     */
+    public void write( File file )
+        throws IOException {
+        DataOutputStream output =
+            new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) );
+
+        try {
+            output.writeInt( MAGIC );
+            output.writeInt( VERSION );
+            output.writeInt( names.length );
+            output.writeInt( numPoints );
+            for( String name : names ) {
+                byte[] bytes = name.getBytes( StandardCharsets.UTF_8 );
+                output.writeInt( bytes.length );
+                output.write( bytes );
+            }
+            for( int x = 0; x < names.length * numPoints; x++ ) {
+                output.writeByte( states.get( x ) );
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Determines if the given file holds a saved store.
+     *
+     * @param file The file to check
+     *
+     * @return true if the file starts with MAGIC, else false
+     *
+     * @exception IOException If an error occurred on reading
+     */
+    public static boolean isStoreFile( File file )
+        throws IOException {
+        DataInputStream input = new DataInputStream( new FileInputStream( file ) );
+
+        try {
+            return input.readInt() == MAGIC;
+        } catch ( EOFException e ) {
+            return false;
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Memory maps a saved store.  States are read from the file
+     * as they are needed, rather than being copied onto the heap.
+     *
+     * @param file The file holding the store
+     *
+     * @return The store
+     *
+     * @exception IOException If an error occurred on reading, or the
+     *            file isn't a store
+     */
+    public static MSAStore map( File file )
+        throws IOException {
+        FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ );
+
+        try {
+            ByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY,
+                                             0,
+                                             channel.size() );
+            String[] names;
+            int numPoints;
+            ByteBuffer states;
+
+            if ( buffer.remaining() < 16 || buffer.getInt() != MAGIC ) {
+                throw new IOException( file + " is not an MSA store" );
+            } else if ( buffer.getInt() != VERSION ) {
+                throw new IOException( file + " is from an unsupported version" );
+            }
+
+            names = new String[ buffer.getInt() ];
+            numPoints = buffer.getInt();
+            for( int x = 0; x < names.length; x++ ) {
+                byte[] bytes = new byte[ buffer.getInt() ];
+                buffer.get( bytes );
+                names[ x ] = new String( bytes, StandardCharsets.UTF_8 );
+            }
+
+            states = buffer.slice();
+            if ( states.remaining() != checkSize( names.length, numPoints ) ) {
+                throw new IOException( file + " is truncated" );
+            }
+
+            return new MSAStore( names, numPoints, states );
+        } catch ( RuntimeException e ) {
+            throw new IOException( file + " is malformed: " + e );
+        } finally {
+            // the mapping stays valid once the channel is closed
+            channel.close();
+        }
+    }
+
+    /**
+     * Preprocesses an alignment into a store file, for later mapping.
+     * Takes the alignment file and the store file to write.
+     */
+    public static void main( String[] args ) {
+        if ( args.length != 2 ) {
+            System.out.println( "Takes the following params:\n" +
+                                "msa file\n" +
+                                "store file to write\n" );
+            System.exit( 1 );
+        }
+        try {
+            MSAStore store =
+                PhylogeneticTreeIndividual.getTaxaFromFile( args[ 0 ] ).get( 0 ).getStore();
+            store.write( new File( args[ 1 ] ) );
+            System.out.println( "Taxa: " + store.getNumTaxa() );
+            System.out.println( "Informative points: " + store.getNumPoints() );
+        } catch ( Exception e ) {
+            e.printStackTrace();
+            System.err.println( e );
+            System.exit( 1 );
+        }
+    }
+}
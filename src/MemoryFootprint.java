@@ -0,0 +1,191 @@
+import java.util.*;
+import java.io.*;
+import java.nio.file.Files;
+
+/**
+ * Measures how much heap each kind of phylogenetic tree individual
+ * takes, for sizing populations.  A number of random individuals of
+ * each kind are made on an alignment from MSAGenerator and held on
+ * to, and the heap in use after garbage collection is compared with
+ * what it was before.  The alignment itself is read in beforehand,
+ * so it isn't counted; it is shared by every individual.
+ * <p>
+ * Individuals are normally made with their fitness already set, so
+ * their fitness isn't calculated.  If asked to evaluate them, each
+ * has its fitness calculated and waited for before measuring, which
+ * shows that no job is held on to after the calculation is done.
+ *
+ * @author Kyle Dewey
+ */
+public class MemoryFootprint {
+    // begin constants
+    public static final int DEFAULT_NUM_TAXA = 500;
+    public static final int DEFAULT_NUM_SITES = 1000;
+    public static final int DEFAULT_NUM_INDIVIDUALS = 2000;
+    public static final int NUM_COLLECTIONS = 5; // to let the heap settle
+    public static final long COLLECTION_PAUSE = 100; // ms between collections
+    public static final double MB = 1 << 20;
+    // end constants
+
+    /**
+     * Makes random individuals of one kind.
+     */
+    public static abstract class Maker {
+        private String name;
+
+        /**
+         * Creates a new maker.
+         *
+         * @param name The name of the kind of individual, as reported
+         */
+        public Maker( String name ) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the name of the kind of individual.
+         *
+         * @return The name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Makes a random individual.
+         *
+         * @param evaluate Whether its fitness should be calculated;
+         *        else it is set to 0
+         *
+         * @return The individual
+         */
+        public abstract Individual make( boolean evaluate );
+    }
+
+    /**
+     * Prints usage information.
+     */
+    public static void usage() {
+        System.out.println( "Takes the following optional params:\n" +
+                            "number of taxa (default " + DEFAULT_NUM_TAXA + ")\n" +
+                            "number of sites (default " + DEFAULT_NUM_SITES + ")\n" +
+                            "number of individuals of each kind (default " +
+                            DEFAULT_NUM_INDIVIDUALS + ")\n" +
+                            "whether to calculate their fitness (default false)\n" );
+    }
+
+    /**
+     * Gets the heap in use, once garbage collection has settled.
+     *
+     * @return The heap in use, in bytes
+     */
+    public static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for( int x = 0; x < NUM_COLLECTIONS; x++ ) {
+            System.gc();
+            try {
+                Thread.sleep( COLLECTION_PAUSE );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Makes the makers of each kind of individual.
+     *
+     * @param taxa The taxa of the alignment
+     *
+     * @return The makers
+     */
+    public static List< Maker > makeMakers( final List< PhylogeneticTreeItem > taxa ) {
+        final MSAStore store = taxa.get( 0 ).getStore();
+        List< Maker > retval = new ArrayList< Maker >();
+
+        retval.add( new Maker( "PhylogeneticTreeIndividual" ) {
+                public Individual make( boolean evaluate ) {
+                    Genotype genotype = new PhylogeneticTreeGenotype( taxa );
+                    return ( evaluate ) ? new PhylogeneticTreeIndividual( genotype ) :
+                        new PhylogeneticTreeIndividual( genotype, 0.0 );
+                }
+            } );
+        retval.add( new Maker( "CompactTreeIndividual" ) {
+                public Individual make( boolean evaluate ) {
+                    Genotype genotype = new CompactTreeGenotype( store );
+                    return ( evaluate ) ? new CompactTreeIndividual( genotype ) :
+                        new CompactTreeIndividual( genotype, 0.0 );
+                }
+            } );
+
+        return retval;
+    }
+
+    /**
+     * Measures the heap taken by individuals of one kind.
+     *
+     * @param maker Makes the individuals
+     * @param numIndividuals The number of individuals to make
+     * @param evaluate Whether to calculate their fitness
+     *
+     * @return The heap taken per individual, in bytes
+     */
+    public static double measure( Maker maker,
+                                  int numIndividuals,
+                                  boolean evaluate ) {
+        Individual[] individuals = new Individual[ numIndividuals ];
+        long before = getUsedHeap();
+
+        for( int x = 0; x < numIndividuals; x++ ) {
+            individuals[ x ] = maker.make( evaluate );
+        }
+        for( Individual individual : individuals ) {
+            individual.getFitness();
+        }
+        long after = getUsedHeap();
+        // keeps the individuals reachable until measured
+        if ( individuals[ numIndividuals - 1 ] == null ) {
+            throw new IllegalStateException();
+        }
+
+        return ( after - before ) / (double)numIndividuals;
+    }
+
+    public static void main( String[] args ) {
+        try {
+            int numTaxa = ( args.length > 0 ) ?
+                Integer.parseInt( args[ 0 ] ) : DEFAULT_NUM_TAXA;
+            int numSites = ( args.length > 1 ) ?
+                Integer.parseInt( args[ 1 ] ) : DEFAULT_NUM_SITES;
+            int numIndividuals = ( args.length > 2 ) ?
+                Integer.parseInt( args[ 2 ] ) : DEFAULT_NUM_INDIVIDUALS;
+            boolean evaluate = ( args.length > 3 ) && Boolean.parseBoolean( args[ 3 ] );
+            File directory = Files.createTempDirectory( "footprint" ).toFile();
+            directory.deleteOnExit();
+            File alignment = Benchmarks.makeAlignment( directory, numTaxa, numSites );
+            List< PhylogeneticTreeItem > taxa =
+                PhylogeneticTreeIndividual.getTaxaFromFile( alignment.getPath() );
+
+            System.out.printf( "%d taxa, %d informative points, %d individuals of each kind\n",
+                               numTaxa,
+                               taxa.get( 0 ).getStore().getNumPoints(),
+                               numIndividuals );
+            for( Maker maker : makeMakers( taxa ) ) {
+                double perIndividual = measure( maker, numIndividuals, evaluate );
+                System.out.printf( "%-28s %12.0f bytes/individual %10.1f MB per 100000\n",
+                                   maker.getName(),
+                                   perIndividual,
+                                   perIndividual * 100000 / MB );
+            }
+            Individual.cleanup();
+        } catch ( NumberFormatException e ) {
+            usage();
+            System.exit( 1 );
+        } catch ( Exception e ) {
+            System.err.println( e );
+            System.exit( 1 );
+        }
+    }
+}
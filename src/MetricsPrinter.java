@@ -0,0 +1,64 @@
+/**
+ * Has an environment print out how long each phase of a generation
+ * took, and how many offspring were made, evaluated, and thrown away,
+ * along with the best fitness.  At GA termination, prints out the
+ * totals over every generation, and the best individual.
+ *
+ * @author Kyle Dewey
+ */
+public class MetricsPrinter implements EnvironmentPrinter {
+    /**
+     * String that is printed out at the start of the GA.
+     *
+     * @param environment The environment
+     *
+     * @return A string that is to be printed out at the
+     *         start of the GA
+     */
+    public String printGAStart( Environment environment ) {
+        return "Generation metrics (times in ms):\n";
+    }
+
+    /**
+     * String that is printed out at the end of every generation.
+     * Nothing is printed for the starting population, which
+     * hasn't been through a generation.
+     *
+     * @param environment The environment to print
+     *
+     * @return A string to print out at the end of the
+     *         generation
+     */
+    public String printGAGeneration( Environment environment ) {
+        Population population = environment.getPopulation();
+
+        if ( population.getGenerationTime() == -1 ) {
+            return "";
+        }
+        return "Generation " +
+            Long.toString( population.getCurrentGeneration() ) +
+            ": best=" + Double.toString( population.getMaxFitness() ) +
+            " " + population.getMetrics().toString() + "\n";
+    }
+
+    /**
+     * String that is printed out at the end of the GA.
+     *
+     * @param environment The environment to print
+     *
+     * @return A string to print out at the end of the GA
+     */
+    public String printGAEnd( Environment environment ) {
+        StringBuilder retval = new StringBuilder( "Totals:\n" );
+
+        for( Environment island : environment.getIslands() ) {
+            retval.append( island.getPopulation().getTotalMetrics().toString() )
+                .append( "\n" );
+        }
+        retval.append( "Most fit individual:\n" )
+            .append( environment.getPopulation().getBestIndividual().toString() )
+            .append( "\n" );
+
+        return retval.toString();
+    }
+}
@@ -0,0 +1,21 @@
+import java.util.*;
+
+/**
+ * Defines which islands send migrants to which other islands
+ * in an island model GA.
+ *
+ * @author Kyle Dewey
+ */
+public interface MigrationTopology {
+    /**
+     * Gets the islands that the given island sends migrants to.
+     * Islands are numbered from 0 to numIslands - 1.
+     *
+     * @param source The island that migrants leave from
+     * @param numIslands The total number of islands
+     *
+     * @return The islands that migrants go to.  Never contains source.
+     */
+    public List< Integer > getDestinations( int source,
+                                            int numIslands );
+}
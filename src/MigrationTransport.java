@@ -0,0 +1,35 @@
+import java.util.*;
+
+/**
+ * Carries migrants between islands.  Islands are numbered
+ * globally, so they may live in other processes.  Neither
+ * sending nor receiving may block on the network; migrants that
+ * have not arrived yet are simply picked up at a later migration.
+ *
+ * @author Kyle Dewey
+ */
+public interface MigrationTransport {
+    /**
+     * Sends migrants to the given island.  Returns immediately.
+     *
+     * @param destination The island the migrants go to
+     * @param migrants The migrants
+     */
+    public void send( int destination, List< Individual > migrants );
+
+    /**
+     * Gets all the migrants that have arrived for the given island
+     * since the last call.  Returns immediately.
+     *
+     * @param island The island to get migrants for
+     *
+     * @return The migrants that have arrived; may be empty
+     */
+    public List< Individual > receive( int island );
+
+    /**
+     * Releases any resources held by the transport.
+     * To be called at GA end.
+     */
+    public void close();
+}
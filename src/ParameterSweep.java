@@ -0,0 +1,601 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+
+/**
+ * Runs many configurations of a GA in one JVM, for tuning parameters
+ * such as the crossover, mutation, and elitism rates.  Configurations
+ * running at once share a single FairEvaluator, which takes turns
+ * between them, and share the MSA cache, so alignments are read in
+ * once.  This is far cheaper than starting a JVM per configuration.
+ * <p>
+ * Configurations are described by a spec file.  Each line holds a
+ * keyword followed by its values; blank lines and lines starting
+ * with '#' are ignored:
+ * <pre>
+ * base &lt;RunGA parameters&gt;   parameters common to every configuration
+ * &lt;name&gt; v1 v2 ...         values to try for a parameter
+ * &lt;name&gt; range low high    a random value between low and high
+ * samples n                  number of random configurations
+ * seed n                     seed for picking random configurations
+ * parallel n                 configurations to run at once
+ * race generations keep      stop losing configurations early
+ * raceMinimum n              configurations needed at a rung to stop any
+ * </pre>
+ * Parameter names are crossover, mutation, elitism, population,
+ * parentSelection, survivalSelection, and terminator, for the
+ * required RunGA parameters, or the name of any RunGA option but
+ * those in RunGA.GLOBAL_OPTIONS, in either the base or a parameter
+ * line.  Those change state shared by every configuration: remote
+ * fitness workers would replace the shared evaluator, checkpoints
+ * save and restore the random number generators every configuration
+ * draws from, and JMX names could collide.
+ * Without any ranges or samples, every combination of values is
+ * run (a grid search).  Otherwise, samples configurations are run,
+ * each with a random value for every parameter (a random search).
+ * A range of two integers picks integers.
+ * <p>
+ * Racing stops configurations that are doing poorly, so their place
+ * among those running goes to the rest.  A configuration is only
+ * judged once a generation is done, so it never has fitness jobs
+ * waiting; it simply doesn't go on to its next generation.  It is
+ * asynchronous successive halving: the first rung is after the given
+ * number of generations, and each rung after that is 1/keep times
+ * further along.  When a configuration reaches a rung,
+ * its best fitness is compared with every configuration that reached
+ * the rung before it.  If at least raceMinimum have, and it isn't in
+ * the best keep of them, it is stopped.  Configurations that finish
+ * before the first rung aren't raced.
+ * <p>
+ * The summary file gets a line for each configuration as it
+ * finishes, separated by tabs: its index, the value of each
+ * parameter, how it ended, the best fitness, the number of
+ * generations, and how long it took in ms.
+ *
+ * @author Kyle Dewey
+ */
+public class ParameterSweep {
+    // begin constants
+    public static final String BASE = "base";
+    public static final String RANGE = "range";
+    public static final String SAMPLES = "samples";
+    public static final String SEED = "seed";
+    public static final String PARALLEL = "parallel";
+    public static final String RACE = "race";
+    public static final String RACE_MINIMUM = "raceMinimum";
+    public static final int DEFAULT_RACE_MINIMUM = 4;
+    public static final String COMMENT = "#";
+    public static final String[] REQUIRED_NAMES = { "crossover",
+                                                    "mutation",
+                                                    "elitism",
+                                                    "population",
+                                                    "parentSelection",
+                                                    "survivalSelection",
+                                                    "terminator" };
+    public static final String DONE = "done";
+    public static final String FAILED = "failed";
+    public static final String STOPPED = "stopped";
+    // end constants
+
+    // begin instance variables
+    private String[] base; // parameters common to every configuration
+    private LinkedHashMap< String, String[] > values; // values to try, by parameter
+    private LinkedHashMap< String, String[] > ranges; // low and high, by parameter
+    private int samples;
+    private long seed;
+    private int parallel;
+    private long raceGenerations; // until the first rung; 0 for no racing
+    private double raceKeep; // portion kept at each rung
+    private int raceMinimum;
+    private List< List< Double > > rungs; // best fitnesses seen at each rung
+    private boolean lowGood;
+    private List< Configuration > configurations;
+    private PrintStream summary;
+    // end instance variables
+
+    /**
+     * A single configuration of the GA, and how it went.
+     */
+    public static class Configuration {
+        public final int index;
+        public final Map< String, String > parameters; // by name
+        public final String[] args; // to RunGA
+        public volatile String state;
+        public volatile double bestFitness;
+        public volatile long generations;
+        public volatile long time; // in ms
+
+        public Configuration( int index,
+                              Map< String, String > parameters,
+                              String[] args ) {
+            this.index = index;
+            this.parameters = parameters;
+            this.args = args;
+            state = null;
+            bestFitness = Double.NaN;
+            generations = 0;
+            time = 0;
+        }
+    }
+
+    /**
+     * Races a configuration while it runs.
+     */
+    private class Racer implements EnvironmentListener {
+        private Configuration configuration;
+        private int rung; // the next rung
+        private long rungGeneration; // when the next rung is
+
+        public Racer( Configuration configuration ) {
+            this.configuration = configuration;
+            rung = 0;
+            rungGeneration = getRungGeneration( 0 );
+        }
+
+        public void gaStarted( Environment environment ) {}
+
+        public void generationDone( Environment environment ) {
+            long generation = environment.getCurrentGeneration();
+
+            while ( generation >= rungGeneration ) {
+                double best = environment.getPopulation().getMaxFitness();
+                if ( !promote( rung, best ) ) {
+                    configuration.bestFitness = best;
+                    configuration.generations = generation;
+                    configuration.state = STOPPED;
+                    environment.stop();
+                    return;
+                }
+                rung++;
+                rungGeneration = getRungGeneration( rung );
+            }
+        }
+
+        public void gaEnded( Environment environment ) {}
+    }
+
+    /**
+     * Prints usage information for the sweep.
+     */
+    public static void usage() {
+        System.out.println( "Takes the following params:\n" +
+                            "spec file\n" +
+                            "summary file\n" +
+                            "number of fitness threads (optional, default " +
+                            "number of processors)\n" );
+    }
+
+    /**
+     * Reads in a spec file.
+     *
+     * @param specFile The spec file
+     *
+     * @exception IOException If an error occurred on reading
+     * @exception ArgsException If the spec is malformed
+     */
+    public ParameterSweep( File specFile )
+        throws IOException, ArgsException {
+        BufferedReader input = new BufferedReader( new FileReader( specFile ) );
+        String line;
+
+        values = new LinkedHashMap< String, String[] >();
+        ranges = new LinkedHashMap< String, String[] >();
+        samples = 0;
+        seed = System.nanoTime();
+        parallel = Runtime.getRuntime().availableProcessors();
+        raceGenerations = 0;
+        raceKeep = 1.0;
+        raceMinimum = DEFAULT_RACE_MINIMUM;
+        rungs = new ArrayList< List< Double > >();
+
+        try {
+            while ( ( line = input.readLine() ) != null ) {
+                line = line.trim();
+                if ( line.equals( "" ) || line.startsWith( COMMENT ) ) {
+                    continue;
+                }
+                String[] split = line.split( "\\s+" );
+                String[] rest = Arrays.copyOfRange( split, 1, split.length );
+                readLine( split[ 0 ], rest );
+            }
+        } finally {
+            input.close();
+        }
+
+        if ( base == null ) {
+            throw new ArgsException( "Spec has no " + BASE + " line" );
+        } else if ( !ranges.isEmpty() && samples == 0 ) {
+            throw new ArgsException( "Ranges need " + SAMPLES );
+        }
+        lowGood = Boolean.parseBoolean( base[ 7 ] );
+        configurations = makeConfigurations();
+    }
+
+    /**
+     * Reads in a single line of the spec.
+     *
+     * @param keyword The first word of the line
+     * @param rest The rest of the line
+     *
+     * @exception ArgsException If the line is malformed
+     */
+    private void readLine( String keyword, String[] rest )
+        throws ArgsException {
+        if ( keyword.equals( BASE ) ) {
+            if ( rest.length < RunGA.NUM_REQUIRED_ARGS ) {
+                throw new ArgsException( BASE + " needs the RunGA parameters" );
+            }
+            base = rest;
+            RunGA.rejectGlobalOptions( base );
+        } else if ( keyword.equals( SAMPLES ) ) {
+            samples = RunGA.readPopulationSize( readSingle( keyword, rest ) );
+        } else if ( keyword.equals( SEED ) ) {
+            seed = Long.parseLong( readSingle( keyword, rest ) );
+        } else if ( keyword.equals( PARALLEL ) ) {
+            parallel = RunGA.readPopulationSize( readSingle( keyword, rest ) );
+        } else if ( keyword.equals( RACE ) ) {
+            if ( rest.length != 2 ) {
+                throw new ArgsException( RACE + " needs generations and the portion to keep" );
+            }
+            raceGenerations = RunGA.readNumGenerations( rest[ 0 ] );
+            raceKeep = RunGA.readDouble( rest[ 1 ] );
+            if ( raceGenerations == 0 || raceKeep == 0.0 || raceKeep == 1.0 ) {
+                throw new ArgsException( RACE + " needs generations > 0, and 0 < keep < 1" );
+            }
+        } else if ( keyword.equals( RACE_MINIMUM ) ) {
+            raceMinimum = RunGA.readPopulationSize( readSingle( keyword, rest ) );
+        } else {
+            if ( requiredIndex( keyword ) == -1 &&
+                 !Arrays.asList( RunGA.OPTIONS ).contains( keyword ) ) {
+                throw new ArgsException( "Unknown parameter: " + keyword );
+            } else if ( Arrays.asList( RunGA.GLOBAL_OPTIONS ).contains( keyword ) ) {
+                throw new ArgsException( "Sweeps may not use " + keyword );
+            } else if ( values.containsKey( keyword ) || ranges.containsKey( keyword ) ) {
+                throw new ArgsException( "Parameter given twice: " + keyword );
+            } else if ( rest.length == 0 ) {
+                throw new ArgsException( "No values for " + keyword );
+            }
+
+            if ( rest[ 0 ].equals( RANGE ) ) {
+                if ( rest.length != 3 ) {
+                    throw new ArgsException( RANGE + " needs a low and a high value" );
+                }
+                Double.parseDouble( rest[ 1 ] );
+                Double.parseDouble( rest[ 2 ] );
+                ranges.put( keyword, Arrays.copyOfRange( rest, 1, 3 ) );
+            } else {
+                values.put( keyword, rest );
+            }
+        }
+    }
+
+    /**
+     * Gets the only value on a line.
+     *
+     * @param keyword The first word of the line
+     * @param rest The rest of the line
+     *
+     * @return The value
+     *
+     * @exception ArgsException If there isn't exactly one value
+     */
+    private static String readSingle( String keyword, String[] rest )
+        throws ArgsException {
+        if ( rest.length != 1 ) {
+            throw new ArgsException( keyword + " takes a single value" );
+        }
+        return rest[ 0 ];
+    }
+
+    /**
+     * Gets the position of a required RunGA parameter.
+     *
+     * @param name The name of the parameter
+     *
+     * @return Its position, or -1 if it isn't a required parameter
+     */
+    public static int requiredIndex( String name ) {
+        return Arrays.asList( REQUIRED_NAMES ).indexOf( name );
+    }
+
+    /**
+     * Gets the RunGA parameters for a configuration.
+     *
+     * @param base Parameters common to every configuration
+     * @param parameters The value of each parameter, by name
+     *
+     * @return The RunGA parameters
+     */
+    public static String[] makeArgs( String[] base,
+                                     Map< String, String > parameters ) {
+        List< String > retval = new ArrayList< String >( Arrays.asList( base ) );
+
+        for( Map.Entry< String, String > entry : parameters.entrySet() ) {
+            int index = requiredIndex( entry.getKey() );
+            if ( index != -1 ) {
+                retval.set( index, entry.getValue() );
+            } else {
+                String prefix = entry.getKey() + RunGA.DELIM;
+                for( int x = retval.size() - 1; x >= RunGA.NUM_REQUIRED_ARGS; x-- ) {
+                    if ( retval.get( x ).startsWith( prefix ) ) {
+                        retval.remove( x );
+                    }
+                }
+                retval.add( prefix + entry.getValue() );
+            }
+        }
+
+        return retval.toArray( new String[ retval.size() ] );
+    }
+
+    /**
+     * Makes every configuration described by the spec.
+     *
+     * @return The configurations, in the order they are to be run
+     */
+    private List< Configuration > makeConfigurations() {
+        List< Map< String, String > > all = new ArrayList< Map< String, String > >();
+
+        if ( samples == 0 ) {
+            // grid: every combination of values
+            all.add( new LinkedHashMap< String, String >() );
+            for( Map.Entry< String, String[] > entry : values.entrySet() ) {
+                List< Map< String, String > > next = new ArrayList< Map< String, String > >();
+                for( Map< String, String > partial : all ) {
+                    for( String value : entry.getValue() ) {
+                        Map< String, String > current = new LinkedHashMap< String, String >( partial );
+                        current.put( entry.getKey(), value );
+                        next.add( current );
+                    }
+                }
+                all = next;
+            }
+        } else {
+            // random: a random value for every parameter
+            Random random = new Random( seed );
+            for( int x = 0; x < samples; x++ ) {
+                Map< String, String > current = new LinkedHashMap< String, String >();
+                for( Map.Entry< String, String[] > entry : values.entrySet() ) {
+                    String[] choices = entry.getValue();
+                    current.put( entry.getKey(), choices[ random.nextInt( choices.length ) ] );
+                }
+                for( Map.Entry< String, String[] > entry : ranges.entrySet() ) {
+                    current.put( entry.getKey(), pick( entry.getValue(), random ) );
+                }
+                all.add( current );
+            }
+        }
+
+        List< Configuration > retval = new ArrayList< Configuration >( all.size() );
+        for( Map< String, String > parameters : all ) {
+            retval.add( new Configuration( retval.size(),
+                                           parameters,
+                                           makeArgs( base, parameters ) ) );
+        }
+        return retval;
+    }
+
+    /**
+     * Picks a random value in a range.  If both ends of the
+     * range are integers, an integer is picked.
+     *
+     * @param range The low and high ends of the range
+     * @param random Where random numbers come from
+     *
+     * @return The value, as a string
+     */
+    private static String pick( String[] range, Random random ) {
+        try {
+            long low = Long.parseLong( range[ 0 ] );
+            long high = Long.parseLong( range[ 1 ] );
+            return Long.toString( low + (long)( random.nextDouble() * ( high - low + 1 ) ) );
+        } catch ( NumberFormatException e ) {
+            double low = Double.parseDouble( range[ 0 ] );
+            double high = Double.parseDouble( range[ 1 ] );
+            return Double.toString( low + random.nextDouble() * ( high - low ) );
+        }
+    }
+
+    /**
+     * Gets the generation a rung of the race is at.
+     *
+     * @param rung Which rung, starting at 0
+     *
+     * @return The generation of the rung
+     */
+    private long getRungGeneration( int rung ) {
+        long retval = raceGenerations;
+
+        for( int x = 0; x < rung; x++ ) {
+            retval = Math.max( retval + 1, Math.round( retval / raceKeep ) );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Records a configuration reaching a rung of the race, and
+     * decides whether it goes on.
+     *
+     * @param rung The rung reached
+     * @param fitness The best fitness of the configuration at the rung
+     *
+     * @return true if the configuration goes on, false if it is stopped
+     */
+    private synchronized boolean promote( int rung, double fitness ) {
+        while ( rungs.size() <= rung ) {
+            rungs.add( new ArrayList< Double >() );
+        }
+        List< Double > seen = rungs.get( rung );
+        int numBetter = 0;
+
+        for( double other : seen ) {
+            if ( ( lowGood && other < fitness ) ||
+                 ( !lowGood && other > fitness ) ) {
+                numBetter++;
+            }
+        }
+        seen.add( fitness );
+
+        return seen.size() < raceMinimum ||
+            numBetter < Math.ceil( raceKeep * seen.size() );
+    }
+
+    /**
+     * Gets the configurations described by the spec.
+     *
+     * @return The configurations
+     */
+    public List< Configuration > getConfigurations() {
+        return Collections.unmodifiableList( configurations );
+    }
+
+    /**
+     * Gets the names of the parameters that vary between
+     * configurations.
+     *
+     * @return The names of the parameters
+     */
+    public List< String > getParameterNames() {
+        List< String > retval = new ArrayList< String >( values.keySet() );
+        retval.addAll( ranges.keySet() );
+        return retval;
+    }
+
+    /**
+     * Runs a single configuration.  Called on a thread of the sweep.
+     *
+     * @param configuration The configuration to run
+     */
+    private void run( Configuration configuration ) {
+        long start = System.currentTimeMillis();
+
+        FairEvaluator.setOwner( configuration );
+        try {
+            RunGA ga = new RunGA( configuration.args );
+            Environment environment = ga.getEnvironment();
+            environment.setOutput( new PrintStream( OutputStream.nullOutputStream() ) );
+            if ( raceGenerations > 0 ) {
+                environment.addListener( new Racer( configuration ) );
+            }
+            ga.start();
+            if ( configuration.state != STOPPED ) {
+                configuration.bestFitness = environment.getPopulation().getMaxFitness();
+                configuration.generations = environment.getCurrentGeneration();
+                configuration.state = DONE;
+            }
+        } catch ( Exception e ) {
+            System.err.println( "Configuration " + configuration.index + ": " + e );
+            configuration.state = FAILED;
+        }
+        configuration.time = System.currentTimeMillis() - start;
+        FairEvaluator.setOwner( null );
+        record( configuration );
+    }
+
+    /**
+     * Writes the line of the summary for a finished configuration.
+     *
+     * @param configuration The configuration
+     */
+    private synchronized void record( Configuration configuration ) {
+        StringBuilder line = new StringBuilder();
+
+        line.append( configuration.index );
+        for( String name : getParameterNames() ) {
+            line.append( '\t' ).append( configuration.parameters.get( name ) );
+        }
+        line.append( '\t' ).append( configuration.state );
+        line.append( '\t' ).append( configuration.bestFitness );
+        line.append( '\t' ).append( configuration.generations );
+        line.append( '\t' ).append( configuration.time );
+        summary.println( line );
+        summary.flush();
+    }
+
+    /**
+     * Runs every configuration, writing a line of the summary
+     * as each finishes.  The fitness evaluator used by individuals
+     * must already be shared fairly, as with a FairEvaluator.
+     *
+     * @param summary Where the summary goes
+     *
+     * @exception InterruptedException If interrupted waiting for
+     *            configurations to finish
+     */
+    public void run( PrintStream summary )
+        throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool( parallel );
+        StringBuilder header = new StringBuilder( "index" );
+
+        for( String name : getParameterNames() ) {
+            header.append( '\t' ).append( name );
+        }
+        header.append( "\tstate\tbestFitness\tgenerations\tms" );
+        this.summary = summary;
+        summary.println( header );
+
+        for( final Configuration configuration : configurations ) {
+            pool.execute( new Runnable() {
+                    public void run() {
+                        ParameterSweep.this.run( configuration );
+                    }
+                } );
+        }
+        pool.shutdown();
+        pool.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Gets the finished configuration with the best fitness.
+     *
+     * @return The best configuration, or null if none finished
+     */
+    public Configuration getBest() {
+        Configuration retval = null;
+
+        for( Configuration configuration : configurations ) {
+            if ( configuration.state == DONE &&
+                 ( retval == null ||
+                   ( lowGood && configuration.bestFitness < retval.bestFitness ) ||
+                   ( !lowGood && configuration.bestFitness > retval.bestFitness ) ) ) {
+                retval = configuration;
+            }
+        }
+
+        return retval;
+    }
+
+    public static void main( String[] args ) {
+        if ( args.length < 2 || args.length > 3 ) {
+            usage();
+            System.exit( 1 );
+        }
+        try {
+            int numThreads = ( args.length > 2 ) ?
+                RunGA.readPopulationSize( args[ 2 ] ) :
+                Runtime.getRuntime().availableProcessors();
+            ParameterSweep sweep = new ParameterSweep( new File( args[ 0 ] ) );
+            PrintStream summary = new PrintStream( new FileOutputStream( args[ 1 ] ) );
+
+            Individual.getEvaluator().cleanup();
+            Individual.setEvaluator( new FairEvaluator( numThreads ) );
+            System.out.println( "Running " + sweep.getConfigurations().size() +
+                                " configurations" );
+            sweep.run( summary );
+            summary.close();
+            Individual.cleanup();
+
+            Configuration best = sweep.getBest();
+            if ( best != null ) {
+                System.out.println( "Best: configuration " + best.index + " " +
+                                    best.parameters + " with fitness " +
+                                    best.bestFitness );
+            }
+        } catch ( Exception e ) {
+            e.printStackTrace();
+            System.err.println( e );
+            System.exit( 1 );
+        }
+    }
+}
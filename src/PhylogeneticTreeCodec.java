@@ -0,0 +1,211 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * Encodes phylogenetic tree genotypes in binary.
+ * The tree is written in pre-order, one number per node:
+ * the index of the taxa for leaves, or INTERNAL_NODE for ancestors.
+ * Numbers are shorts unless there are too many taxa to fit.
+ * Both sides must have read in the same taxa, in the same order.
+ *
+ * @author Kyle Dewey
+ */
+public class PhylogeneticTreeCodec implements GenotypeCodec {
+    // begin constants
+    public static final int INTERNAL_NODE = -1;
+    // end constants
+
+    // begin instance variables
+    private List< PhylogeneticTreeItem > taxa; // taxa, by index
+    private Map< String, Integer > taxaIndices; // index of each taxa, by name
+    private boolean wide; // true if indices must be written as ints
+    // end instance variables
+
+    /**
+     * Creates a codec for trees built from the taxa in the given file.
+     *
+     * @param msaFile File containing a multiple sequence alignment
+     *
+     * @exception IOException If an error occurred on reading the file
+     */
+    public PhylogeneticTreeCodec( String msaFile ) 
+        throws IOException {
+        this( PhylogeneticTreeIndividual.getTaxaFromFile( msaFile ) );
+    }
+
+    /**
+     * Creates a codec for trees built from the given taxa.
+     *
+     * @param taxa The taxa that trees are built from
+     */
+    public PhylogeneticTreeCodec( List< PhylogeneticTreeItem > taxa ) {
+        this.taxa = new ArrayList< PhylogeneticTreeItem >( taxa );
+        taxaIndices = new HashMap< String, Integer >();
+        for( int x = 0; x < taxa.size(); x++ ) {
+            taxaIndices.put( taxa.get( x ).getName(), x );
+        }
+        wide = taxa.size() > Short.MAX_VALUE;
+    }
+
+    /**
+     * Writes out a phylogenetic tree genotype.
+     *
+     * @param genotype The genotype to write
+     * @param output Where to write it
+     *
+     * @exception IOException If an error occurred on writing
+     */
+    public void write( Genotype genotype, DataOutput output )
+        throws IOException {
+        BinaryTree< PhylogeneticTreeItem > tree;
+
+        tree = (BinaryTree< PhylogeneticTreeItem >)genotype.getPhenotype();
+        output.writeByte( genotype.getSource().ordinal() );
+        write( tree.getRoot(), output );
+    }
+
+    /**
+     * Writes out the subtree starting at the given node, in pre-order.
+     *
+     * @param node The node to start at
+     * @param output Where to write it
+     *
+     * @exception IOException If an error occurred on writing, or the
+     *            tree holds a taxa this codec doesn't know about
+     */
+    private void write( BinaryTreeNode< PhylogeneticTreeItem > node,
+                        DataOutput output ) 
+        throws IOException {
+        if ( node.isLeaf() ) {
+            Integer index = taxaIndices.get( node.getItem().getName() );
+            if ( index == null ) {
+                throw new IOException( "Unknown taxa: " + node.getItem().getName() );
+            }
+            writeIndex( index, output );
+        } else {
+            writeIndex( INTERNAL_NODE, output );
+            write( node.getLeft(), output );
+            write( node.getRight(), output );
+        }
+    }
+
+    /**
+     * Reads in a phylogenetic tree genotype.
+     *
+     * @param input Where to read from
+     *
+     * @return The genotype that was read in
+     *
+     * @exception IOException If an error occurred on reading, or the
+     *            data is malformed
+     */
+    public Genotype read( DataInput input ) 
+        throws IOException {
+        Genotype.Source[] sources = Genotype.Source.values();
+        int source = input.readUnsignedByte();
+        Genotype retval;
+
+        if ( source >= sources.length ) {
+            throw new IOException( "Unknown genotype source: " + source );
+        }
+        retval = new PhylogeneticTreeGenotype( new BinaryTree< PhylogeneticTreeItem >( readNode( input ) ) );
+        retval.setSource( sources[ source ] );
+
+        return retval;
+    }
+
+    /**
+     * Reads in a tree written in pre-order.  This is done with a
+     * stack rather than recursion so that a malformed tree can't
+     * overflow the call stack; the tree must hold each taxa exactly
+     * once, so it has at most 2 * taxa - 1 nodes.
+     *
+     * @param input Where to read from
+     *
+     * @return The root of the tree
+     *
+     * @exception IOException If an error occurred on reading, or the
+     *            data is malformed
+     */
+    private BinaryTreeNode< PhylogeneticTreeItem > readNode( DataInput input ) 
+        throws IOException {
+        boolean[] seen = new boolean[ taxa.size() ];
+        Deque< BinaryTreeNode< PhylogeneticTreeItem > > open; // internal nodes missing a child
+        BinaryTreeNode< PhylogeneticTreeItem > retval = null;
+        int internalLeft = taxa.size() - 1; // internal nodes yet to be read
+        int leaves = 0;
+
+        open = new ArrayDeque< BinaryTreeNode< PhylogeneticTreeItem > >();
+        do {
+            int index = readIndex( input );
+            BinaryTreeNode< PhylogeneticTreeItem > node;
+
+            if ( index == INTERNAL_NODE ) {
+                if ( internalLeft-- <= 0 ) {
+                    throw new IOException( "Too many internal nodes" );
+                }
+                node = new BinaryTreeNode< PhylogeneticTreeItem >( null,
+                                                                   null,
+                                                                   null,
+                                                                   new PhylogeneticTreeItem() );
+            } else if ( index >= 0 && index < taxa.size() && !seen[ index ] ) {
+                seen[ index ] = true;
+                leaves++;
+                node = new BinaryTreeNode< PhylogeneticTreeItem >( null,
+                                                                   null,
+                                                                   null,
+                                                                   new PhylogeneticTreeItem( taxa.get( index ) ) );
+            } else {
+                throw new IOException( "Unknown or repeated taxa index: " + index );
+            }
+
+            if ( retval == null ) {
+                retval = node;
+            } else if ( open.peek().getLeft() == null ) {
+                open.peek().setLeft( node );
+            } else {
+                open.pop().setRight( node );
+            }
+            if ( index == INTERNAL_NODE ) {
+                open.push( node );
+            }
+        } while ( !open.isEmpty() );
+
+        if ( leaves != taxa.size() ) {
+            throw new IOException( "Tree doesn't hold every taxa" );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Writes out the index of a node.
+     *
+     * @param index The index
+     * @param output Where to write it
+     *
+     * @exception IOException If an error occurred on writing
+     */
+    private void writeIndex( int index, DataOutput output ) 
+        throws IOException {
+        if ( wide ) {
+            output.writeInt( index );
+        } else {
+            output.writeShort( index );
+        }
+    }
+
+    /**
+     * Reads in the index of a node.
+     *
+     * @param input Where to read from
+     *
+     * @return The index
+     *
+     * @exception IOException If an error occurred on reading
+     */
+    private int readIndex( DataInput input ) 
+        throws IOException {
+        return ( wide ? input.readInt() : input.readShort() );
+    }
+}
@@ -22,6 +22,7 @@
  */
 
 import java.util.*;
+import java.io.IOException;
 
 /**
  * The genotype for a phylogenetic tree.
@@ -289,6 +290,17 @@ public class PhylogeneticTreeGenotype extends Genotype {
         return phenotype.toString();
     }
 
+    /**
+     * Writes out the tree, without building it up as a string.
+     *
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void write( Appendable out ) throws IOException {
+        phenotype.write( out );
+    }
+
     /**
      * Creates a deep copy of this phenotype's tree.
      * 
@@ -442,8 +454,10 @@ public class PhylogeneticTreeGenotype extends Genotype {
      * node, and everything else will be an internal node.
      *
      * @param taxa the list of taxa to use.  It will empty the list.
+     *        Synchronized, since the counts of remaining taxa and
+     *        ancestors are shared by every caller.
      */
-    public static BinaryTree< PhylogeneticTreeItem > createRandomTree( List< PhylogeneticTreeItem > taxa ) {
+    public static synchronized BinaryTree< PhylogeneticTreeItem > createRandomTree( List< PhylogeneticTreeItem > taxa ) {
         List< PhylogeneticTreeItem > copy;
         BinaryTreeNode< PhylogeneticTreeItem > root; // root of the tree
 
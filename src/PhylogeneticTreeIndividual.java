@@ -43,22 +43,20 @@ public class PhylogeneticTreeIndividual extends Individual {
     public static final String NUCLEOTIDES = "ACGT";
 
     // cache for msa files to taxa
-    public static final Map< String, List< PhylogeneticTreeItem > > cache =
-	new HashMap< String, List< PhylogeneticTreeItem > >();
+    public static final MSACache cache = new MSACache();
     // end constants
 
     /**
      * Given a filename, it will get the taxa in the file.
+     * The file may either be an alignment in any format ReadAnyMSA
+     * understands, or a store saved by MSAStore, which is memory mapped.
      * If the file has already been read in, it will use the cached value.
+     * Safe to call from many threads at once.
      * @param msaFile The msa file name
      * @return The taxa associated with the file
      */
     public static List< PhylogeneticTreeItem > getTaxaFromFile( String msaFile ) 
 	throws FileNotFoundException, IOException {
-	if ( !cache.containsKey( msaFile ) ) {
-	    cache.put( msaFile,
-		       new ReadClustalWMSA().readMSAFile( new File( msaFile ) ) );
-	}
 	return cache.get( msaFile );
     }
 	    
@@ -91,6 +89,16 @@ public class PhylogeneticTreeIndividual extends Individual {
         super( phenotype );
     }
 
+    /**
+     * Creates a new individual whose fitness is already known.
+     *
+     * @param phenotype The phenotype to use
+     * @param fitness The fitness of the phenotype
+     */
+    public PhylogeneticTreeIndividual( Genotype phenotype, double fitness ) {
+        super( phenotype, fitness );
+    }
+
     /**
      * Gets the cost of substituting onf nucleotide with another.
      * To be used in the Sankoff algorithm.
@@ -163,15 +171,13 @@ public class PhylogeneticTreeIndividual extends Individual {
      * the given nucleotide in mind.
      *
      * @param leaf The leaf node to calculate
-     * @param nuc The nucleotide at this node
+     * @param nucPos Position of the nucleotide at this node in NUCLEOTIDES
      */
     private void calculateSankoffLeaf( BinaryTreeNode< PhylogeneticTreeItem > node,
-                                       char nucleotide ) {
+                                       int nucPos ) {
         double[] sankoff;
-        int nucPos; // position of nucleotide in the array
         
         sankoff = node.getItem().getSankoff();
-        nucPos = NUCLEOTIDES.indexOf( nucleotide );
         for( int x = 0; x < sankoff.length; x++ ) {
             double sankoffValue = Double.POSITIVE_INFINITY;
 
@@ -244,11 +250,8 @@ public class PhylogeneticTreeIndividual extends Individual {
 
             item = current.getItem();
             if ( item.isTaxa() ) {
-                char nucleotide; // nucleotide at this position
-
-                nucleotide = item.getInformativePoints().charAt( point );
                 calculateSankoffLeaf( current,
-                                      nucleotide );
+                                      item.getState( point ) );
             } else {
                 calculateSankoffInternalNode( current );
             }
@@ -274,23 +277,22 @@ public class PhylogeneticTreeIndividual extends Individual {
      */
     protected double calculateFitness() {
         BinaryTree< PhylogeneticTreeItem > tree; // the underying tree
-        String informative = null; // parsimony informative points
+        int numPoints = 0; // number of parsimony informative points
         double retval = 0.0; // what will be returned
 
-        // get the informative points of any taxa
-        // note that all taxa have the same number of points;
-        // this is needed only for the length
+        // get the number of informative points from any taxa
+        // note that all taxa share the same store
         // also note that iteration is post-order, so the first node
         // seen is guarenteed an leaf
         tree = getTree();
         for( BinaryTreeNode< PhylogeneticTreeItem > current : tree ) {
-            informative = current.getItem().getInformativePoints();
+            numPoints = current.getItem().getStore().getNumPoints();
             break;
         }
 
         // now get the value of sankoff for each point
         clearSankoff();
-        for( int point = 0; point < informative.length(); point++ ) {
+        for( int point = 0; point < numPoints; point++ ) {
             retval += getSankoffPoint( point );
         }
 
@@ -33,33 +33,36 @@ public class PhylogeneticTreeItem
     private String name; // the name of this species
     private double[] sankoff; // information for the sankoff algorithm
     private boolean isAncestor; // if this node is an ancestor node
-    private String informativePoints; // points informative to parsimony
+    private MSAStore store; // holds points informative to parsimony
+    private int taxaIndex; // index of this taxa in the store
     // end instance variables
 
     /**
-     * Creates a new PhylogeneticTreeItem, with the given name.
-     * This is intended to be a leaf node.
+     * Creates a new PhylogeneticTreeItem for the given taxa
+     * in a store.  This is intended to be a leaf node.
      *
-     * @param name The name to use
-     * @param informativePoints Points informative to parsimony
+     * @param store The store holding the taxa's informative points
+     * @param taxaIndex The index of the taxa in the store
      */
-    public PhylogeneticTreeItem( String name, String informativePoints ) {
-        this.name = name;
-        this.informativePoints = informativePoints;
+    public PhylogeneticTreeItem( MSAStore store, int taxaIndex ) {
+        this.name = store.getName( taxaIndex );
+        this.store = store;
+        this.taxaIndex = taxaIndex;
         sankoff = new double[ NUM_NUCLEOTIDES ];
         isAncestor = false;
     }
 
     /**
      * Creates a new PhylogeneticTreeItem, based on another.
-     * The name and informative points are shallow copied over;
+     * The name and store are shallow copied over;
      * everything else is generated anew.
      *
      * @param other The other PhylogeneticTreeItem to base this on
      */
     public PhylogeneticTreeItem( PhylogeneticTreeItem other ) {
         this.name = other.getName();
-        this.informativePoints = other.getInformativePoints();
+        this.store = other.getStore();
+        this.taxaIndex = other.getTaxaIndex();
         sankoff = new double[ NUM_NUCLEOTIDES ];
         isAncestor = other.isAncestor();
     }
@@ -70,7 +73,8 @@ public class PhylogeneticTreeItem
      */
     public PhylogeneticTreeItem() {
         name = null;
-        informativePoints = null;
+        store = null;
+        taxaIndex = -1;
         sankoff = new double[ NUM_NUCLEOTIDES ];
         isAncestor = true;
     }
@@ -94,12 +98,33 @@ public class PhylogeneticTreeItem
     }
 
     /**
-     * Gets the points that are informative to parsimony.
+     * Gets the store holding this taxa's informative points.
      *
-     * @return The informative points to parsimony
+     * @return The store, or null for an ancestor node
      */
-    public String getInformativePoints() {
-        return informativePoints;
+    public MSAStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the index of this taxa in its store.
+     *
+     * @return The index of this taxa, or -1 for an ancestor node
+     */
+    public int getTaxaIndex() {
+        return taxaIndex;
+    }
+
+    /**
+     * Gets the nucleotide of this taxa at the given informative point.
+     *
+     * @param point The informative point
+     *
+     * @return The position of the nucleotide in
+     *         PhylogeneticTreeIndividual.NUCLEOTIDES
+     */
+    public int getState( int point ) {
+        return store.getState( taxaIndex, point );
     }
 
     /**
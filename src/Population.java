@@ -44,6 +44,8 @@
  */
 
 import java.util.*; // for lists
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Holds a collection of individuals.
@@ -56,19 +58,19 @@ import java.util.*; // for lists
  */
 public class Population< T extends Individual > {
     // begin constants
-    protected static final Random random = new Random();
+    protected static final RestorableRandom random = new RestorableRandom();
     // end constants
 
     // begin instance variables
-    private long whenCalculated; // when average, min, max were calculated
-    private double minFitness; // min fitness in the population
-    private double maxFitness; // max fitness in the population
-    private double avgFitness; // average fitness in the population
+    private FitnessStats stats; // of the fitness column
 
     private long startTime; // when the generation started
     private long endTime; // when the generation finished
 
     private List< T > population; // the individuals in the population
+    private double[] fitnessColumn; // fitness of each individual, in order
+    private long[] idColumn; // ID of each individual, in order
+    private int numFilled; // individuals in the columns and stats so far
     private Selection< T > parentSelection; // parent selection mechanism
     private Selection< T > survivalSelection; // survival selection mechanism
     private double mutationRate; // rate of mutation, between 0-1
@@ -76,6 +78,8 @@ public class Population< T extends Individual > {
     private double elitism; // parent elitism, between 0-1
     private int maxPopulationSize;
     private long currentGeneration; // which generation we are on
+    private GenerationMetrics metrics; // of the last generation
+    private GenerationMetrics totalMetrics; // of every generation so far
     // end instance variables
 
     /**
@@ -102,10 +106,12 @@ public class Population< T extends Individual > {
         this.parentSelection = parentSelection;
         this.survivalSelection = survivalSelection;
         currentGeneration = 0;
-        whenCalculated = -1;
+        metrics = new GenerationMetrics();
+        totalMetrics = new GenerationMetrics();
         startTime = -1;
         endTime = -1;
         population = new ArrayList< T >();
+        clearColumns();
     }
 
     /**
@@ -138,6 +144,141 @@ public class Population< T extends Individual > {
         population.add( individual );
     }
 
+    /**
+     * Empties the fitness and ID columns and their statistics,
+     * for when the individuals are replaced.  New arrays are made,
+     * so statistics already handed out are unaffected.
+     */
+    private void clearColumns() {
+        fitnessColumn = new double[ 0 ];
+        idColumn = new long[ 0 ];
+        numFilled = 0;
+        stats = new FitnessStats( isLowGood() );
+    }
+
+    /**
+     * Brings the fitness and ID columns, and their statistics, up
+     * to date with individuals added since they were last filled.
+     * Only the new individuals are looked at.  Waits for any fitness
+     * still being calculated.
+     */
+    private void fillColumns() {
+        int size = population.size();
+
+        if ( numFilled < size ) {
+            double[] fitnesses = Arrays.copyOf( fitnessColumn, size );
+            long[] ids = Arrays.copyOf( idColumn, size );
+            for( int x = numFilled; x < size; x++ ) {
+                T current = population.get( x );
+                fitnesses[ x ] = current.getFitness();
+                ids[ x ] = current.getId();
+            }
+            fitnessColumn = fitnesses;
+            idColumn = ids;
+            numFilled = size;
+            stats.addAll( fitnessColumn );
+        }
+    }
+
+    /**
+     * Gets statistics of the fitness of the population.
+     * Waits for any fitness still being calculated.
+     *
+     * @return The statistics; they are not changed by the
+     *         individuals being replaced, but do take in
+     *         individuals added with addIndividual
+     */
+    public FitnessStats getStats() {
+        fillColumns();
+        return stats;
+    }
+
+    /**
+     * Gets the fitness of each individual, in the same order as
+     * getIndividuals().  Statistics and selection read fitness from
+     * here, rather than from each individual in turn.  Waits for
+     * any fitness still being calculated.
+     *
+     * @return The fitness column; must not be modified, and is
+     *         only good until the population next changes
+     */
+    public double[] getFitnessColumn() {
+        fillColumns();
+        return fitnessColumn;
+    }
+
+    /**
+     * Gets the ID of each individual, in the same order as
+     * getIndividuals().
+     *
+     * @return The ID column; must not be modified, and is
+     *         only good until the population next changes
+     */
+    public long[] getIdColumn() {
+        fillColumns();
+        return idColumn;
+    }
+
+    /**
+     * Gets the individuals currently in the population.
+     *
+     * @return An unmodifiable view of the individuals in the population
+     */
+    public List< T > getIndividuals() {
+        return Collections.unmodifiableList( population );
+    }
+
+    /**
+     * Gets whether or not low fitness values are better than
+     * high ones for this population.
+     *
+     * @return true if low fitness is good, else false
+     */
+    public boolean isLowGood() {
+        return false;
+    }
+
+    /**
+     * Chooses individuals to send off to another population.
+     * The chosen individuals are not removed from this population.
+     *
+     * @param selection The selection mechanism used to pick migrants
+     * @param numMigrants The number of migrants to pick
+     *
+     * @return The individuals that are to migrate
+     */
+    public List< T > selectMigrants( Selection< T > selection,
+                                     int numMigrants ) {
+        return selection.performSelection( population,
+                                           getFitnessColumn(),
+                                           numMigrants );
+    }
+
+    /**
+     * Brings in individuals from another population.
+     * The migrants compete with the current individuals under
+     * the survival selection mechanism, so the population does
+     * not grow past its maximum size.
+     *
+     * @param migrants The individuals moving into this population
+     */
+    public void acceptMigrants( List< T > migrants ) {
+        List< T > pool; // current individuals plus migrants
+        double[] fitnesses; // of the pool
+
+        pool = new ArrayList< T >( population.size() + migrants.size() );
+        pool.addAll( population );
+        pool.addAll( migrants );
+        fitnesses = Arrays.copyOf( getFitnessColumn(), pool.size() );
+        for( int x = population.size(); x < pool.size(); x++ ) {
+            fitnesses[ x ] = pool.get( x ).getFitness();
+        }
+        population = survivalSelection.performSelection( pool,
+                                                         fitnesses,
+                                                         maxPopulationSize );
+        clearColumns();
+    }
+
     /**
      * Gets the current generation of the population.
      *
@@ -147,6 +288,55 @@ public class Population< T extends Individual > {
         return currentGeneration;
     }
 
+    /**
+     * Sets the current generation of the population.
+     * Intended for resuming from a checkpoint.
+     *
+     * @param currentGeneration The current generation
+     */
+    public void setCurrentGeneration( long currentGeneration ) {
+        this.currentGeneration = currentGeneration;
+    }
+
+    /**
+     * Gets the number of offspring made by crossover and mutation
+     * so far, each of which has its fitness calculated.  The
+     * individuals the population started with aren't counted.
+     *
+     * @return The number of fitness evaluations of offspring
+     */
+    public long getNumEvaluations() {
+        return totalMetrics.getNumEvaluations();
+    }
+
+    /**
+     * Gets the phase times and counts of the last generation.
+     *
+     * @return A copy of the metrics; all zero if there hasn't
+     *         been a generation
+     */
+    public GenerationMetrics getMetrics() {
+        return new GenerationMetrics( metrics );
+    }
+
+    /**
+     * Gets the phase times and counts of every generation so far.
+     *
+     * @return A copy of the totals
+     */
+    public GenerationMetrics getTotalMetrics() {
+        return new GenerationMetrics( totalMetrics );
+    }
+
+    /**
+     * Gets how long the last generation took.
+     *
+     * @return The time in ms; -1 if there hasn't been a generation
+     */
+    public long getGenerationTime() {
+        return ( startTime == -1 || endTime == -1 ) ? -1 : endTime - startTime;
+    }
+
     /**
      * Does all the operations involved in the crossover phase.
      *
@@ -214,35 +404,137 @@ public class Population< T extends Individual > {
         List< T > parentPool; // pool where parents go
         List< T > newPool; // where newly created individuals go
         List< T > finalPool; // the pool that will become the population pool
-
+        GenerationMetrics current = new GenerationMetrics();
+        long numCrossovers = 0;
+        long numMutations = 0;
+        int numOffspring;
+        double[] fitnesses; // of the pool being selected from
+        long phaseStart;
+        GenerationEvent event = new GenerationEvent(); // for the flight recorder
+
+        event.begin();
         startTime = System.currentTimeMillis();
         // prep the pools
         newPool = new ArrayList< T >();
 
         // get the parents ready
+        phaseStart = System.nanoTime();
+        fitnesses = getFitnessColumn();
+        phaseStart = endPhase( current, GenerationMetrics.Phase.FITNESS_WAIT, phaseStart );
         parentPool = parentSelection.performSelection( originalPool,
+                                                       fitnesses,
                                                        (int)( crossoverRate * originalPool.size() ) );
+        phaseStart = endPhase( current, GenerationMetrics.Phase.PARENT_SELECTION, phaseStart );
+
         // do the crossovers and mutations
         // note that for most cases, we will have too many
         // offspring.  However, with lots of parameter tweaking,
         // we can have too few
         while( newPool.size() < maxPopulationSize ) {
-            newPool.addAll( doCrossover( parentPool ) );
-            newPool.addAll( doMutation( originalPool ) );
+            List< T > children = doCrossover( parentPool );
+            newPool.addAll( children );
+            numCrossovers += children.size();
+            phaseStart = endPhase( current, GenerationMetrics.Phase.CROSSOVER, phaseStart );
+
+            children = doMutation( originalPool );
+            newPool.addAll( children );
+            numMutations += children.size();
+            phaseStart = endPhase( current, GenerationMetrics.Phase.MUTATION, phaseStart );
         }
+        numOffspring = newPool.size();
 
         // transfer some of the parents over to the new pool
         newPool.addAll( parentSelection.performSelection( parentPool,
                                                           (int)( elitism * parentPool.size() ) ) );
+        phaseStart = endPhase( current, GenerationMetrics.Phase.ELITISM, phaseStart );
+
+        fitnesses = Selection.getFitnesses( newPool );
+        phaseStart = endPhase( current, GenerationMetrics.Phase.FITNESS_WAIT, phaseStart );
 
         // now reduce the size of the pool down to
         // the maximum population size
         finalPool = survivalSelection.performSelection( newPool,
+                                                        fitnesses,
                                                         maxPopulationSize );
+        endPhase( current, GenerationMetrics.Phase.SURVIVAL_SELECTION, phaseStart );
         population = finalPool;
-
+        clearColumns();
+
+        current.addCounts( numCrossovers,
+                           numMutations,
+                           numOffspring,
+                           countDiscarded( newPool, numOffspring, finalPool ) );
+        metrics = current;
+        totalMetrics.add( current );
         currentGeneration++;
         endTime = System.currentTimeMillis();
+        event.end();
+        if ( event.shouldCommit() ) {
+            commitEvent( event );
+        }
+    }
+
+    /**
+     * Fills in a flight recorder event for the generation just
+     * done, and records it.
+     *
+     * @param event The event, already ended
+     */
+    private void commitEvent( GenerationEvent event ) {
+        FitnessStats stats = getStats();
+
+        event.generation = currentGeneration;
+        event.populationSize = population.size();
+        event.bestFitness = stats.getBest();
+        event.meanFitness = stats.getMean();
+        event.worstFitness = stats.getWorst();
+        event.offspring = metrics.getNumOffspring();
+        event.discarded = metrics.getNumDiscarded();
+        event.fitnessWait = metrics.getTime( GenerationMetrics.Phase.FITNESS_WAIT );
+        event.commit();
+    }
+
+    /**
+     * Adds the time since a phase started to the metrics.
+     *
+     * @param metrics The metrics to add to
+     * @param phase The phase that ended
+     * @param phaseStart When the phase started, from System.nanoTime()
+     *
+     * @return When the phase ended, which is when the next starts
+     */
+    private static long endPhase( GenerationMetrics metrics,
+                                  GenerationMetrics.Phase phase,
+                                  long phaseStart ) {
+        long retval = System.nanoTime();
+
+        metrics.addTime( phase, retval - phaseStart );
+        return retval;
+    }
+
+    /**
+     * Counts the offspring that didn't survive selection.
+     *
+     * @param pool The pool selected from, with the offspring first
+     * @param numOffspring How many of the pool are offspring
+     * @param survivors The individuals selected
+     *
+     * @return The number of offspring not among the survivors
+     */
+    private static < T > long countDiscarded( List< T > pool,
+                                              int numOffspring,
+                                              List< T > survivors ) {
+        Set< T > surviving = Collections.newSetFromMap( new IdentityHashMap< T, Boolean >() );
+        long retval = 0;
+
+        surviving.addAll( survivors );
+        for( int x = 0; x < numOffspring; x++ ) {
+            if ( !surviving.contains( pool.get( x ) ) ) {
+                retval++;
+            }
+        }
+
+        return retval;
     }
 
     /**
@@ -256,46 +548,33 @@ public class Population< T extends Individual > {
     }
 
     /**
-     * Traverses over the population looking at fitness.
-     * Gets the index of an individual matching criteria.
+     * Gets the index of an individual with the highest or
+     * lowest fitness value, regardless of which is better.
      * @param max Whether or not to get the max.  If false, then min.
      * @return The index of the individual
      */
     protected int getIndividualMaxMinFitness( boolean max ) {
-	int retval = 0;
-	int size = population.size();
-	double fitness = population.get( 0 ).getFitness();
-
-	for( int x = 1; x < size; x++ ) {
-	    double currentFitness = population.get( x ).getFitness();
-	    if ( ( max && currentFitness > fitness ) ||
-		 ( !max && currentFitness < fitness ) ) {
-		fitness = currentFitness;
-		retval = x;
-	    }
-	}
-
-	return retval;
+	return ( max ) ? getStats().getMaxIndex() : getStats().getMinIndex();
     }
 		
     /**
-     * Gets the index of the individual with the maximum
+     * Gets the index of the individual with the best
      * fitness in the population.
      *
      * @return The index of the individual with maximal fitness
      */
     protected int getIndividualMaxFitness() {
-        return getIndividualMaxMinFitness( true );
+        return getStats().getBestIndex();
     }
 
     /**
-     * Gets the index of the individual with the minimal
+     * Gets the index of the individual with the worst
      * fitness in the population.
      *
      * @return The index of the individual with minimal fitness
      */
     protected int getIndividualMinFitness() {
-	return getIndividualMaxMinFitness( false );
+	return getStats().getWorstIndex();
     }
 
     /**
@@ -317,35 +596,23 @@ public class Population< T extends Individual > {
     }
 
     /**
-     * Sets the internal min, average, and max fitness values.
-     */
-    private void doStats() {
-        if ( whenCalculated != currentGeneration ) {
-            maxFitness = population.get( getIndividualMaxFitness() ).getFitness();
-            minFitness = population.get( getIndividualMinFitness() ).getFitness();
-            avgFitness = averageFitness( population );
-            whenCalculated = currentGeneration;
-        }
-    }
-
-    /**
-     * Gets the maximal fitness of the population.
+     * Gets the maximal fitness of the population.  This is the
+     * best fitness, so if low fitness is good it is the lowest.
      *
      * @return The maximal fitness of the population.
      */
     public double getMaxFitness() {
-        doStats();
-        return maxFitness;
+        return getStats().getBest();
     }
 
     /**
-     * Gets the minimal fitness of the population.
+     * Gets the minimal fitness of the population.  This is the
+     * worst fitness, so if low fitness is good it is the highest.
      *
      * @return the minimal fitness of the population.
      */
     public double getMinFitness() {
-        doStats();
-        return minFitness;
+        return getStats().getWorst();
     }
 
     /**
@@ -354,8 +621,7 @@ public class Population< T extends Individual > {
      * @return The average fitness of the population
      */
     public double getAverageFitness() {
-        doStats();
-        return avgFitness;
+        return getStats().getMean();
     }
 
     /**
@@ -369,25 +635,45 @@ public class Population< T extends Individual > {
      * @return A string in the above format
      */
     public String toString() {
-        String retval = ""; // what will be returned
+        StringBuilder retval = new StringBuilder(); // what will be returned
+
+        try {
+            write( retval );
+        } catch ( IOException e ) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException( e );
+        }
+
+        return retval.toString();
+    }
 
+    /**
+     * Writes out this population in the same format as toString(),
+     * one individual at a time, so that the time taken grows only
+     * with the size of the population.
+     *
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void write( Appendable out ) throws IOException {
         if ( startTime != -1 &&
              endTime != -1 ) {
-            retval += "Generation #" + Long.toString( currentGeneration - 1 ) +
-                " runtime(ms): " + Long.toString( endTime - startTime ) + "\n";
+            out.append( "Generation #" ).append( Long.toString( currentGeneration - 1 ) )
+                .append( " runtime(ms): " ).append( Long.toString( endTime - startTime ) )
+                .append( "\n" );
         }
 
-        retval += "Generation #: " + Long.toString( currentGeneration ) + "\n" +
-            "Min fitness: " + Double.toString( getMinFitness() ) + "\n" +
-            "Avg fitness: " + Double.toString( getAverageFitness() ) + "\n" +
-            "Max fitness: " + Double.toString( getMaxFitness() ) + "\n" + 
-            "Individuals (" + Long.toString( population.size() ) + " total):\n";
+        out.append( "Generation #: " ).append( Long.toString( currentGeneration ) ).append( "\n" )
+            .append( "Min fitness: " ).append( Double.toString( getMinFitness() ) ).append( "\n" )
+            .append( "Avg fitness: " ).append( Double.toString( getAverageFitness() ) ).append( "\n" )
+            .append( "Max fitness: " ).append( Double.toString( getMaxFitness() ) ).append( "\n" )
+            .append( "Individuals (" ).append( Long.toString( population.size() ) )
+            .append( " total):\n" );
 
         for( T current : population ) {
-            retval += current.toString();
+            current.write( out );
         }
-
-        return retval;
     }
 
     /**
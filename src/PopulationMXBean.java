@@ -0,0 +1,79 @@
+/**
+ * What the population of an island shows over JMX.  The values are
+ * those at the end of the island's last generation, so reading them
+ * never waits on, or gets in the way of, the GA.
+ *
+ * @author Kyle Dewey
+ */
+public interface PopulationMXBean {
+    /**
+     * Gets the generation the population is on.
+     *
+     * @return The current generation
+     */
+    public long getCurrentGeneration();
+
+    /**
+     * Gets the number of individuals in the population.
+     *
+     * @return The size of the population
+     */
+    public int getPopulationSize();
+
+    /**
+     * Gets the best fitness in the population.
+     *
+     * @return The best fitness
+     */
+    public double getBestFitness();
+
+    /**
+     * Gets the mean fitness of the population.
+     *
+     * @return The mean fitness
+     */
+    public double getMeanFitness();
+
+    /**
+     * Gets the worst fitness in the population.
+     *
+     * @return The worst fitness
+     */
+    public double getWorstFitness();
+
+    /**
+     * Gets the standard deviation of the fitness of the population.
+     *
+     * @return The standard deviation
+     */
+    public double getFitnessStandardDeviation();
+
+    /**
+     * Gets the number of offspring evaluated so far.
+     *
+     * @return The number of evaluations
+     */
+    public long getTotalEvaluations();
+
+    /**
+     * Gets how many offspring were evaluated per second over the
+     * last generation, including the time between generations.
+     *
+     * @return The rate of evaluations
+     */
+    public double getEvaluationsPerSecond();
+
+    /**
+     * Gets how long the last generation took.
+     *
+     * @return The time in ms; -1 if there hasn't been a generation
+     */
+    public long getLastGenerationMs();
+
+    /**
+     * Gets how long the last generation waited for fitness.
+     *
+     * @return The time in ms
+     */
+    public double getLastFitnessWaitMs();
+}
@@ -0,0 +1,37 @@
+import java.util.*;
+
+/**
+ * Each time migration occurs, every island sends migrants to
+ * a single other island chosen at random.
+ *
+ * @author Kyle Dewey
+ */
+public class RandomTopology implements MigrationTopology {
+    // begin constants
+    protected static final RestorableRandom random = new RestorableRandom();
+    // end constants
+
+    /**
+     * Gets a random island other than the given one.
+     *
+     * @param source The island that migrants leave from
+     * @param numIslands The total number of islands
+     *
+     * @return A random island that isn't source, or nothing if
+     *         there is only one island
+     */
+    public List< Integer > getDestinations( int source,
+                                            int numIslands ) {
+        List< Integer > retval = new ArrayList< Integer >( 1 );
+
+        if ( numIslands > 1 ) {
+            int destination = random.nextInt( numIslands - 1 );
+            if ( destination >= source ) {
+                destination++;
+            }
+            retval.add( destination );
+        }
+
+        return retval;
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * Reads in an MSA file of any of the supported formats.  The format
+ * is picked by looking at the first line that isn't blank:
+ * ClustalW starts with CLUSTAL, FASTA with a '>', NEXUS with
+ * #NEXUS, and PHYLIP with the number of taxa and points.
+ *
+ * @author Kyle Dewey
+ */
+public class ReadAnyMSA implements ReadMSA {
+    /**
+     * Gets the reader for the format of the given file.
+     *
+     * @param file The file
+     *
+     * @return A reader that understands the file's format
+     *
+     * @exception IOException If the file couldn't be read, or its
+     *            format isn't known
+     */
+    public static ReadMSA getReader( File file )
+        throws IOException {
+        BufferedReader input = Alignment.open( file );
+        String line;
+
+        try {
+            do {
+                line = input.readLine();
+            } while ( line != null && line.trim().equals( "" ) );
+        } finally {
+            input.close();
+        }
+
+        if ( line == null ) {
+            throw new IOException( "Empty file: " + file );
+        }
+        line = line.trim();
+        if ( line.startsWith( ReadClustalWMSA.FILE_HEADER ) ) {
+            return new ReadClustalWMSA();
+        } else if ( line.startsWith( ReadFastaMSA.FILE_HEADER ) ) {
+            return new ReadFastaMSA();
+        } else if ( line.toUpperCase().startsWith( ReadNexusMSA.FILE_HEADER ) ) {
+            return new ReadNexusMSA();
+        } else if ( line.matches( "\\d+\\s+\\d+.*" ) ) {
+            return new ReadPhylipMSA();
+        } else {
+            throw new IOException( "Unknown MSA format: " + file );
+        }
+    }
+
+    /**
+     * Reads in an MSA file, with the reader for its format.
+     *
+     * @param file The file to read in
+     *
+     * @return Listing of the taxa in the file
+     *
+     * @exception FileNotFoundException If the given file could not be opened
+     * @exception IOException If an error occurred on reading the file, or
+     *            its format isn't known
+     */
+    public List< PhylogeneticTreeItem > readMSAFile( File file )
+        throws FileNotFoundException, IOException {
+        return getReader( file ).readMSAFile( file );
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * Reads in an aligned FASTA file.  Each taxa starts with a line
+ * holding FILE_HEADER followed by its name; everything after the
+ * first whitespace of that line is a description, and is ignored.
+ * The taxa's sequence follows on any number of lines.
+ *
+ * @author Kyle Dewey
+ */
+public class ReadFastaMSA implements ReadMSA {
+    // begin constants
+    public static final String FILE_HEADER = ">";
+    // end constants
+
+    /**
+     * Gets the name of a taxa from its header line.
+     *
+     * @param line The header line
+     *
+     * @return The name of the taxa
+     */
+    public static String readName( String line ) {
+        int end = 1;
+
+        while ( end < line.length() &&
+                !Character.isWhitespace( line.charAt( end ) ) ) {
+            end++;
+        }
+
+        return line.substring( 1, end );
+    }
+
+    /**
+     * Reads in the FASTA file, holding the multiple
+     * sequence alignment.
+     *
+     * @param file The file to read in
+     *
+     * @return Listing of the taxa in the file
+     *
+     * @exception FileNotFoundException If the given file could not be opened
+     * @exception IOException If an error occurred on reading, or the
+     *            file is malformed
+     */
+    public List< PhylogeneticTreeItem > readMSAFile( File file )
+        throws FileNotFoundException, IOException {
+        BufferedReader input = Alignment.open( file );
+        Alignment alignment = new Alignment();
+        StringBuilder sequence = null; // sequence of the current taxa
+        String line;
+
+        try {
+            while ( ( line = input.readLine() ) != null ) {
+                if ( line.startsWith( FILE_HEADER ) ) {
+                    String name = readName( line );
+                    if ( name.equals( "" ) ) {
+                        throw new IOException( "Taxa with no name in " + file );
+                    }
+                    sequence = alignment.getSequence( name );
+                } else if ( line.trim().equals( "" ) || line.startsWith( ";" ) ) {
+                    // blank lines and old-style comments
+                    continue;
+                } else if ( sequence == null ) {
+                    throw new IOException( "Sequence before any taxa in " + file );
+                } else {
+                    Alignment.append( sequence, line, 0, line.length() );
+                }
+            }
+        } finally {
+            input.close();
+        }
+
+        return alignment.toTaxa( file );
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * Reads in the alignment of a NEXUS file.  Only the MATRIX of the
+ * DATA (or CHARACTERS) block is read; other blocks are skipped.
+ * Each line of the matrix holds a taxa name, which may be quoted,
+ * followed by part of its sequence.  Interleaved matrices simply
+ * repeat names, so both layouts read the same way.  Comments in
+ * square brackets are ignored.  Only standard gap and missing
+ * symbols are understood; neither is informative anyway.
+ *
+ * @author Kyle Dewey
+ */
+public class ReadNexusMSA implements ReadMSA {
+    // begin constants
+    public static final String FILE_HEADER = "#NEXUS";
+    // end constants
+
+    /**
+     * Removes comments in square brackets from a line.
+     * Comments may span lines.
+     *
+     * @param line The line
+     * @param inComment If the previous line ended inside a comment
+     * @param retval Where the line without comments goes
+     *
+     * @return true if this line ends inside a comment, else false
+     */
+    private static boolean stripComments( String line,
+                                          boolean inComment,
+                                          StringBuilder retval ) {
+        retval.setLength( 0 );
+        for( int x = 0; x < line.length(); x++ ) {
+            char current = line.charAt( x );
+            if ( inComment ) {
+                inComment = ( current != ']' );
+            } else if ( current == '[' ) {
+                inComment = true;
+            } else {
+                retval.append( current );
+            }
+        }
+        return inComment;
+    }
+
+    /**
+     * Reads in the NEXUS file, holding the multiple
+     * sequence alignment.
+     *
+     * @param file The file to read in
+     *
+     * @return Listing of the taxa in the file
+     *
+     * @exception FileNotFoundException If the given file could not be opened
+     * @exception IOException If an error occurred on reading, or the
+     *            file has no matrix
+     */
+    public List< PhylogeneticTreeItem > readMSAFile( File file )
+        throws FileNotFoundException, IOException {
+        BufferedReader input = Alignment.open( file );
+        Alignment alignment = new Alignment();
+        StringBuilder stripped = new StringBuilder();
+        boolean inComment = false;
+        boolean inData = false; // in a DATA or CHARACTERS block
+        boolean inMatrix = false;
+        boolean sawMatrix = false;
+        String line;
+
+        try {
+            while ( ( line = input.readLine() ) != null ) {
+                inComment = stripComments( line, inComment, stripped );
+                String trimmed = stripped.toString().trim();
+                String upper = trimmed.toUpperCase();
+
+                if ( trimmed.equals( "" ) ) {
+                    continue;
+                } else if ( !inMatrix ) {
+                    if ( upper.startsWith( "BEGIN DATA" ) ||
+                         upper.startsWith( "BEGIN CHARACTERS" ) ) {
+                        inData = true;
+                    } else if ( upper.startsWith( "END;" ) ||
+                                upper.startsWith( "ENDBLOCK;" ) ) {
+                        inData = false;
+                    } else if ( inData && upper.startsWith( "MATRIX" ) ) {
+                        inMatrix = true;
+                        sawMatrix = true;
+                        trimmed = trimmed.substring( "MATRIX".length() ).trim();
+                    }
+                    if ( !inMatrix || trimmed.equals( "" ) ) {
+                        continue;
+                    }
+                }
+
+                // a line of the matrix
+                int end = trimmed.indexOf( ';' );
+                if ( end != -1 ) {
+                    inMatrix = false;
+                    trimmed = trimmed.substring( 0, end ).trim();
+                    if ( trimmed.equals( "" ) ) {
+                        continue;
+                    }
+                }
+                readMatrixLine( trimmed, alignment, file );
+            }
+        } finally {
+            input.close();
+        }
+
+        if ( !sawMatrix ) {
+            throw new IOException( "No DATA or CHARACTERS matrix in " + file );
+        }
+
+        return alignment.toTaxa( file );
+    }
+
+    /**
+     * Reads a line of the matrix: a possibly quoted name, then
+     * part of the sequence.
+     *
+     * @param line The line, without comments or surrounding whitespace
+     * @param alignment Where to put the sequence
+     * @param file The file being read, for errors
+     *
+     * @exception IOException If a quoted name isn't closed
+     */
+    private static void readMatrixLine( String line,
+                                        Alignment alignment,
+                                        File file )
+        throws IOException {
+        String name;
+        int sequenceStart;
+
+        if ( line.charAt( 0 ) == '\'' || line.charAt( 0 ) == '"' ) {
+            int close = line.indexOf( line.charAt( 0 ), 1 );
+            if ( close == -1 ) {
+                throw new IOException( "Unclosed taxa name in " + file + ": " + line );
+            }
+            name = line.substring( 1, close );
+            sequenceStart = close + 1;
+        } else {
+            sequenceStart = 0;
+            while ( sequenceStart < line.length() &&
+                    !Character.isWhitespace( line.charAt( sequenceStart ) ) ) {
+                sequenceStart++;
+            }
+            name = line.substring( 0, sequenceStart );
+        }
+
+        alignment.append( name, line, sequenceStart, line.length() );
+    }
+}
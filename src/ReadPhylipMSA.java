@@ -0,0 +1,176 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * Reads in a relaxed PHYLIP file.  The first line holds the number
+ * of taxa and the number of points.  Taxa names may be of any length,
+ * and end at the first whitespace; spaces within sequences are ignored.
+ * <p>
+ * Both layouts are understood.  If the first block (up to the first
+ * blank line) has a line for every taxa, the file is interleaved:
+ * each later block holds the next part of every taxa's sequence, in
+ * the same order, with or without the names repeated.  Otherwise the
+ * file is sequential, and each taxa's sequence continues on
+ * following lines until it has every point.
+ *
+ * @author Kyle Dewey
+ */
+public class ReadPhylipMSA implements ReadMSA {
+    /**
+     * Finds the first whitespace in a line.
+     *
+     * @param line The line
+     *
+     * @return Where the first whitespace is, or -1 if there is none
+     */
+    private static int firstWhitespace( String line ) {
+        for( int x = 0; x < line.length(); x++ ) {
+            if ( Character.isWhitespace( line.charAt( x ) ) ) {
+                return x;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads a line holding a taxa name followed by part of its sequence.
+     *
+     * @param line The line
+     * @param alignment Where to put the taxa
+     * @param file The file being read, for errors
+     *
+     * @return The sequence of the taxa
+     *
+     * @exception IOException If there is no name, or the taxa was
+     *            already seen
+     */
+    private static StringBuilder readNamedLine( String line,
+                                                Alignment alignment,
+                                                File file )
+        throws IOException {
+        String trimmed = line.trim();
+        int nameEnd = firstWhitespace( trimmed );
+        String name = ( nameEnd == -1 ) ? trimmed : trimmed.substring( 0, nameEnd );
+        int numTaxa = alignment.getNumTaxa();
+        StringBuilder retval = alignment.getSequence( name );
+
+        if ( alignment.getNumTaxa() == numTaxa ) {
+            throw new IOException( "Taxa given twice in " + file + ": " + name );
+        }
+        if ( nameEnd != -1 ) {
+            Alignment.append( retval, trimmed, nameEnd, trimmed.length() );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Reads in the PHYLIP file, holding the multiple
+     * sequence alignment.
+     *
+     * @param file The file to read in
+     *
+     * @return Listing of the taxa in the file
+     *
+     * @exception FileNotFoundException If the given file could not be opened
+     * @exception IOException If an error occurred on reading, or the
+     *            file is malformed
+     */
+    public List< PhylogeneticTreeItem > readMSAFile( File file )
+        throws FileNotFoundException, IOException {
+        BufferedReader input = Alignment.open( file );
+        Alignment alignment = new Alignment();
+        List< StringBuilder > sequences = new ArrayList< StringBuilder >();
+        List< String > firstBlock = new ArrayList< String >();
+        int numTaxa;
+        int numPoints;
+        String line;
+
+        try {
+            // header
+            do {
+                line = input.readLine();
+            } while ( line != null && line.trim().equals( "" ) );
+            if ( line == null ) {
+                throw new IOException( "Empty file: " + file );
+            }
+            String[] header = line.trim().split( "\\s+" );
+            try {
+                numTaxa = Integer.parseInt( header[ 0 ] );
+                numPoints = Integer.parseInt( header[ 1 ] );
+            } catch ( RuntimeException e ) {
+                throw new IOException( "Malformed PHYLIP header in " + file + ": " + line );
+            }
+
+            // the first block decides the layout
+            while ( ( line = input.readLine() ) != null ) {
+                if ( line.trim().equals( "" ) ) {
+                    if ( firstBlock.isEmpty() ) {
+                        continue;
+                    }
+                    break;
+                }
+                firstBlock.add( line );
+            }
+
+            if ( firstBlock.size() == numTaxa ) {
+                // interleaved, or sequential with one line per taxa
+                List< String > names = new ArrayList< String >( numTaxa );
+                int next = 0; // taxa the next line belongs to
+
+                for( String named : firstBlock ) {
+                    sequences.add( readNamedLine( named, alignment, file ) );
+                    names.add( named.trim().split( "\\s+" )[ 0 ] );
+                }
+                while ( ( line = input.readLine() ) != null ) {
+                    String trimmed = line.trim();
+                    int nameEnd = firstWhitespace( trimmed );
+                    int start = 0;
+
+                    if ( trimmed.equals( "" ) ) {
+                        continue;
+                    } else if ( nameEnd != -1 &&
+                                trimmed.substring( 0, nameEnd ).equals( names.get( next ) ) ) {
+                        // names repeated in later blocks
+                        start = nameEnd;
+                    }
+                    Alignment.append( sequences.get( next ), trimmed, start, trimmed.length() );
+                    next = ( next + 1 ) % numTaxa;
+                }
+            } else {
+                // sequential; a taxa continues until it has every point
+                StringBuilder sequence = null;
+                Iterator< String > block = firstBlock.iterator();
+
+                while ( block.hasNext() ||
+                        ( line = input.readLine() ) != null ) {
+                    String current = ( block.hasNext() ) ? block.next() : line;
+
+                    if ( current.trim().equals( "" ) ) {
+                        continue;
+                    } else if ( sequence == null || sequence.length() >= numPoints ) {
+                        sequence = readNamedLine( current, alignment, file );
+                        sequences.add( sequence );
+                    } else {
+                        Alignment.append( sequence, current, 0, current.length() );
+                    }
+                }
+            }
+        } finally {
+            input.close();
+        }
+
+        if ( alignment.getNumTaxa() != numTaxa ) {
+            throw new IOException( "Expected " + numTaxa + " taxa in " + file +
+                                   "; found " + alignment.getNumTaxa() );
+        }
+        for( StringBuilder sequence : sequences ) {
+            if ( sequence.length() != numPoints ) {
+                throw new IOException( "Expected " + numPoints + " points per taxa in " +
+                                       file + "; found " + sequence.length() );
+            }
+        }
+
+        return alignment.toTaxa( file );
+    }
+}
@@ -0,0 +1,381 @@
+import java.util.*;
+
+/**
+ * Makes the selection mechanisms, termination conditions, individuals,
+ * codecs, topologies, and printers that come with the framework by
+ * name, without reflection.  Looking up a class by name and finding
+ * its constructor is a noticeable part of starting up a short run,
+ * and is something class data sharing can't help with.  Names that
+ * aren't registered are still looked up reflectively, so classes added
+ * by users work without being registered here.
+ *
+ * @author Kyle Dewey
+ */
+public class Registry {
+    /**
+     * Makes a selection mechanism.
+     */
+    public static interface SelectionMaker {
+        public Selection make( boolean lowGood );
+    }
+
+    /**
+     * Makes a selection mechanism that takes a parameter, given
+     * after its name.
+     */
+    public static interface ParamSelectionMaker {
+        public Selection make( boolean lowGood, String param ) throws Exception;
+    }
+
+    /**
+     * Makes a termination condition.
+     */
+    public static interface TerminatorMaker {
+        public Terminator make( long numGenerations, boolean lowGood );
+    }
+
+    /**
+     * Makes a random individual, or a codec, from the parameter
+     * given to individuals.
+     */
+    public static interface ParamMaker< T > {
+        public T make( String param ) throws Exception;
+    }
+
+    /**
+     * Makes an individual with the given genotype, as is done for
+     * every offspring.
+     */
+    public static interface OffspringMaker {
+        public Individual make( Genotype genotype );
+    }
+
+    /**
+     * Makes a migration topology.
+     */
+    public static interface TopologyMaker {
+        public MigrationTopology make();
+    }
+
+    /**
+     * Makes a printer.
+     */
+    public static interface PrinterMaker {
+        public EnvironmentPrinter make();
+    }
+
+    // begin global variables
+    private static final Map< String, SelectionMaker > selections =
+        new HashMap< String, SelectionMaker >();
+    private static final Map< String, ParamSelectionMaker > paramSelections =
+        new HashMap< String, ParamSelectionMaker >();
+    private static final Map< String, TerminatorMaker > terminators =
+        new HashMap< String, TerminatorMaker >();
+    private static final Map< String, ParamMaker< Individual > > individuals =
+        new HashMap< String, ParamMaker< Individual > >();
+    private static final Map< String, Class< ? extends Individual > > individualClasses =
+        new HashMap< String, Class< ? extends Individual > >();
+    private static final Map< Class< ? >, OffspringMaker > offspring =
+        new HashMap< Class< ? >, OffspringMaker >();
+    private static final Map< String, ParamMaker< GenotypeCodec > > codecs =
+        new HashMap< String, ParamMaker< GenotypeCodec > >();
+    private static final Map< String, TopologyMaker > topologies =
+        new HashMap< String, TopologyMaker >();
+    private static final Map< String, PrinterMaker > printers =
+        new HashMap< String, PrinterMaker >();
+    // end global variables
+
+    static {
+        selections.put( "TruncationSelection", new SelectionMaker() {
+                public Selection make( boolean lowGood ) {
+                    return new TruncationSelection( lowGood );
+                }
+            } );
+        selections.put( "RouletteWheelSelection", new SelectionMaker() {
+                public Selection make( boolean lowGood ) {
+                    return new RouletteWheelSelection( lowGood );
+                }
+            } );
+        selections.put( "BinaryTournamentSelection", new SelectionMaker() {
+                public Selection make( boolean lowGood ) {
+                    return new BinaryTournamentSelection( lowGood );
+                }
+            } );
+        selections.put( "TournamentSelection", new SelectionMaker() {
+                public Selection make( boolean lowGood ) {
+                    return new TournamentSelection( lowGood );
+                }
+            } );
+        paramSelections.put( "TournamentSelection", new ParamSelectionMaker() {
+                public Selection make( boolean lowGood, String param ) {
+                    return new TournamentSelection( lowGood, param );
+                }
+            } );
+
+        terminators.put( "NumGenerationsTerminator", new TerminatorMaker() {
+                public Terminator make( long numGenerations, boolean lowGood ) {
+                    return new NumGenerationsTerminator( numGenerations, lowGood );
+                }
+            } );
+        terminators.put( "ConvergenceTerminator", new TerminatorMaker() {
+                public Terminator make( long numGenerations, boolean lowGood ) {
+                    return new ConvergenceTerminator( numGenerations, lowGood );
+                }
+            } );
+
+        individuals.put( "PhylogeneticTreeIndividual", new ParamMaker< Individual >() {
+                public Individual make( String param ) throws Exception {
+                    return new PhylogeneticTreeIndividual( param );
+                }
+            } );
+        individualClasses.put( "PhylogeneticTreeIndividual",
+                               PhylogeneticTreeIndividual.class );
+        offspring.put( PhylogeneticTreeIndividual.class, new OffspringMaker() {
+                public Individual make( Genotype genotype ) {
+                    return new PhylogeneticTreeIndividual( genotype );
+                }
+            } );
+
+        individuals.put( "CompactTreeIndividual", new ParamMaker< Individual >() {
+                public Individual make( String param ) throws Exception {
+                    return new CompactTreeIndividual( param );
+                }
+            } );
+        individualClasses.put( "CompactTreeIndividual",
+                               CompactTreeIndividual.class );
+        offspring.put( CompactTreeIndividual.class, new OffspringMaker() {
+                public Individual make( Genotype genotype ) {
+                    return new CompactTreeIndividual( genotype );
+                }
+            } );
+
+        codecs.put( "PhylogeneticTreeCodec", new ParamMaker< GenotypeCodec >() {
+                public GenotypeCodec make( String param ) throws Exception {
+                    return new PhylogeneticTreeCodec( param );
+                }
+            } );
+        codecs.put( "CompactTreeCodec", new ParamMaker< GenotypeCodec >() {
+                public GenotypeCodec make( String param ) throws Exception {
+                    return new CompactTreeCodec( param );
+                }
+            } );
+
+        topologies.put( "RingTopology", new TopologyMaker() {
+                public MigrationTopology make() {
+                    return new RingTopology();
+                }
+            } );
+        topologies.put( "FullyConnectedTopology", new TopologyMaker() {
+                public MigrationTopology make() {
+                    return new FullyConnectedTopology();
+                }
+            } );
+        topologies.put( "RandomTopology", new TopologyMaker() {
+                public MigrationTopology make() {
+                    return new RandomTopology();
+                }
+            } );
+
+        printers.put( "VerbosePrinter", new PrinterMaker() {
+                public EnvironmentPrinter make() {
+                    return new VerbosePrinter();
+                }
+            } );
+        printers.put( "MaxFitnessPrinter", new PrinterMaker() {
+                public EnvironmentPrinter make() {
+                    return new MaxFitnessPrinter();
+                }
+            } );
+        printers.put( "MetricsPrinter", new PrinterMaker() {
+                public EnvironmentPrinter make() {
+                    return new MetricsPrinter();
+                }
+            } );
+    }
+
+    /**
+     * Makes a selection mechanism.  A parameter may follow the
+     * name of the class, after RunGA.DELIM, as in
+     * TournamentSelection:4; it is given to a constructor that
+     * takes whether low fitness is good and a string.
+     *
+     * @param className The name of the class
+     * @param lowGood If low fitness is good or not
+     *
+     * @return The selection mechanism
+     *
+     * @exception Exception If an unregistered class couldn't be made
+     */
+    public static Selection makeSelection( String className,
+                                           boolean lowGood )
+        throws Exception {
+        int delim = className.indexOf( RunGA.DELIM );
+        if ( delim != -1 ) {
+            String name = className.substring( 0, delim );
+            String param = className.substring( delim + RunGA.DELIM.length() );
+            ParamSelectionMaker paramMaker = paramSelections.get( name );
+            if ( paramMaker != null ) {
+                return paramMaker.make( lowGood, param );
+            }
+            return (Selection)Class.forName( name )
+                .getConstructor( Boolean.TYPE, String.class )
+                .newInstance( lowGood, param );
+        }
+
+        SelectionMaker maker = selections.get( className );
+        if ( maker != null ) {
+            return maker.make( lowGood );
+        }
+        return (Selection)Class.forName( className )
+            .getConstructor( Boolean.TYPE )
+            .newInstance( lowGood );
+    }
+
+    /**
+     * Makes a termination condition.
+     *
+     * @param className The name of the class
+     * @param numGenerations The number of generations for the terminator
+     * @param lowGood If low fitness is good or not
+     *
+     * @return The termination condition
+     *
+     * @exception Exception If an unregistered class couldn't be made
+     */
+    public static Terminator makeTerminator( String className,
+                                             long numGenerations,
+                                             boolean lowGood )
+        throws Exception {
+        TerminatorMaker maker = terminators.get( className );
+        if ( maker != null ) {
+            return maker.make( numGenerations, lowGood );
+        }
+        return (Terminator)Class.forName( className )
+            .getConstructor( Long.TYPE, Boolean.TYPE )
+            .newInstance( numGenerations, lowGood );
+    }
+
+    /**
+     * Makes a random individual.
+     *
+     * @param className The name of the class
+     * @param param The parameter given to individuals
+     *
+     * @return A new random individual
+     *
+     * @exception Exception If the individual couldn't be made
+     */
+    public static Individual makeIndividual( String className,
+                                             String param )
+        throws Exception {
+        ParamMaker< Individual > maker = individuals.get( className );
+        if ( maker != null ) {
+            return maker.make( param );
+        }
+        return (Individual)Class.forName( className )
+            .getConstructor( String.class )
+            .newInstance( param );
+    }
+
+    /**
+     * Makes an individual of the given class with the given genotype.
+     *
+     * @param type The class of the individual
+     * @param genotype The genotype of the individual
+     *
+     * @return The new individual
+     *
+     * @exception Exception If an unregistered class couldn't be made
+     */
+    public static Individual makeIndividual( Class< ? > type,
+                                             Genotype genotype )
+        throws Exception {
+        OffspringMaker maker = offspring.get( type );
+        if ( maker != null ) {
+            return maker.make( genotype );
+        }
+        return (Individual)type.getConstructor( Genotype.class )
+            .newInstance( genotype );
+    }
+
+    /**
+     * Gets the class of an individual.
+     *
+     * @param className The name of the class
+     *
+     * @return The class
+     *
+     * @exception ClassNotFoundException If there is no such class
+     * @exception ClassCastException If it isn't an individual
+     */
+    public static Class< ? extends Individual > getIndividualClass( String className )
+        throws ClassNotFoundException {
+        Class< ? extends Individual > retval = individualClasses.get( className );
+        if ( retval != null ) {
+            return retval;
+        }
+        return Class.forName( className ).asSubclass( Individual.class );
+    }
+
+    /**
+     * Makes a genotype codec.
+     *
+     * @param className The name of the class
+     * @param param The parameter given to individuals
+     *
+     * @return The codec
+     *
+     * @exception Exception If the codec couldn't be made
+     */
+    public static GenotypeCodec makeCodec( String className,
+                                           String param )
+        throws Exception {
+        ParamMaker< GenotypeCodec > maker = codecs.get( className );
+        if ( maker != null ) {
+            return maker.make( param );
+        }
+        return (GenotypeCodec)Class.forName( className )
+            .getConstructor( String.class )
+            .newInstance( param );
+    }
+
+    /**
+     * Makes a migration topology.
+     *
+     * @param className The name of the class
+     *
+     * @return The topology
+     *
+     * @exception Exception If an unregistered class couldn't be made
+     */
+    public static MigrationTopology makeTopology( String className )
+        throws Exception {
+        TopologyMaker maker = topologies.get( className );
+        if ( maker != null ) {
+            return maker.make();
+        }
+        return (MigrationTopology)Class.forName( className )
+            .getConstructor()
+            .newInstance();
+    }
+
+    /**
+     * Makes a printer.
+     *
+     * @param className The name of the class
+     *
+     * @return The printer
+     *
+     * @exception Exception If an unregistered class couldn't be made
+     */
+    public static EnvironmentPrinter makePrinter( String className )
+        throws Exception {
+        PrinterMaker maker = printers.get( className );
+        if ( maker != null ) {
+            return maker.make();
+        }
+        return (EnvironmentPrinter)Class.forName( className )
+            .getConstructor()
+            .newInstance();
+    }
+}
@@ -0,0 +1,437 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.net.*;
+
+/**
+ * Farms fitness calculations out to FitnessWorker processes.
+ * Jobs are gathered into batches, and each worker may have several
+ * batches in flight at once so it never sits idle waiting on the
+ * network.  If a worker fails, the batches it had are sent to the
+ * remaining workers; if none remain, they are calculated locally.
+ * <p>
+ * Only FitnessThread jobs can be sent; anything else is handed to
+ * the local evaluator.
+ *
+ * @author Kyle Dewey
+ */
+public class RemoteEvaluator implements FitnessEvaluator {
+    // begin constants
+    public static final int DEFAULT_BATCH_SIZE = 16;
+    public static final int DEFAULT_BATCHES_IN_FLIGHT = 4; // per worker
+    public static final long LINGER = 2; // ms to wait for a batch to fill
+    public static final int CONNECT_TIMEOUT = 5000; // in ms
+    // end constants
+
+    // begin instance variables
+    private GenotypeCodec codec; // for writing genotypes
+    private FitnessEvaluator local; // used when no workers are left
+    private int batchSize; // most jobs in a batch
+    private int batchesInFlight; // most batches a worker has at once
+    private List< WorkerConnection > workers;
+    private Map< Runnable, CountDownLatch > pending; // jobs not yet done
+    private BlockingQueue< FitnessThread > jobs; // jobs not yet batched
+    private BlockingDeque< List< FitnessThread > > retries; // batches of failed workers
+    private Thread dispatcher; // batches up jobs and sends them out
+    private int nextBatchId;
+    private volatile boolean closed;
+    // end instance variables
+
+    /**
+     * A connection to a single worker process.
+     */
+    private class WorkerConnection {
+        private InetSocketAddress address;
+        private Socket socket;
+        private DataOutputStream output;
+        private Map< Integer, List< FitnessThread > > inFlight; // by batch ID
+        private boolean alive;
+
+        /**
+         * Connects to the worker at the given address, and starts
+         * reading results from it.
+         *
+         * @param address The address of the worker
+         *
+         * @exception IOException If we could not connect
+         */
+        public WorkerConnection( InetSocketAddress address )
+            throws IOException {
+            this.address = address;
+            inFlight = new HashMap< Integer, List< FitnessThread > >();
+            socket = new Socket();
+            socket.setTcpNoDelay( true );
+            socket.connect( address, CONNECT_TIMEOUT );
+            output = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream() ) );
+            alive = true;
+
+            Thread reader = new Thread( new Runnable() {
+                    public void run() {
+                        readResults();
+                    }
+                }, "evaluator-reader-" + address );
+            reader.setDaemon( true );
+            reader.start();
+        }
+
+        /**
+         * Sends a batch to the worker.  Only called by the dispatcher.
+         * If the worker has died since it was picked, the batch is
+         * queued up to be sent elsewhere instead, as fail() has
+         * already passed on the batches it had.
+         *
+         * @param batch The batch to send
+         */
+        public void send( List< FitnessThread > batch ) {
+            int batchId;
+
+            synchronized( RemoteEvaluator.this ) {
+                if ( !alive ) {
+                    retries.addFirst( batch );
+                    return;
+                }
+                batchId = nextBatchId++;
+                inFlight.put( batchId, batch );
+            }
+
+            try {
+                output.writeInt( batchId );
+                output.writeInt( batch.size() );
+                for( FitnessThread job : batch ) {
+                    codec.write( job.getIndividual().getPhenotype(), output );
+                }
+                output.flush();
+            } catch ( IOException e ) {
+                fail( e );
+            }
+        }
+
+        /**
+         * Reads in results until the worker goes away.  Results that
+         * don't match a batch in flight end the connection, so the
+         * batches go elsewhere.
+         */
+        private void readResults() {
+            try {
+                DataInputStream input =
+                    new DataInputStream( new BufferedInputStream( socket.getInputStream() ) );
+
+                while ( !closed ) {
+                    int batchId = input.readInt();
+                    int count = input.readInt();
+                    double[] fitnesses;
+                    List< FitnessThread > batch;
+
+                    // left in flight until read in, so fail() passes it on
+                    synchronized( RemoteEvaluator.this ) {
+                        batch = inFlight.get( batchId );
+                    }
+                    if ( batch == null ||
+                         count < 0 ||
+                         count > FitnessWorker.MAX_BATCH_SIZE ||
+                         count != batch.size() ) {
+                        throw new IOException( "Unexpected results for batch " + batchId +
+                                               ": " + count + " values" );
+                    }
+                    fitnesses = new double[ count ];
+                    for( int x = 0; x < count; x++ ) {
+                        fitnesses[ x ] = input.readDouble();
+                    }
+
+                    synchronized( RemoteEvaluator.this ) {
+                        inFlight.remove( batchId );
+                        RemoteEvaluator.this.notifyAll();
+                    }
+                    for( int x = 0; x < count; x++ ) {
+                        FitnessThread job = batch.get( x );
+                        job.getIndividual().setFitness( fitnesses[ x ] );
+                        complete( job );
+                    }
+                }
+            } catch ( IOException e ) {
+                fail( e );
+            } catch ( RuntimeException e ) {
+                fail( e );
+            }
+        }
+
+        /**
+         * Marks this worker as dead, and queues up its batches
+         * to be sent elsewhere.
+         *
+         * @param cause Why the worker failed
+         */
+        public void fail( Exception cause ) {
+            synchronized( RemoteEvaluator.this ) {
+                if ( !alive ) {
+                    return;
+                }
+                alive = false;
+                for( List< FitnessThread > batch : inFlight.values() ) {
+                    retries.addFirst( batch );
+                }
+                inFlight.clear();
+                RemoteEvaluator.this.notifyAll();
+            }
+
+            if ( !closed ) {
+                System.err.println( "Lost fitness worker " + address + ": " + cause );
+            }
+            close();
+        }
+
+        /**
+         * Closes the connection, ignoring errors.
+         */
+        public void close() {
+            try {
+                socket.close();
+            } catch ( IOException e ) {}
+        }
+    }
+
+    /**
+     * Creates a new remote evaluator, with default batching.
+     *
+     * @param addresses The address of each worker
+     * @param codec Writes genotypes for the workers
+     * @param local Evaluator to use when no workers are left
+     */
+    public RemoteEvaluator( List< InetSocketAddress > addresses,
+                            GenotypeCodec codec,
+                            FitnessEvaluator local ) {
+        this( addresses,
+              codec,
+              local,
+              DEFAULT_BATCH_SIZE,
+              DEFAULT_BATCHES_IN_FLIGHT );
+    }
+
+    /**
+     * Creates a new remote evaluator, and connects to the workers.
+     * Workers that can't be reached are skipped.
+     *
+     * @param addresses The address of each worker
+     * @param codec Writes genotypes for the workers
+     * @param local Evaluator to use when no workers are left
+     * @param batchSize The most jobs to send in a single batch
+     * @param batchesInFlight The most batches a single worker may have
+     *        at once
+     */
+    public RemoteEvaluator( List< InetSocketAddress > addresses,
+                            GenotypeCodec codec,
+                            FitnessEvaluator local,
+                            int batchSize,
+                            int batchesInFlight ) {
+        this.codec = codec;
+        this.local = local;
+        this.batchSize = batchSize;
+        this.batchesInFlight = batchesInFlight;
+        pending = new ConcurrentHashMap< Runnable, CountDownLatch >();
+        jobs = new LinkedBlockingQueue< FitnessThread >();
+        retries = new LinkedBlockingDeque< List< FitnessThread > >();
+        nextBatchId = 0;
+        closed = false;
+
+        workers = new ArrayList< WorkerConnection >();
+        for( InetSocketAddress address : addresses ) {
+            try {
+                workers.add( new WorkerConnection( address ) );
+            } catch ( IOException e ) {
+                System.err.println( "Could not reach fitness worker " +
+                                    address + ": " + e );
+            }
+        }
+
+        dispatcher = new Thread( new Runnable() {
+                public void run() {
+                    dispatch();
+                }
+            }, "evaluator-dispatcher" );
+        dispatcher.setDaemon( true );
+        dispatcher.start();
+    }
+
+    /**
+     * Gets the number of workers that are still alive.
+     *
+     * @return The number of live workers
+     */
+    public synchronized int getNumWorkers() {
+        int retval = 0;
+
+        for( WorkerConnection worker : workers ) {
+            if ( worker.alive ) {
+                retval++;
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * Submits a job.
+     *
+     * @param job The job to submit
+     */
+    public void addJob( Runnable job ) {
+        if ( job instanceof FitnessThread ) {
+            pending.put( job, new CountDownLatch( 1 ) );
+            jobs.add( (FitnessThread)job );
+        } else {
+            local.addJob( job );
+        }
+    }
+
+    /**
+     * Causes the calling thread to wait for the given job to complete.
+     *
+     * @param job The job to wait for
+     */
+    public void waitForJob( Runnable job ) {
+        CountDownLatch done = pending.get( job );
+
+        if ( done == null ) {
+            local.waitForJob( job );
+        } else {
+            try {
+                done.await();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Marks a job as done, waking anyone waiting on it.
+     *
+     * @param job The job that is done
+     */
+    private void complete( Runnable job ) {
+        CountDownLatch done = pending.remove( job );
+
+        if ( done != null ) {
+            done.countDown();
+        }
+    }
+
+    /**
+     * Run by the dispatcher thread.  Sends out batches as they
+     * fill, favoring batches from failed workers.
+     */
+    private void dispatch() {
+        while ( !closed ) {
+            List< FitnessThread > batch;
+            WorkerConnection worker;
+
+            try {
+                batch = nextBatch();
+                if ( batch.isEmpty() ) {
+                    continue;
+                }
+                worker = nextWorker();
+            } catch ( InterruptedException e ) {
+                break;
+            }
+
+            if ( worker == null ) {
+                runLocally( batch );
+            } else {
+                worker.send( batch );
+            }
+        }
+    }
+
+    /**
+     * Gets the next batch to send.  Waits briefly for a partial
+     * batch to fill, but not long enough to hold anyone up.
+     *
+     * @return The next batch; empty if nothing was waiting
+     *
+     * @exception InterruptedException If interrupted while waiting
+     */
+    private List< FitnessThread > nextBatch()
+        throws InterruptedException {
+        List< FitnessThread > retval = retries.poll();
+        FitnessThread job;
+
+        if ( retval == null ) {
+            retval = new ArrayList< FitnessThread >( batchSize );
+            job = jobs.poll( LINGER, TimeUnit.MILLISECONDS );
+            while ( job != null ) {
+                retval.add( job );
+                if ( retval.size() >= batchSize ) {
+                    break;
+                }
+                job = jobs.poll();
+                if ( job == null ) {
+                    job = jobs.poll( LINGER, TimeUnit.MILLISECONDS );
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets the least loaded live worker, waiting until one has
+     * room for another batch.
+     *
+     * @return The worker, or null if none are alive
+     *
+     * @exception InterruptedException If interrupted while waiting
+     */
+    private synchronized WorkerConnection nextWorker()
+        throws InterruptedException {
+        while ( true ) {
+            WorkerConnection retval = null;
+            boolean anyAlive = false;
+
+            for( WorkerConnection worker : workers ) {
+                if ( worker.alive ) {
+                    anyAlive = true;
+                    if ( worker.inFlight.size() < batchesInFlight &&
+                         ( retval == null ||
+                           worker.inFlight.size() < retval.inFlight.size() ) ) {
+                        retval = worker;
+                    }
+                }
+            }
+
+            if ( retval != null || !anyAlive ) {
+                return retval;
+            }
+            wait();
+        }
+    }
+
+    /**
+     * Calculates a batch with the local evaluator.
+     *
+     * @param batch The batch to calculate
+     */
+    private void runLocally( List< FitnessThread > batch ) {
+        for( final FitnessThread job : batch ) {
+            local.addJob( new Runnable() {
+                    public void run() {
+                        job.run();
+                        complete( job );
+                    }
+                } );
+        }
+    }
+
+    /**
+     * Disconnects from the workers, and cleans up the local evaluator.
+     */
+    public void cleanup() {
+        closed = true;
+        dispatcher.interrupt();
+        synchronized( this ) {
+            for( WorkerConnection worker : workers ) {
+                worker.close();
+            }
+        }
+        local.cleanup();
+    }
+}
@@ -0,0 +1,169 @@
+import java.util.*;
+import java.io.*;
+import java.net.*;
+
+/**
+ * Checks RemoteEvaluator against local fitness calculation.
+ * Spawns FitnessWorker processes on this host, submits random
+ * phylogenetic trees to them, kills one worker while batches are
+ * in flight, and verifies that every fitness value still matches
+ * what is calculated locally.
+ *
+ * @author Kyle Dewey
+ */
+public class RemoteEvaluatorHarness {
+    // begin constants
+    public static final int DEFAULT_NUM_WORKERS = 3;
+    public static final int DEFAULT_NUM_INDIVIDUALS = 500;
+    public static final long STARTUP_TIMEOUT = 30000; // in ms
+    // end constants
+
+    /**
+     * Prints usage information for the harness.
+     */
+    public static void usage() {
+        System.out.println( "Takes the following params:\n" +
+                            "msa file\n" +
+                            "number of workers (optional, default " +
+                            DEFAULT_NUM_WORKERS + ")\n" +
+                            "number of individuals (optional, default " +
+                            DEFAULT_NUM_INDIVIDUALS + ")\n" );
+    }
+
+    /**
+     * Gets a port that nothing is listening on.
+     *
+     * @return A free port
+     *
+     * @exception IOException If no port could be found
+     */
+    public static int freePort()
+        throws IOException {
+        ServerSocket socket = new ServerSocket( 0 );
+        int retval = socket.getLocalPort();
+        socket.close();
+        return retval;
+    }
+
+    /**
+     * Starts a worker process on this host, using our classpath.
+     *
+     * @param port The port the worker listens on
+     * @param msaFile The msa file for the worker's individuals
+     *
+     * @return The worker process
+     *
+     * @exception IOException If the process couldn't be started
+     */
+    public static Process startWorker( int port,
+                                       String msaFile )
+        throws IOException {
+        String java = System.getProperty( "java.home" ) +
+            File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder =
+            new ProcessBuilder( java,
+                                "-cp",
+                                System.getProperty( "java.class.path" ),
+                                "FitnessWorker",
+                                Integer.toString( port ),
+                                "PhylogeneticTreeIndividual" + RunGA.DELIM + msaFile,
+                                "PhylogeneticTreeCodec" );
+        builder.redirectErrorStream( true );
+        builder.redirectOutput( ProcessBuilder.Redirect.INHERIT );
+        return builder.start();
+    }
+
+    /**
+     * Waits for something to be listening at the given address.
+     *
+     * @param address The address
+     *
+     * @exception IOException If nothing listens before the timeout
+     * @exception InterruptedException If interrupted while waiting
+     */
+    public static void waitForListener( InetSocketAddress address )
+        throws IOException, InterruptedException {
+        long giveUp = System.currentTimeMillis() + STARTUP_TIMEOUT;
+
+        while ( true ) {
+            try {
+                new Socket( address.getHostName(), address.getPort() ).close();
+                return;
+            } catch ( IOException e ) {
+                if ( System.currentTimeMillis() > giveUp ) {
+                    throw e;
+                }
+                Thread.sleep( 100 );
+            }
+        }
+    }
+
+    public static void main( String[] args ) {
+        if ( args.length < 1 || args.length > 3 ) {
+            usage();
+            System.exit( 1 );
+        }
+
+        List< Process > workers = new ArrayList< Process >();
+        boolean passed = false;
+        try {
+            String msaFile = args[ 0 ];
+            int numWorkers = ( args.length > 1 ) ?
+                Integer.parseInt( args[ 1 ] ) : DEFAULT_NUM_WORKERS;
+            int numIndividuals = ( args.length > 2 ) ?
+                Integer.parseInt( args[ 2 ] ) : DEFAULT_NUM_INDIVIDUALS;
+            List< InetSocketAddress > addresses = new ArrayList< InetSocketAddress >();
+
+            for( int x = 0; x < numWorkers; x++ ) {
+                int port = freePort();
+                workers.add( startWorker( port, msaFile ) );
+                addresses.add( new InetSocketAddress( "localhost", port ) );
+            }
+            for( InetSocketAddress address : addresses ) {
+                waitForListener( address );
+            }
+
+            RemoteEvaluator remote =
+                new RemoteEvaluator( addresses,
+                                     new PhylogeneticTreeCodec( msaFile ),
+                                     Individual.getEvaluator(),
+                                     8,
+                                     RemoteEvaluator.DEFAULT_BATCHES_IN_FLIGHT );
+            Individual.setEvaluator( remote );
+
+            long start = System.currentTimeMillis();
+            List< PhylogeneticTreeIndividual > individuals =
+                new ArrayList< PhylogeneticTreeIndividual >( numIndividuals );
+            for( int x = 0; x < numIndividuals; x++ ) {
+                individuals.add( new PhylogeneticTreeIndividual( msaFile ) );
+            }
+
+            // fail a worker while it still has batches
+            workers.get( 0 ).destroy();
+
+            int numMatched = 0;
+            for( PhylogeneticTreeIndividual current : individuals ) {
+                if ( current.getFitness() == current.calculateFitness() ) {
+                    numMatched++;
+                }
+            }
+            long elapsed = System.currentTimeMillis() - start;
+
+            System.out.println( "Matched: " + numMatched + "/" + numIndividuals );
+            System.out.println( "Workers alive: " + remote.getNumWorkers() + "/" + numWorkers );
+            System.out.println( "Time(ms): " + elapsed );
+            passed = ( numMatched == numIndividuals );
+            Individual.cleanup();
+        } catch ( Exception e ) {
+            e.printStackTrace();
+            System.err.println( e );
+        } finally {
+            for( Process worker : workers ) {
+                worker.destroy();
+            }
+        }
+
+        System.out.println( passed ? "PASSED" : "FAILED" );
+        System.exit( passed ? 0 : 1 );
+    }
+}
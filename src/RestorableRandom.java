@@ -0,0 +1,101 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A random number generator whose state can be read and put back, so
+ * that a run can be checkpointed and resumed without replacing the
+ * generators that classes hold on to.  It makes the same numbers as
+ * java.util.Random given the same seed, and is as safe to share
+ * between threads.  Gaussians are not part of the state.
+ *
+ * @author Kyle Dewey
+ */
+public class RestorableRandom extends Random {
+    // begin constants
+    public static final long MULTIPLIER = 0x5DEECE66DL;
+    public static final long ADDEND = 0xBL;
+    public static final long MASK = ( 1L << 48 ) - 1;
+    // end constants
+
+    // begin instance variables
+    private AtomicLong state; // null only while Random's constructor runs
+    // end instance variables
+
+    /**
+     * Creates a new generator with a seed that is unlikely to be
+     * the same as that of any other.
+     */
+    public RestorableRandom() {
+        this( new Random().nextLong() );
+    }
+
+    /**
+     * Creates a new generator with the given seed.
+     *
+     * @param seed The seed
+     */
+    public RestorableRandom( long seed ) {
+        super( seed );
+        state = new AtomicLong( scramble( seed ) );
+    }
+
+    /**
+     * Scrambles a seed as java.util.Random does.
+     *
+     * @param seed The seed
+     *
+     * @return The state for the seed
+     */
+    private static long scramble( long seed ) {
+        return ( seed ^ MULTIPLIER ) & MASK;
+    }
+
+    /**
+     * Sets the seed, as java.util.Random does.
+     *
+     * @param seed The seed
+     */
+    public void setSeed( long seed ) {
+        super.setSeed( seed );
+        if ( state != null ) {
+            state.set( scramble( seed ) );
+        }
+    }
+
+    /**
+     * Gets the state of this generator.
+     *
+     * @return The state, for setState()
+     */
+    public long getState() {
+        return state.get();
+    }
+
+    /**
+     * Puts this generator back in a state it was in.
+     *
+     * @param state A state from getState()
+     */
+    public void setState( long state ) {
+        this.state.set( state & MASK );
+    }
+
+    /**
+     * Makes the next random bits.
+     *
+     * @param bits The number of bits, at most 32
+     *
+     * @return The bits
+     */
+    protected int next( int bits ) {
+        long current;
+        long next;
+
+        do {
+            current = state.get();
+            next = ( current * MULTIPLIER + ADDEND ) & MASK;
+        } while ( !state.compareAndSet( current, next ) );
+
+        return (int)( next >>> ( 48 - bits ) );
+    }
+}
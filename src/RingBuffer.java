@@ -0,0 +1,100 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size queue between one thread that adds items and one
+ * thread that takes them, without locks.  Each side only ever writes
+ * its own position, and reads the other's, so neither waits on the
+ * other; adding to a full buffer just fails.  It must not be used by
+ * more than one thread on either side.
+ *
+ * @author Kyle Dewey
+ */
+public class RingBuffer< T > {
+    // begin instance variables
+    private Object[] slots; // size is a power of two
+    private int mask; // position in slots of a count
+    private AtomicLong head; // count of items taken; written by the taker
+    private AtomicLong tail; // count of items added; written by the adder
+    // end instance variables
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param capacity The most items it holds; rounded up to a
+     *        power of two
+     */
+    public RingBuffer( int capacity ) {
+        if ( capacity < 1 ) {
+            throw new IllegalArgumentException( "Capacity must be positive: " +
+                                                capacity );
+        }
+        int size = Integer.highestOneBit( capacity );
+        if ( size < capacity ) {
+            size <<= 1;
+        }
+        slots = new Object[ size ];
+        mask = size - 1;
+        head = new AtomicLong( 0 );
+        tail = new AtomicLong( 0 );
+    }
+
+    /**
+     * Gets the most items the buffer holds.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Adds an item to the end of the buffer, if there is room.
+     * Only to be called by the adding thread.
+     *
+     * @param item The item; not null
+     *
+     * @return true if it was added, or false if the buffer is full
+     */
+    public boolean offer( T item ) {
+        long position = tail.get();
+
+        if ( position - head.get() == slots.length ) {
+            return false;
+        }
+        slots[ (int)position & mask ] = item;
+        // publishes the item along with the new position
+        tail.lazySet( position + 1 );
+
+        return true;
+    }
+
+    /**
+     * Takes the item at the front of the buffer.
+     * Only to be called by the taking thread.
+     *
+     * @return The item, or null if the buffer is empty
+     */
+    public T poll() {
+        long position = head.get();
+
+        if ( position == tail.get() ) {
+            return null;
+        }
+        int slot = (int)position & mask;
+        T retval = (T)slots[ slot ];
+        slots[ slot ] = null;
+        head.lazySet( position + 1 );
+
+        return retval;
+    }
+
+    /**
+     * Gets whether the buffer is empty.  By the time it returns
+     * the other thread may have changed that.
+     *
+     * @return true if there was nothing in the buffer
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
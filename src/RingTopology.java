@@ -0,0 +1,29 @@
+import java.util.*;
+
+/**
+ * Islands are arranged in a ring.  Each island sends migrants
+ * only to the next island in the ring.
+ *
+ * @author Kyle Dewey
+ */
+public class RingTopology implements MigrationTopology {
+    /**
+     * Gets the island after the given one in the ring.
+     *
+     * @param source The island that migrants leave from
+     * @param numIslands The total number of islands
+     *
+     * @return The next island in the ring, or nothing if there is
+     *         only one island
+     */
+    public List< Integer > getDestinations( int source,
+                                            int numIslands ) {
+        List< Integer > retval = new ArrayList< Integer >( 1 );
+
+        if ( numIslands > 1 ) {
+            retval.add( ( source + 1 ) % numIslands );
+        }
+
+        return retval;
+    }
+}
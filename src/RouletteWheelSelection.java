@@ -47,7 +47,8 @@ public class RouletteWheelSelection< T extends Individual >
      * fitnesses have higher probabilities of being chosen.
      *
      * @param list The list of individuals
-     * @param fixed The number of individuals to return
+     * @param fixed The number of individuals to return; <= 0
+     *        for as many as there are individuals
      * @param lowGood true if low fitnesses are good, else false
      *
      * @return The most fit individuals in the population, based
@@ -56,48 +57,141 @@ public class RouletteWheelSelection< T extends Individual >
     public List< T > performSelection( List< T > list,
                                        int fixed,
                                        boolean lowGood ) {
-	return chooseIndividuals( list,
-				  fixed,
-				  lowGood );
+	return performSelection( list,
+				 getFitnesses( list ),
+				 fixed,
+				 lowGood );
     }
 
     /**
-     * Given a list of individuals, returns a list of individual/probability
-     * pairs.
-     * @param indiv The individuals
+     * Like the other, but with the fitnesses already known.
+     *
+     * @param list The list of individuals
+     * @param fitnesses The fitness of each individual, in order
+     * @param fixed The number of individuals to return; <= 0
+     *        for as many as there are individuals
+     * @param lowGood true if low fitnesses are good, else false
+     *
+     * @return The most fit individuals in the population, based
+     *         on probability
+     */
+    public List< T > performSelection( List< T > list,
+                                       double[] fitnesses,
+                                       int fixed,
+                                       boolean lowGood ) {
+	return draw( list,
+		     ( fixed <= 0 ) ? list.size() : fixed,
+		     new AliasTable( rouletteWeights( fitnesses,
+						      lowGood ) ) );
+    }
+
+    /**
+     * Picks individuals in proportion to their weights, in constant
+     * time per pick, by Vose's alias method.  Each position holds the
+     * probability of picking that individual when the position comes
+     * up, and otherwise the individual to pick instead.
+     */
+    public static class AliasTable implements Drawer {
+	private double[] probability; // of keeping each position
+	private int[] alias; // picked instead of each position
+
+	/**
+	 * Builds the table, in linear time.
+	 * @param weights The weight of each individual; none negative.
+	 *        If they are all zero, individuals are picked uniformly.
+	 */
+	public AliasTable( double[] weights ) {
+	    int size = weights.length;
+	    double total = 0.0;
+	    double[] scaled = new double[ size ]; // average weight is 1
+	    int[] small = new int[ size ]; // stack of positions below 1
+	    int[] large = new int[ size ]; // stack of positions at or above 1
+	    int numSmall = 0;
+	    int numLarge = 0;
+
+	    probability = new double[ size ];
+	    alias = new int[ size ];
+	    for( double weight : weights ) {
+		total += weight;
+	    }
+	    for( int x = 0; x < size; x++ ) {
+		scaled[ x ] = ( total > 0.0 ) ? weights[ x ] * size / total : 1.0;
+		if ( scaled[ x ] < 1.0 ) {
+		    small[ numSmall++ ] = x;
+		} else {
+		    large[ numLarge++ ] = x;
+		}
+	    }
+
+	    while ( numSmall > 0 && numLarge > 0 ) {
+		int less = small[ --numSmall ];
+		int more = large[ --numLarge ];
+		probability[ less ] = scaled[ less ];
+		alias[ less ] = more;
+		scaled[ more ] = ( scaled[ more ] + scaled[ less ] ) - 1.0;
+		if ( scaled[ more ] < 1.0 ) {
+		    small[ numSmall++ ] = more;
+		} else {
+		    large[ numLarge++ ] = more;
+		}
+	    }
+	    // what is left is 1, give or take rounding
+	    while ( numLarge > 0 ) {
+		probability[ large[ --numLarge ] ] = 1.0;
+	    }
+	    while ( numSmall > 0 ) {
+		probability[ small[ --numSmall ] ] = 1.0;
+	    }
+	}
+
+	public int draw( SplittableRandom random ) {
+	    int position = random.nextInt( probability.length );
+	    return ( random.nextDouble() < probability[ position ] ) ?
+		position : alias[ position ];
+	}
+    }
+
+    /**
+     * Given the fitness of each individual, returns the weight
+     * each is picked with.  When high fitness is good, the weight
+     * is the fitness.  When low fitness is good, the weight is the
+     * inverse of the fitness, so an individual with half the fitness
+     * of another is twice as likely to be picked.  Fitnesses are
+     * first shifted up if needed, to be non-negative, or positive
+     * when inverted.
+     * @param fitnesses The fitness of each individual
      * @param lowGood If low fitness value corresponds to more fit individuals
-     * @return A parallel array of selection probabilities, arranged from most likely to least
-     * likely
+     * @return The weight of each individual
      */
-    public static <T extends Individual> List< Pair< T, Double > > rouletteProbabilities( List< T > indiv,
-											  boolean lowGood ) {
-	double totalFitness = Population.totalFitness( indiv );
-	int size = indiv.size();
-	List< Pair< T, Double > > retval = new ArrayList< Pair< T, Double > >( size );
+    public static double[] rouletteWeights( double[] fitnesses,
+					    boolean lowGood ) {
+	double[] retval = new double[ fitnesses.length ];
+	double min = Double.POSITIVE_INFINITY;
 
-	for( int x = 0; x < size; x++ ) {
-	    T current = indiv.get( x );
-	    double prob = current.getFitness() / totalFitness;
-	    if ( lowGood ) {
-		prob = 1 - prob;
+	for( double fitness : fitnesses ) {
+	    min = Math.min( min, fitness );
+	}
+
+	if ( lowGood ) {
+	    double shift = ( min <= 0.0 ) ? 1.0 - min : 0.0;
+	    for( int x = 0; x < fitnesses.length; x++ ) {
+		retval[ x ] = 1.0 / ( fitnesses[ x ] + shift );
+	    }
+	} else {
+	    double shift = ( min < 0.0 ) ? -min : 0.0;
+	    for( int x = 0; x < fitnesses.length; x++ ) {
+		retval[ x ] = fitnesses[ x ] + shift;
 	    }
-	    retval.add( new Pair< T, Double >( current,
-					       new Double( prob ) ) );
 	}
 
-	Collections.sort( retval,
-			  new Comparator< Pair< T, Double > >() {
-			      public int compare( Pair< T, Double > first,
-						  Pair< T, Double > second ) {
-				  return -first.second.compareTo( second.second );
-			      }
-			  } );
 	return retval;
     }
 
     /**
      * Given a list of individuals, returns a new list of individuals 
-     * of the given size.  The new list is the result of roulette wheel selection.
+     * of the given size.  The new list is the result of roulette wheel
+     * selection; individuals may be picked more than once.  Large
+     * selections are drawn in parallel.
      * @param list The base list of individuals to select from
      * @param newSize The size of the new list to make
      * @param lowGood If low fitness values are good
@@ -106,26 +200,9 @@ public class RouletteWheelSelection< T extends Individual >
     public static <T extends Individual> List< T > chooseIndividuals( List< T > list,
 								      int newSize,
 								      boolean lowGood ) {
-	List< Pair< T, Double > > prob = rouletteProbabilities( list,
-								lowGood );
-	List< T > retval = new ArrayList< T >( newSize );
-	int oldSize = prob.size();
-	int numPlaced = 0;
-
-	while ( numPlaced < newSize ) {
-	    for( int x = 0; x < oldSize; x++ ) {
-		if ( numPlaced >= newSize ) {
-		    break;
-		} else {
-		    Pair< T, Double > current = prob.get( x );
-		    if ( choose( current.second ) ) {
-			retval.add( current.first );
-			numPlaced++;
-		    }
-		}
-	    }
-	}
-
-	return retval;
+	return draw( list,
+		     newSize,
+		     new AliasTable( rouletteWeights( getFitnesses( list ),
+						      lowGood ) ) );
     }
 }
@@ -1,3 +1,7 @@
+import java.util.*;
+import java.io.File;
+import java.net.InetSocketAddress;
+
 /**
  * Holds together the GA.
  * @author Kyle Dewey
@@ -8,6 +12,59 @@ public class RunGA {
     public static final double MAX_PERCENTAGE = 1.0;
     public static final String DELIM = ":";
     public static final int SPLIT_DEFAULT_LENGTH = 2;
+    public static final int NUM_REQUIRED_ARGS = 9;
+
+    // optional name:value parameters that may follow the required ones
+    public static final String ISLANDS_OPTION = "islands";
+    public static final String TOPOLOGY_OPTION = "topology";
+    public static final String MIGRATION_INTERVAL_OPTION = "migrationInterval";
+    public static final String MIGRATION_RATE_OPTION = "migrationRate";
+    public static final String MIGRANT_SELECTION_OPTION = "migrantSelection";
+    public static final String TRANSPORT_OPTION = "transport";
+    public static final String PEERS_OPTION = "peers";
+    public static final String RANK_OPTION = "rank";
+    public static final String CODEC_OPTION = "codec";
+    public static final String WORKERS_OPTION = "workers";
+    public static final String BATCH_SIZE_OPTION = "batchSize";
+    public static final String BATCHES_IN_FLIGHT_OPTION = "batchesInFlight";
+    public static final String CHECKPOINT_OPTION = "checkpoint";
+    public static final String CHECKPOINT_INTERVAL_OPTION = "checkpointInterval";
+    public static final String RESUME_OPTION = "resume";
+    public static final String LOG_OPTION = "log";
+    public static final String PRINTER_OPTION = "printer";
+    public static final String JMX_OPTION = "jmx";
+    public static final String[] OPTIONS = { ISLANDS_OPTION,
+					     TOPOLOGY_OPTION,
+					     MIGRATION_INTERVAL_OPTION,
+					     MIGRATION_RATE_OPTION,
+					     MIGRANT_SELECTION_OPTION,
+					     TRANSPORT_OPTION,
+					     PEERS_OPTION,
+					     RANK_OPTION,
+					     CODEC_OPTION,
+					     WORKERS_OPTION,
+					     BATCH_SIZE_OPTION,
+					     BATCHES_IN_FLIGHT_OPTION,
+					     CHECKPOINT_OPTION,
+					     CHECKPOINT_INTERVAL_OPTION,
+					     RESUME_OPTION,
+					     LOG_OPTION,
+					     PRINTER_OPTION,
+					     JMX_OPTION };
+    // options that change state shared by every run in the JVM, so
+    // not allowed where runs share one
+    public static final String[] GLOBAL_OPTIONS = { WORKERS_OPTION,
+						    CHECKPOINT_OPTION,
+						    RESUME_OPTION,
+						    JMX_OPTION };
+    public static final String LOCAL_TRANSPORT = "local";
+    public static final String SOCKET_TRANSPORT = "socket";
+    public static final String DEFAULT_TOPOLOGY = "RingTopology";
+    public static final String DEFAULT_MIGRATION_INTERVAL = "10";
+    public static final String DEFAULT_MIGRATION_RATE = "0.05";
+    public static final String DEFAULT_MIGRANT_SELECTION = "TruncationSelection";
+    public static final String DEFAULT_CHECKPOINT_INTERVAL = "10";
+    public static final String DEFAULT_PRINTER = "VerbosePrinter";
     // end constants
 
     // begin instance variables
@@ -31,11 +88,44 @@ public class RunGA {
 			    "mutation rate (between 0-1)\n" +
 			    "elitism (between 0-1)\n" +
 			    "max population size (>0)\n" +
-			    "parent selection mechanism (class name)\n" +
-			    "survival selection mechanism (class name)\n" +
+			    "parent selection mechanism (class name[:parameter])\n" +
+			    "survival selection mechanism (class name[:parameter])\n" +
 			    "termination condition (class name:num generations)\n" +
 			    "if lower fitness values are better than higher values (boolean)\n" +
-			    "individual class name:individual parameter\n" );
+			    "individual class name:individual parameter\n" +
+			    "Optionally followed by any of these, as name:value\n" +
+			    "islands:number of islands (default 1)\n" +
+			    "topology:migration topology (class name, default " +
+			    DEFAULT_TOPOLOGY + ")\n" +
+			    "migrationInterval:generations between migrations (default " +
+			    DEFAULT_MIGRATION_INTERVAL + ")\n" +
+			    "migrationRate:portion of an island that migrates (default " +
+			    DEFAULT_MIGRATION_RATE + ")\n" +
+			    "migrantSelection:selection mechanism for migrants (class name, " +
+			    "default " + DEFAULT_MIGRANT_SELECTION + ")\n" +
+			    "transport:" + LOCAL_TRANSPORT + " or " + SOCKET_TRANSPORT +
+			    " (default " + LOCAL_TRANSPORT + ")\n" +
+			    "peers:host:port,host:port,... (every process, for " +
+			    SOCKET_TRANSPORT + ")\n" +
+			    "rank:which of the peers this process is (for " +
+			    SOCKET_TRANSPORT + ")\n" +
+			    "codec:genotype codec (class name, for " + SOCKET_TRANSPORT +
+			    " or workers)\n" +
+			    "workers:host:port,host:port,... (FitnessWorkers to calculate " +
+			    "fitness on)\n" +
+			    "batchSize:individuals sent to a worker at once (default " +
+			    RemoteEvaluator.DEFAULT_BATCH_SIZE + ")\n" +
+			    "batchesInFlight:batches a worker may have at once (default " +
+			    RemoteEvaluator.DEFAULT_BATCHES_IN_FLIGHT + ")\n" +
+			    "checkpoint:file to save the run to (needs codec)\n" +
+			    "checkpointInterval:generations between checkpoints (default " +
+			    DEFAULT_CHECKPOINT_INTERVAL + ")\n" +
+			    "resume:checkpoint file to resume the run from (needs codec)\n" +
+			    "log:file to log each generation to (CSV if it ends in " +
+			    RunLog.CSV_SUFFIX + ", else JSON Lines)\n" +
+			    "printer:what to print (class name, default " +
+			    DEFAULT_PRINTER + ")\n" +
+			    "jmx:name to show the run under over JMX\n" );
     }
 
     /**
@@ -45,10 +135,12 @@ public class RunGA {
      * @exception ArgsException If an argument is invalid.
      */
     public RunGA( String[] args ) throws Exception {
-	if ( args.length != 9 ) {
-	    usage();
-	    throw new ArgsException( "Needs nine parameters" );
+	if ( args.length < NUM_REQUIRED_ARGS ) {
+	    throw new ArgsException( "Needs at least nine parameters" );
 	}
+	// everything is read in before any individuals are made, as
+	// making them starts the threads that calculate fitness
+	Map< String, String > options = readOptions( args, NUM_REQUIRED_ARGS );
 	boolean lowGood = Boolean.parseBoolean( args[ 7 ] );
 	crossoverRate = readDouble( args[ 0 ] );
 	mutationRate = readDouble( args[ 1 ] );
@@ -58,18 +150,154 @@ public class RunGA {
 					 lowGood );
 	survivalSelection = readSelection( args[ 5 ],
 					   lowGood );
-	terminator = readTerminatorArg( args[ 6 ],
-					lowGood );
-	population = makePopulation( args[ 8 ],
-				     crossoverRate,
-				     mutationRate,
-				     elitism,
-				     maxPopulationSize,
-				     parentSelection,
-				     survivalSelection,
-				     lowGood );
-	environment = new Environment( population,
-				       terminator );
+	String[] indivSplit = split( args[ 8 ] );
+	int numIslands = readIslands( getOption( options,
+						 ISLANDS_OPTION,
+						 "1" ) );
+	boolean resuming = options.containsKey( RESUME_OPTION );
+	// terminators keep per-population state, so each island gets its own
+	List< Terminator > terminators = new ArrayList< Terminator >( numIslands );
+	List< EnvironmentPrinter > printers = new ArrayList< EnvironmentPrinter >( numIslands + 1 );
+	for( int x = 0; x < numIslands + 1; x++ ) {
+	    if ( x < numIslands ) {
+		terminators.add( readTerminatorArg( args[ 6 ],
+						    lowGood ) );
+	    }
+	    // one more printer, for the islands as a whole
+	    printers.add( readPrinter( getOption( options,
+						  PRINTER_OPTION,
+						  DEFAULT_PRINTER ) ) );
+	}
+
+	String transportName = getOption( options,
+					  TRANSPORT_OPTION,
+					  LOCAL_TRANSPORT );
+	List< InetSocketAddress > peers = null;
+	int rank = 0;
+	if ( transportName.equals( SOCKET_TRANSPORT ) ) {
+	    peers = SocketTransport.parsePeers( getRequiredOption( options, 
+								   PEERS_OPTION ) );
+	    rank = readRank( getRequiredOption( options, 
+						RANK_OPTION ),
+			     peers.size() );
+	} else if ( !transportName.equals( LOCAL_TRANSPORT ) ) {
+	    throw new ArgsException( "Unknown transport: " + transportName );
+	}
+	int firstIsland = rank * numIslands;
+	int totalIslands = ( peers == null ) ? numIslands : peers.size() * numIslands;
+	MigrationTopology topology = null;
+	Selection migrantSelection = null;
+	long migrationInterval = 0;
+	double migrationRate = 0.0;
+	if ( totalIslands > 1 ) {
+	    topology = readTopology( getOption( options,
+						TOPOLOGY_OPTION,
+						DEFAULT_TOPOLOGY ) );
+	    migrantSelection = readSelection( getOption( options,
+							 MIGRANT_SELECTION_OPTION,
+							 DEFAULT_MIGRANT_SELECTION ),
+					      lowGood );
+	    migrationInterval = readNumGenerations( getOption( options,
+							       MIGRATION_INTERVAL_OPTION,
+							       DEFAULT_MIGRATION_INTERVAL ) );
+	    migrationRate = readDouble( getOption( options,
+						   MIGRATION_RATE_OPTION,
+						   DEFAULT_MIGRATION_RATE ) );
+	}
+
+	GenotypeCodec codec = null;
+	if ( peers != null ||
+	     resuming ||
+	     options.containsKey( CHECKPOINT_OPTION ) ||
+	     options.containsKey( WORKERS_OPTION ) ) {
+	    codec = readCodec( getRequiredOption( options,
+						  CODEC_OPTION ),
+			       indivSplit[ 1 ] );
+	}
+	long checkpointInterval = readNumGenerations( getOption( options,
+								 CHECKPOINT_INTERVAL_OPTION,
+								 DEFAULT_CHECKPOINT_INTERVAL ) );
+	List< InetSocketAddress > workers = null;
+	int batchSize = 0;
+	int batchesInFlight = 0;
+	if ( options.containsKey( WORKERS_OPTION ) ) {
+	    workers = SocketTransport.parsePeers( options.get( WORKERS_OPTION ) );
+	    batchSize = readPopulationSize( getOption( options,
+						       BATCH_SIZE_OPTION,
+						       Integer.toString( RemoteEvaluator.DEFAULT_BATCH_SIZE ) ) );
+	    batchesInFlight = readPopulationSize( getOption( options,
+							     BATCHES_IN_FLIGHT_OPTION,
+							     Integer.toString( RemoteEvaluator.DEFAULT_BATCHES_IN_FLIGHT ) ) );
+	}
+
+	if ( workers != null ) {
+	    // must be in place before any individuals are made
+	    Individual.setEvaluator( new RemoteEvaluator( workers,
+							  codec,
+							  Individual.getEvaluator(),
+							  batchSize,
+							  batchesInFlight ) );
+	}
+	List< Environment > islands = new ArrayList< Environment >( numIslands );
+	for( int x = 0; x < numIslands; x++ ) {
+	    terminator = terminators.get( x );
+	    population = makePopulation( args[ 8 ],
+					 crossoverRate,
+					 mutationRate,
+					 elitism,
+					 maxPopulationSize,
+					 parentSelection,
+					 survivalSelection,
+					 lowGood,
+					 ( resuming ) ? 0 : maxPopulationSize );
+	    islands.add( new Environment( population,
+					  terminator,
+					  printers.get( x ) ) );
+	}
+
+	if ( totalIslands == 1 ) {
+	    environment = islands.get( 0 );
+	} else {
+	    MigrationTransport transport;
+	    if ( peers == null ) {
+		transport = new LocalTransport();
+	    } else {
+		transport = new SocketTransport( peers,
+						 rank,
+						 numIslands,
+						 codec,
+						 Registry.getIndividualClass( indivSplit[ 0 ] ) );
+	    }
+	    environment = 
+		new IslandEnvironment( islands,
+				       topology,
+				       migrantSelection,
+				       migrationInterval,
+				       migrationRate,
+				       transport,
+				       firstIsland,
+				       totalIslands,
+				       printers.get( numIslands ) );
+	}
+
+	if ( resuming ) {
+	    Checkpointer.restore( new File( options.get( RESUME_OPTION ) ),
+				  environment,
+				  codec,
+				  Registry.getIndividualClass( indivSplit[ 0 ] ) );
+	}
+	if ( options.containsKey( CHECKPOINT_OPTION ) ) {
+	    environment.addListener( 
+		new Checkpointer( new File( options.get( CHECKPOINT_OPTION ) ),
+				  checkpointInterval,
+				  codec ) );
+	}
+	if ( options.containsKey( LOG_OPTION ) ) {
+	    environment.addListener( new RunLog( new File( options.get( LOG_OPTION ) ) ) );
+	}
+	if ( options.containsKey( JMX_OPTION ) ) {
+	    environment.addListener( new JmxMonitor( options.get( JMX_OPTION ) ) );
+	}
     }
 
     /**
@@ -79,6 +307,14 @@ public class RunGA {
 	environment.runGA();
     }
 
+    /**
+     * Gets the environment the GA runs in.
+     * @return The environment
+     */
+    public Environment getEnvironment() {
+	return environment;
+    }
+
     /**
      * Splits a string on the given delimiter.
      * Verifies that it is the given length
@@ -113,6 +349,104 @@ public class RunGA {
 		      SPLIT_DEFAULT_LENGTH );
     }
 		      
+    /**
+     * Reads in the optional name:value parameters that follow
+     * the required ones.
+     * @param args command line arguments
+     * @param start Index of the first optional parameter
+     * @return A mapping of option names to their values
+     * @exception ArgsException If an option is malformed, unknown, or repeated
+     */
+    public static Map< String, String > readOptions( String[] args,
+						     int start )
+	throws ArgsException {
+	return readOptions( args, start, OPTIONS );
+    }
+
+    /**
+     * Reads in optional name:value parameters, out of the given
+     * options.
+     * @param args command line arguments
+     * @param start Index of the first optional parameter
+     * @param options The names of the options that can be given
+     * @return A mapping of option names to their values
+     * @exception ArgsException If an option is malformed, unknown, or repeated
+     */
+    public static Map< String, String > readOptions( String[] args,
+						     int start,
+						     String[] options )
+	throws ArgsException {
+	Map< String, String > retval = new HashMap< String, String >();
+	List< String > known = Arrays.asList( options );
+
+	for( int x = start; x < args.length; x++ ) {
+	    String[] option = args[ x ].split( DELIM, SPLIT_DEFAULT_LENGTH );
+	    if ( option.length != SPLIT_DEFAULT_LENGTH ) {
+		throw new ArgsException( "Options must be of the form name" +
+					 DELIM + "value: " + args[ x ] );
+	    } else if ( !known.contains( option[ 0 ] ) ) {
+		throw new ArgsException( "Unknown option: " + option[ 0 ] );
+	    } else if ( retval.containsKey( option[ 0 ] ) ) {
+		throw new ArgsException( "Option given twice: " + option[ 0 ] );
+	    }
+	    retval.put( option[ 0 ], option[ 1 ] );
+	}
+
+	return retval;
+    }
+
+    /**
+     * Checks that none of GLOBAL_OPTIONS are given, for runs that
+     * share a JVM with other runs.  Remote workers replace the
+     * evaluator every run uses, checkpoints save and restore the
+     * random number generators every run uses, and JMX names
+     * would collide.
+     * @param args command line arguments
+     * @exception ArgsException If an option is malformed or global
+     */
+    public static void rejectGlobalOptions( String[] args )
+	throws ArgsException {
+	Map< String, String > options = 
+	    readOptions( args, Math.min( args.length, NUM_REQUIRED_ARGS ) );
+
+	for( String name : GLOBAL_OPTIONS ) {
+	    if ( options.containsKey( name ) ) {
+		throw new ArgsException( "Runs sharing a JVM may not use " + name );
+	    }
+	}
+    }
+
+    /**
+     * Gets the value of an option, or the default if it wasn't given.
+     * @param options The options that were given
+     * @param name The name of the option
+     * @param defaultValue What to use if the option wasn't given
+     * @return The value of the option
+     */
+    public static String getOption( Map< String, String > options,
+				    String name,
+				    String defaultValue ) {
+	String retval = options.get( name );
+	return ( ( retval == null ) ? defaultValue : retval );
+    }
+
+    /**
+     * Gets the value of an option that must be given.
+     * @param options The options that were given
+     * @param name The name of the option
+     * @return The value of the option
+     * @exception ArgsException If the option wasn't given
+     */
+    public static String getRequiredOption( Map< String, String > options,
+					    String name )
+	throws ArgsException {
+	String retval = options.get( name );
+	if ( retval == null ) {
+	    throw new ArgsException( "Missing option: " + name );
+	}
+	return retval;
+    }
+
     /**
      * Creates a random individual.
      * @param arg The argument
@@ -121,13 +455,11 @@ public class RunGA {
     public static Individual createIndividual( String arg ) 
 	throws Exception {
 	String[] split = split( arg );
-	return (Individual)Class.forName( split[ 0 ] )
-	    .getConstructor( String.class )
-	    .newInstance( split[ 1 ] );
+	return Registry.makeIndividual( split[ 0 ], split[ 1 ] );
     }
 	    
     /**
-     * Creates a population.
+     * Creates a population, filled with random individuals.
      * @param indivArg the argument string for individuals
      * @param crossoverRate The rate of crossover
      * @param mutationRate The rate of mutation
@@ -146,6 +478,39 @@ public class RunGA {
 					     Selection survivalSelection,
 					     boolean lowGood ) 
 	throws Exception {
+	return makePopulation( indivArg,
+			       crossoverRate,
+			       mutationRate,
+			       elitism,
+			       maxPopulationSize,
+			       parentSelection,
+			       survivalSelection,
+			       lowGood,
+			       maxPopulationSize );
+    }
+
+    /**
+     * Creates a population.
+     * @param indivArg the argument string for individuals
+     * @param crossoverRate The rate of crossover
+     * @param mutationRate The rate of mutation
+     * @param elitism The rate of elitism
+     * @param maxPopulationSize The maximum population size
+     * @param parentSelection The parent selection mechanism
+     * @param survivalSelection The survival selection mechanism
+     * @param lowGood if low fitness is good or bad
+     * @param numIndividuals How many random individuals to start with
+     */
+    public static Population makePopulation( String indivArg,
+					     double crossoverRate,
+					     double mutationRate,
+					     double elitism,
+					     int maxPopulationSize,
+					     Selection parentSelection,
+					     Selection survivalSelection,
+					     boolean lowGood,
+					     int numIndividuals ) 
+	throws Exception {
 	Population retval;
 
 	if ( lowGood ) {
@@ -164,7 +529,7 @@ public class RunGA {
 				     survivalSelection );
 	}
 
-	for( int x = 0; x < maxPopulationSize; x++ ) {
+	for( int x = 0; x < numIndividuals; x++ ) {
 	    retval.addIndividual( createIndividual( indivArg ) );
 	}
 	return retval;
@@ -214,6 +579,68 @@ public class RunGA {
 	return retval;
     }
 
+    /**
+     * Reads in the number of islands.
+     * @param string The string
+     * @exception NumberFormatException If the given string isn't an integer
+     * @exception ArgsException If it's < 1.
+     */
+    public static int readIslands( String string )
+	throws NumberFormatException, ArgsException {
+	int retval = Integer.parseInt( string );
+	if ( retval < 1 ) {
+	    throw new ArgsException( "Number of islands must be >= 1." );
+	}
+	return retval;
+    }
+
+    /**
+     * Reads in the rank of this process among its peers.
+     * @param string The string
+     * @param numPeers The number of peers
+     * @exception NumberFormatException If the given string isn't an integer
+     * @exception ArgsException If it isn't one of the peers
+     */
+    public static int readRank( String string,
+				int numPeers )
+	throws NumberFormatException, ArgsException {
+	int retval = Integer.parseInt( string );
+	if ( retval < 0 || retval >= numPeers ) {
+	    throw new ArgsException( "Rank must be between 0 and " + 
+				     ( numPeers - 1 ) + "." );
+	}
+	return retval;
+    }
+
+    /**
+     * Reads in a genotype codec.
+     * @param className The name of the class
+     * @param indivParam The parameter given to individuals
+     */
+    public static GenotypeCodec readCodec( String className,
+					   String indivParam )
+	throws Exception {
+	return Registry.makeCodec( className, indivParam );
+    }
+
+    /**
+     * Reads in a printer.
+     * @param className The name of the class
+     */
+    public static EnvironmentPrinter readPrinter( String className )
+	throws Exception {
+	return Registry.makePrinter( className );
+    }
+
+    /**
+     * Reads in a migration topology.
+     * @param className The name of the class
+     */
+    public static MigrationTopology readTopology( String className )
+	throws Exception {
+	return Registry.makeTopology( className );
+    }
+
     /**
      * Reads in the terminator argument.
      * @param arg The argument
@@ -240,9 +667,7 @@ public class RunGA {
 					     long numGenerations,
 					     boolean lowGood )
 	throws Exception {
-	return (Terminator)Class.forName( className )
-	    .getConstructor( Long.TYPE, Boolean.TYPE )
-	    .newInstance( numGenerations, lowGood );
+	return Registry.makeTerminator( className, numGenerations, lowGood );
     }
 	    
     /**
@@ -253,9 +678,7 @@ public class RunGA {
     public static Selection readSelection( String className,
 					   boolean lowGood ) 
 	throws Exception {
-	return (Selection)Class.forName( className )
-	    .getConstructor( Boolean.TYPE )
-	    .newInstance( lowGood );
+	return Registry.makeSelection( className, lowGood );
     }
 
     /**
@@ -284,11 +707,16 @@ public class RunGA {
     }
 
     public static void main( String[] args ) {
+	if ( args.length < NUM_REQUIRED_ARGS ) {
+	    usage();
+	}
 	try {
 	    new RunGA( args ).start();
 	} catch ( Exception e ) {
 	    e.printStackTrace();
 	    System.err.println( e );
+	} finally {
+	    Individual.cleanup();
 	}
     }
 }
\ No newline at end of file
@@ -0,0 +1,297 @@
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Logs a record for every generation of every island to a file, as
+ * JSON Lines, or as CSV if the file name ends in CSV_SUFFIX, so a run
+ * can be graphed without picking apart what the printer printed.
+ * Each record has the columns in COLUMNS: the island and generation,
+ * the time since the GA started, statistics of the island's fitness,
+ * the number of different fitness values as a measure of diversity,
+ * the fitness evaluations done and how many were thrown away, and
+ * how long the generation and each of its phases took.
+ * <p>
+ * Islands are numbered as they are across every process.
+ * <p>
+ * The GA thread only puts records into a ring buffer; a background
+ * thread takes them out and writes them.  The number of different
+ * fitness values needs the values sorted, so the GA thread only
+ * copies them, and the background thread counts them.  The GA thread
+ * waits only if the background thread falls CAPACITY records behind.  If the file
+ * can't be written, the error is printed and records are dropped.
+ *
+ * @author Kyle Dewey
+ */
+public class RunLog implements EnvironmentListener {
+    // begin constants
+    public static final String CSV_SUFFIX = ".csv";
+    public static final int CAPACITY = 1024; // records waiting to be written
+    public static final long DRAIN_INTERVAL = 50000000; // ns between checks for records
+    public static final long FULL_WAIT = 1000000; // ns to wait when the buffer is full
+    public static final String[] COLUMNS = { "island",
+                                             "generation",
+                                             "elapsedMs",
+                                             "size",
+                                             "best",
+                                             "worst",
+                                             "mean",
+                                             "sd",
+                                             "distinct",
+                                             "evaluations",
+                                             "totalEvaluations",
+                                             "discarded",
+                                             "generationMs",
+                                             "parentSelectionMs",
+                                             "crossoverMs",
+                                             "mutationMs",
+                                             "elitismMs",
+                                             "fitnessWaitMs",
+                                             "survivalSelectionMs" };
+    public static final int DISTINCT_COLUMN = 8; // where "distinct" is in COLUMNS
+    // end constants
+
+    // begin instance variables
+    private File file; // where the log goes
+    private boolean csv; // CSV instead of JSON Lines
+    private RingBuffer< Object[] > records; // values of each record, as in COLUMNS
+    private Thread writer; // writes out the records
+    private volatile boolean done; // no more records will come
+    private volatile boolean failed; // the file couldn't be written
+    private long startTime; // when the GA started, in ns
+    private long[] lastGenerations; // generation last logged, per island
+    private long[] lastEvaluations; // total evaluations last logged, per island
+    // end instance variables
+
+    /**
+     * Creates a new log.  Nothing is written until the GA starts.
+     *
+     * @param file Where the log goes; CSV if it ends in CSV_SUFFIX,
+     *        else JSON Lines
+     */
+    public RunLog( File file ) {
+        this.file = file;
+        csv = file.getName().endsWith( CSV_SUFFIX );
+        records = new RingBuffer< Object[] >( CAPACITY );
+        done = false;
+        failed = false;
+    }
+
+    /**
+     * Starts the background thread, and logs the starting population.
+     *
+     * @param environment The environment being run
+     */
+    public void gaStarted( Environment environment ) {
+        int numIslands = environment.getIslands().size();
+
+        startTime = System.nanoTime();
+        lastGenerations = new long[ numIslands ];
+        lastEvaluations = new long[ numIslands ];
+        Arrays.fill( lastGenerations, -1 );
+        writer = new Thread( new Runnable() {
+                public void run() {
+                    writeRecords();
+                }
+            }, "run-log-writer" );
+        writer.setDaemon( true );
+        writer.start();
+        logIslands( environment );
+    }
+
+    /**
+     * Logs the generation of each island that has had a new one.
+     *
+     * @param environment The environment being run
+     */
+    public void generationDone( Environment environment ) {
+        logIslands( environment );
+    }
+
+    /**
+     * Waits for every record to be written, and closes the file.
+     *
+     * @param environment The environment being run
+     */
+    public void gaEnded( Environment environment ) {
+        done = true;
+        LockSupport.unpark( writer );
+        try {
+            writer.join();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Puts a record in the buffer for each island whose generation
+     * hasn't been logged yet.
+     *
+     * @param environment The environment being run
+     */
+    private void logIslands( Environment environment ) {
+        List< Environment > islands = environment.getIslands();
+        int firstIsland = environment.getFirstIsland();
+
+        for( int x = 0; x < islands.size() && !failed; x++ ) {
+            Population population = islands.get( x ).getPopulation();
+            long generation = population.getCurrentGeneration();
+            if ( generation != lastGenerations[ x ] ) {
+                lastGenerations[ x ] = generation;
+                add( makeRecord( x, firstIsland + x, population ) );
+            }
+        }
+        LockSupport.unpark( writer );
+    }
+
+    /**
+     * Gets the values of a record for an island.  In place of the
+     * number of different fitness values is a copy of the fitness
+     * values, for the background thread to count.
+     *
+     * @param position The position of the island in this environment
+     * @param island The global number of the island
+     * @param population The island's population
+     *
+     * @return The values, in the order of COLUMNS
+     */
+    private Object[] makeRecord( int position,
+                                 int island,
+                                 Population population ) {
+        FitnessStats stats = population.getStats();
+        GenerationMetrics metrics = population.getMetrics();
+        long evaluations = population.getNumEvaluations();
+        Object[] retval = { island,
+                            population.getCurrentGeneration(),
+                            ( System.nanoTime() - startTime ) / 1000000,
+                            stats.getCount(),
+                            stats.getBest(),
+                            stats.getWorst(),
+                            stats.getMean(),
+                            stats.getStandardDeviation(),
+                            stats.copyValues(),
+                            evaluations - lastEvaluations[ position ],
+                            evaluations,
+                            metrics.getNumDiscarded(),
+                            population.getGenerationTime(),
+                            toMs( metrics.getTime( GenerationMetrics.Phase.PARENT_SELECTION ) ),
+                            toMs( metrics.getTime( GenerationMetrics.Phase.CROSSOVER ) ),
+                            toMs( metrics.getTime( GenerationMetrics.Phase.MUTATION ) ),
+                            toMs( metrics.getTime( GenerationMetrics.Phase.ELITISM ) ),
+                            toMs( metrics.getTime( GenerationMetrics.Phase.FITNESS_WAIT ) ),
+                            toMs( metrics.getTime( GenerationMetrics.Phase.SURVIVAL_SELECTION ) ) };
+
+        lastEvaluations[ position ] = evaluations;
+        return retval;
+    }
+
+    /**
+     * Converts a time from ns to ms.
+     *
+     * @param time The time, in ns
+     *
+     * @return The time, in ms
+     */
+    private static double toMs( long time ) {
+        return time / 1e6;
+    }
+
+    /**
+     * Puts a record in the buffer, waiting for room if it is full.
+     *
+     * @param record The values of the record
+     */
+    private void add( Object[] record ) {
+        while ( !records.offer( record ) && !failed ) {
+            LockSupport.unpark( writer );
+            LockSupport.parkNanos( FULL_WAIT );
+        }
+    }
+
+    /**
+     * Run in the background.  Writes out records as they come,
+     * until the GA has ended and every record has been written.
+     */
+    private void writeRecords() {
+        Writer out = null;
+
+        try {
+            out = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( file ),
+                                                              StandardCharsets.UTF_8 ) );
+            if ( csv ) {
+                out.write( String.join( ",", COLUMNS ) );
+                out.write( '\n' );
+            }
+            while ( true ) {
+                // read before draining, so nothing added before the end is missed
+                boolean last = done;
+                Object[] record;
+                while ( ( record = records.poll() ) != null ) {
+                    record[ DISTINCT_COLUMN ] =
+                        FitnessStats.countDistinct( (double[])record[ DISTINCT_COLUMN ] );
+                    writeRecord( record, out );
+                }
+                out.flush();
+                if ( last ) {
+                    break;
+                }
+                LockSupport.parkNanos( DRAIN_INTERVAL );
+            }
+        } catch ( IOException e ) {
+            failed = true;
+            System.err.println( e );
+        } finally {
+            if ( out != null ) {
+                try {
+                    out.close();
+                } catch ( IOException e ) {
+                    System.err.println( e );
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes out a single record, as a line of CSV or JSON.
+     *
+     * @param record The values of the record
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    private void writeRecord( Object[] record, Writer out )
+        throws IOException {
+        if ( !csv ) {
+            out.write( '{' );
+        }
+        for( int x = 0; x < record.length; x++ ) {
+            if ( x > 0 ) {
+                out.write( ',' );
+            }
+            if ( !csv ) {
+                out.write( '"' );
+                out.write( COLUMNS[ x ] );
+                out.write( "\":" );
+            }
+            out.write( formatValue( record[ x ] ) );
+        }
+        out.write( csv ? "\n" : "}\n" );
+    }
+
+    /**
+     * Formats a value of a record.  Values that aren't finite
+     * numbers are written as null in JSON, and left empty in CSV.
+     *
+     * @param value The value
+     *
+     * @return The value as text
+     */
+    private String formatValue( Object value ) {
+        if ( value instanceof Double &&
+             !Double.isFinite( (Double)value ) ) {
+            return ( csv ) ? "" : "null";
+        }
+        return value.toString();
+    }
+}
@@ -16,6 +16,7 @@
  */
 
 import java.util.*; // for lists
+import java.util.concurrent.*; // for drawing in parallel
 
 /**
  * Interface that defines a selection mechanism.
@@ -27,9 +28,13 @@ import java.util.*; // for lists
  * @author Kyle Dewey
  */
 public abstract class Selection< T extends Individual > {
+    // begin constants
+    public static final int DRAWS_PER_JOB = 4096;
+    // end constants
+
     // begin global variables
     private boolean lowGood;
-    protected static final Random random = new Random();
+    protected static final RestorableRandom random = new RestorableRandom();
     // end global variables
 
     /**
@@ -78,6 +83,147 @@ public abstract class Selection< T extends Individual > {
                                  lowGood );
     }
 
+    /**
+     * Gets the individuals who are to survive in the given list,
+     * whose fitnesses are already known, as with the fitness column
+     * of a population.  Selection mechanisms that compare fitness
+     * should override this, and read fitness from the array.  By
+     * default, the fitnesses are ignored.
+     *
+     * @param list The list of individuals
+     * @param fitnesses The fitness of each individual, in order;
+     *        not modified
+     * @param fixed How many individuals we want to get out
+     * @param lowGood true if low fitness values are better than
+     *        high fitness values, else false
+     *
+     * @return A list of individuals who have survived selection
+     */
+    public List< T > performSelection( List< T > list,
+                                       double[] fitnesses,
+                                       int fixed,
+                                       boolean lowGood ) {
+        return performSelection( list,
+                                 fixed,
+                                 lowGood );
+    }
+
+    /**
+     * Like the other, except as to whether or not low
+     * values for fitness are good is determined by stored lowGood value.
+     *
+     * @param list The list of individuals
+     * @param fitnesses The fitness of each individual, in order;
+     *        not modified
+     * @param fixed How many individuals we want to get out
+     *
+     * @return A list of individuals who have survived selection
+     */
+    public List< T > performSelection( List< T > list,
+                                       double[] fitnesses,
+                                       int fixed ) {
+        return performSelection( list,
+                                 fitnesses,
+                                 fixed,
+                                 lowGood );
+    }
+
+    /**
+     * Gets the fitness of each of the given individuals, in order.
+     * Selection mechanisms compare fitness many times, so it is
+     * read once into an array, rather than each time through
+     * getFitness(), which may have to wait on a calculation.
+     *
+     * @param list The individuals
+     *
+     * @return The fitness of each individual
+     */
+    public static < T extends Individual > double[] getFitnesses( List< T > list ) {
+        double[] retval = new double[ list.size() ];
+        int x = 0;
+
+        for( T individual : list ) {
+            retval[ x++ ] = individual.getFitness();
+        }
+
+        return retval;
+    }
+
+    /**
+     * Picks an individual at random, by position.
+     */
+    public static interface Drawer {
+        /**
+         * Picks the position of an individual.  May be called from
+         * many threads at once, each with its own random numbers.
+         *
+         * @param random Where random numbers come from
+         *
+         * @return The position of the individual picked
+         */
+        public int draw( SplittableRandom random );
+    }
+
+    /**
+     * Picks the given number of individuals, each by the given
+     * drawer.  Draws are split into jobs of DRAWS_PER_JOB, which run
+     * in parallel when there is more than one.  Each job's random
+     * numbers are seeded from the shared generator, in order, so the
+     * result doesn't depend on how many threads there are.
+     *
+     * @param list The individuals to pick from
+     * @param number How many to pick; not negative
+     * @param drawer Picks an individual
+     *
+     * @return The individuals picked, with repeats
+     */
+    public static < T extends Individual > List< T > draw( final List< T > list,
+                                                          int number,
+                                                          final Drawer drawer ) {
+        final int[] picked = new int[ number ];
+        int numJobs = ( number + DRAWS_PER_JOB - 1 ) / DRAWS_PER_JOB;
+        List< Callable< Object > > jobs = new ArrayList< Callable< Object > >( numJobs );
+
+        for( int job = 0; job < numJobs; job++ ) {
+            final int start = job * DRAWS_PER_JOB;
+            final int end = Math.min( number, start + DRAWS_PER_JOB );
+            final SplittableRandom jobRandom = new SplittableRandom( random.nextLong() );
+            jobs.add( new Callable< Object >() {
+                    public Object call() {
+                        for( int x = start; x < end; x++ ) {
+                            picked[ x ] = drawer.draw( jobRandom );
+                        }
+                        return null;
+                    }
+                } );
+        }
+
+        if ( numJobs == 1 ) {
+            try {
+                jobs.get( 0 ).call();
+            } catch ( Exception e ) {
+                throw new RuntimeException( e );
+            }
+        } else {
+            for( Future< Object > result : ForkJoinPool.commonPool().invokeAll( jobs ) ) {
+                try {
+                    result.get();
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException( e );
+                } catch ( ExecutionException e ) {
+                    throw new RuntimeException( e.getCause() );
+                }
+            }
+        }
+
+        List< T > retval = new ArrayList< T >( number );
+        for( int x = 0; x < number; x++ ) {
+            retval.add( list.get( picked[ x ] ) );
+        }
+        return retval;
+    }
+
     /**
      * Given a probability between 0-1, it will get whether or not a choice
      * is made.  This is stochastic.
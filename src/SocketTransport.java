@@ -0,0 +1,316 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.net.*;
+import java.lang.reflect.Constructor;
+
+/**
+ * Carries migrants between islands in different processes over TCP.
+ * Each process hosts the same number of islands, and is listed in
+ * the same order in every process's list of peers.  Process n hosts
+ * islands n * islandsPerProcess through (n + 1) * islandsPerProcess - 1.
+ * Genotypes are sent with a GenotypeCodec; migrants are rebuilt as
+ * new individuals on arrival, so their fitness is recalculated there.
+ * <p>
+ * Sending only queues up migrants; background threads connect to
+ * peers, write migrants out, and read incoming migrants in.  If a peer
+ * can't be reached its migrants are dropped, which a GA tolerates.
+ * <p>
+ * Each process listens only at its own address in the list of peers.
+ * A connection that sends migrants for an island that isn't hosted
+ * here, or more migrants at once than MAX_MIGRANTS, is dropped.
+ *
+ * @author Kyle Dewey
+ */
+public class SocketTransport extends LocalTransport {
+    // begin constants
+    public static final int MAX_PENDING = 64; // per peer, before old migrants are dropped
+    public static final int CONNECT_TIMEOUT = 5000; // in ms
+    public static final long RETRY_DELAY = 1000; // in ms
+    public static final int MAX_MIGRANTS = 1 << 20; // most accepted in one message
+    // end constants
+
+    // begin instance variables
+    private List< InetSocketAddress > peers; // every process, including this one
+    private int rank; // which of the peers this process is
+    private int islandsPerProcess;
+    private GenotypeCodec codec; // for reading and writing genotypes
+    private Constructor< ? extends Individual > makeIndividual; // builds migrants
+    private List< BlockingQueue< Pair< Integer, List< Individual > > > > outboxes;
+    private List< Thread > threads; // background senders and receivers
+    private Set< Socket > connections; // peers that connected to us
+    private ServerSocket server;
+    private volatile boolean closed;
+    // end instance variables
+
+    /**
+     * Creates a new transport, and starts listening for migrants
+     * at this process's address, as given in the list of peers.
+     *
+     * @param peers The address of every process, in rank order
+     * @param rank Which of the peers this process is
+     * @param islandsPerProcess Number of islands each process hosts
+     * @param codec Reads and writes genotypes
+     * @param individualClass Class of migrants that arrive.  Must have
+     *        a constructor that takes a Genotype.
+     *
+     * @exception IOException If we could not listen at our address
+     * @exception NoSuchMethodException If the individual class lacks
+     *            a constructor that takes a Genotype
+     */
+    public SocketTransport( List< InetSocketAddress > peers,
+                            int rank,
+                            int islandsPerProcess,
+                            GenotypeCodec codec,
+                            Class< ? extends Individual > individualClass )
+        throws IOException, NoSuchMethodException {
+        this.peers = new ArrayList< InetSocketAddress >( peers );
+        this.rank = rank;
+        this.islandsPerProcess = islandsPerProcess;
+        this.codec = codec;
+        makeIndividual = individualClass.getConstructor( Genotype.class );
+        threads = new CopyOnWriteArrayList< Thread >();
+        connections = Collections.synchronizedSet( new HashSet< Socket >() );
+        closed = false;
+
+        server = new ServerSocket();
+        server.setReuseAddress( true );
+        server.bind( peers.get( rank ) );
+        startThread( "migration-acceptor",
+                     new Runnable() {
+                         public void run() {
+                             acceptPeers();
+                         }
+                     } );
+
+        outboxes = new ArrayList< BlockingQueue< Pair< Integer, List< Individual > > > >();
+        for( int x = 0; x < peers.size(); x++ ) {
+            final int peer = x;
+            final BlockingQueue< Pair< Integer, List< Individual > > > outbox =
+                new LinkedBlockingQueue< Pair< Integer, List< Individual > > >( MAX_PENDING );
+
+            outboxes.add( outbox );
+            if ( peer != rank ) {
+                startThread( "migration-sender-" + peer,
+                             new Runnable() {
+                                 public void run() {
+                                     sendToPeer( peer, outbox );
+                                 }
+                             } );
+            }
+        }
+    }
+
+    /**
+     * Starts a daemon thread, keeping track of it for close().
+     *
+     * @param name The name of the thread
+     * @param job What the thread runs
+     */
+    private void startThread( String name, Runnable job ) {
+        Thread thread = new Thread( job, name );
+        thread.setDaemon( true );
+        threads.add( thread );
+        thread.start();
+    }
+
+    /**
+     * Parses a list of peers of the form host:port,host:port,...
+     *
+     * @param string The list of peers
+     *
+     * @return The address of each peer, in order
+     *
+     * @exception ArgsException If a peer is malformed
+     */
+    public static List< InetSocketAddress > parsePeers( String string )
+        throws ArgsException {
+        List< InetSocketAddress > retval = new ArrayList< InetSocketAddress >();
+
+        for( String peer : string.split( "," ) ) {
+            String[] split = RunGA.split( peer );
+            try {
+                retval.add( new InetSocketAddress( split[ 0 ],
+                                                   Integer.parseInt( split[ 1 ] ) ) );
+            } catch ( IllegalArgumentException e ) {
+                throw new ArgsException( "Bad peer address: " + peer );
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * Sends migrants to the given island.  Migrants for islands in
+     * this process skip the network.
+     *
+     * @param destination The island the migrants go to
+     * @param migrants The migrants
+     */
+    public void send( int destination, List< Individual > migrants ) {
+        int peer = destination / islandsPerProcess;
+
+        if ( peer == rank ) {
+            super.send( destination, migrants );
+        } else {
+            BlockingQueue< Pair< Integer, List< Individual > > > outbox = outboxes.get( peer );
+            Pair< Integer, List< Individual > > message =
+                new Pair< Integer, List< Individual > >( destination,
+                                                         new ArrayList< Individual >( migrants ) );
+
+            // if the peer is falling behind, favor newer migrants
+            while ( !outbox.offer( message ) ) {
+                outbox.poll();
+            }
+        }
+    }
+
+    /**
+     * Run by the sender thread for a peer.  Writes out queued
+     * migrants, reconnecting as needed.
+     *
+     * @param peer Which peer to send to
+     * @param outbox Migrants waiting to go to the peer
+     */
+    private void sendToPeer( int peer,
+                             BlockingQueue< Pair< Integer, List< Individual > > > outbox ) {
+        Socket socket = null;
+        DataOutputStream output = null;
+
+        while ( !closed ) {
+            Pair< Integer, List< Individual > > message;
+
+            try {
+                message = outbox.take();
+            } catch ( InterruptedException e ) {
+                break;
+            }
+
+            try {
+                if ( output == null ) {
+                    socket = new Socket();
+                    socket.setTcpNoDelay( true );
+                    socket.connect( peers.get( peer ), CONNECT_TIMEOUT );
+                    output = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream() ) );
+                }
+                output.writeInt( message.first );
+                output.writeInt( message.second.size() );
+                for( Individual current : message.second ) {
+                    codec.write( current.getPhenotype(), output );
+                }
+                output.flush();
+            } catch ( IOException e ) {
+                if ( !closed ) {
+                    System.err.println( "Dropped migrants for peer " + peer + ": " + e );
+                }
+                closeQuietly( socket );
+                socket = null;
+                output = null;
+                try {
+                    Thread.sleep( RETRY_DELAY );
+                } catch ( InterruptedException ie ) {
+                    break;
+                }
+            }
+        }
+
+        closeQuietly( socket );
+    }
+
+    /**
+     * Run by the acceptor thread.  Starts a receiver for every
+     * peer that connects.
+     */
+    private void acceptPeers() {
+        while ( !closed ) {
+            try {
+                final Socket socket = server.accept();
+                connections.add( socket );
+                startThread( "migration-receiver-" + socket.getRemoteSocketAddress(),
+                             new Runnable() {
+                                 public void run() {
+                                     receiveFromPeer( socket );
+                                 }
+                             } );
+            } catch ( IOException e ) {
+                if ( !closed ) {
+                    System.err.println( "Could not accept migrants: " + e );
+                }
+            }
+        }
+    }
+
+    /**
+     * Run by the receiver thread for a connection.  Reads in
+     * migrants until the peer disconnects.
+     *
+     * @param socket The connection to the peer
+     */
+    private void receiveFromPeer( Socket socket ) {
+        try {
+            DataInputStream input =
+                new DataInputStream( new BufferedInputStream( socket.getInputStream() ) );
+
+            while ( !closed ) {
+                int destination = input.readInt();
+                int count = input.readInt();
+                List< Individual > migrants;
+
+                if ( destination < 0 || destination / islandsPerProcess != rank ) {
+                    throw new IOException( "Migrants for island " + destination +
+                                           ", which isn't hosted here" );
+                } else if ( count < 0 || count > MAX_MIGRANTS ) {
+                    throw new IOException( "Bad number of migrants: " + count );
+                }
+                migrants = new ArrayList< Individual >( count );
+
+                for( int x = 0; x < count; x++ ) {
+                    migrants.add( makeIndividual.newInstance( codec.read( input ) ) );
+                }
+                super.send( destination, migrants );
+            }
+        } catch ( EOFException e ) {
+            // peer went away
+        } catch ( Exception e ) {
+            if ( !closed ) {
+                System.err.println( "Bad migrants from " +
+                                    socket.getRemoteSocketAddress() + ": " + e );
+            }
+        } finally {
+            connections.remove( socket );
+            closeQuietly( socket );
+        }
+    }
+
+    /**
+     * Closes a socket, ignoring errors.
+     *
+     * @param socket The socket to close; may be null
+     */
+    private static void closeQuietly( Socket socket ) {
+        if ( socket != null ) {
+            try {
+                socket.close();
+            } catch ( IOException e ) {}
+        }
+    }
+
+    /**
+     * Stops listening and sending.  Migrants that haven't been
+     * sent yet are dropped.
+     */
+    public void close() {
+        closed = true;
+        try {
+            server.close();
+        } catch ( IOException e ) {}
+        for( Thread thread : threads ) {
+            thread.interrupt();
+        }
+        synchronized( connections ) {
+            for( Socket socket : connections ) {
+                closeQuietly( socket );
+            }
+        }
+    }
+}
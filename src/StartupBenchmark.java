@@ -0,0 +1,187 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * Measures how long it takes from launching a JVM until the first
+ * generation of a GA is done, with and without a class data sharing
+ * archive of the framework classes.  If the archive doesn't exist
+ * yet, it is made first, by a run that dumps the classes it loaded
+ * when it exits.  Runs with and without the archive alternate, so
+ * neither is favored by whatever else the machine is doing.
+ * <p>
+ * The time is taken by this process, from just before the child
+ * is started until it reports its first generation, so JVM startup
+ * itself is included.
+ *
+ * @author Kyle Dewey
+ */
+public class StartupBenchmark {
+    // begin constants
+    public static final String CHILD = "child";
+    public static final String FIRST_GENERATION = "first-generation";
+    public static final int DEFAULT_NUM_RUNS = 10;
+    // end constants
+
+    /**
+     * Prints usage information for the benchmark.
+     */
+    public static void usage() {
+        System.out.println( "Takes the following params:\n" +
+                            "archive file (made if it doesn't exist)\n" +
+                            "number of runs of each kind\n" +
+                            "the parameters to RunGA\n" );
+    }
+
+    /**
+     * Starts a child JVM that runs the GA until its first generation.
+     *
+     * @param jvmOption An option for the child JVM, or null for none
+     * @param gaArgs The parameters to RunGA
+     *
+     * @return The child process
+     *
+     * @exception IOException If the process couldn't be started
+     */
+    public static Process startChild( String jvmOption,
+                                      String[] gaArgs )
+        throws IOException {
+        List< String > command = new ArrayList< String >();
+
+        command.add( System.getProperty( "java.home" ) +
+                     File.separator + "bin" + File.separator + "java" );
+        if ( jvmOption != null ) {
+            command.add( jvmOption );
+        }
+        command.add( "-cp" );
+        command.add( System.getProperty( "java.class.path" ) );
+        command.add( "StartupBenchmark" );
+        command.add( CHILD );
+        command.addAll( Arrays.asList( gaArgs ) );
+
+        ProcessBuilder builder = new ProcessBuilder( command );
+        builder.redirectError( ProcessBuilder.Redirect.INHERIT );
+        return builder.start();
+    }
+
+    /**
+     * Runs a child JVM to its first generation.
+     *
+     * @param jvmOption An option for the child JVM, or null for none
+     * @param gaArgs The parameters to RunGA
+     *
+     * @return The time from starting the child until its first
+     *         generation was done, in ns
+     *
+     * @exception IOException If the child didn't reach its first
+     *            generation
+     * @exception InterruptedException If interrupted waiting for the child
+     */
+    public static long timeChild( String jvmOption,
+                                  String[] gaArgs )
+        throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process child = startChild( jvmOption, gaArgs );
+        BufferedReader input =
+            new BufferedReader( new InputStreamReader( child.getInputStream() ) );
+        String line;
+
+        while ( ( line = input.readLine() ) != null &&
+                !line.equals( FIRST_GENERATION ) );
+        long retval = System.nanoTime() - start;
+
+        if ( child.waitFor() != 0 || line == null ) {
+            throw new IOException( "Child failed with option " + jvmOption );
+        }
+        return retval;
+    }
+
+    /**
+     * Gets the median of the given times.
+     *
+     * @param times The times
+     *
+     * @return The median
+     */
+    public static long median( List< Long > times ) {
+        List< Long > sorted = new ArrayList< Long >( times );
+        Collections.sort( sorted );
+        return sorted.get( sorted.size() / 2 );
+    }
+
+    /**
+     * Prints the results for one kind of run.
+     *
+     * @param name What kind of run it was
+     * @param times The times of the runs, in ns
+     */
+    public static void printResults( String name,
+                                     List< Long > times ) {
+        System.out.printf( "%-14s median %8.1f ms   min %8.1f ms   max %8.1f ms\n",
+                           name,
+                           median( times ) / 1e6,
+                           Collections.min( times ) / 1e6,
+                           Collections.max( times ) / 1e6 );
+    }
+
+    /**
+     * Run in the child.  Runs the GA with its output thrown away,
+     * and exits as soon as the first generation is done.
+     *
+     * @param gaArgs The parameters to RunGA
+     *
+     * @exception Exception If the GA couldn't be made
+     */
+    public static void child( String[] gaArgs )
+        throws Exception {
+        RunGA ga = new RunGA( gaArgs );
+
+        ga.getEnvironment().setOutput( new PrintStream( OutputStream.nullOutputStream() ) );
+        ga.getEnvironment().addListener( new EnvironmentListener() {
+                public void gaStarted( Environment environment ) {}
+                public void generationDone( Environment environment ) {
+                    System.out.println( FIRST_GENERATION );
+                    System.out.flush();
+                    // exit normally, so an archive is written if asked for
+                    System.exit( 0 );
+                }
+                public void gaEnded( Environment environment ) {}
+            } );
+        ga.start();
+    }
+
+    public static void main( String[] args ) {
+        try {
+            if ( args.length > 0 && args[ 0 ].equals( CHILD ) ) {
+                child( Arrays.copyOfRange( args, 1, args.length ) );
+                return;
+            }
+            if ( args.length < 2 + RunGA.NUM_REQUIRED_ARGS ) {
+                usage();
+                System.exit( 1 );
+            }
+
+            File archive = new File( args[ 0 ] );
+            int numRuns = Integer.parseInt( args[ 1 ] );
+            String[] gaArgs = Arrays.copyOfRange( args, 2, args.length );
+            List< Long > plain = new ArrayList< Long >();
+            List< Long > shared = new ArrayList< Long >();
+
+            if ( !archive.exists() ) {
+                System.out.println( "Making archive " + archive );
+                timeChild( "-XX:ArchiveClassesAtExit=" + archive.getPath(), gaArgs );
+            }
+
+            for( int x = 0; x < numRuns; x++ ) {
+                plain.add( timeChild( null, gaArgs ) );
+                shared.add( timeChild( "-XX:SharedArchiveFile=" + archive.getPath(),
+                                       gaArgs ) );
+            }
+
+            printResults( "without archive", plain );
+            printResults( "with archive", shared );
+        } catch ( Exception e ) {
+            System.err.println( e );
+            System.exit( 1 );
+        }
+    }
+}
@@ -0,0 +1,46 @@
+import java.io.IOException;
+
+/**
+ * A printer that writes what it prints straight to where the output
+ * goes, rather than building it up as one string first.  Printers that
+ * print whole populations should be streaming printers, so the output
+ * of a large population is never all in memory at once.  Environments
+ * use these methods in place of EnvironmentPrinter's for printers that
+ * have them.
+ *
+ * @author Kyle Dewey
+ */
+public interface StreamingPrinter extends EnvironmentPrinter {
+    /**
+     * Writes what should be printed at the start of the GA.
+     *
+     * @param environment The environment to print out
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void writeGAStart( Environment environment,
+                              Appendable out ) throws IOException;
+
+    /**
+     * Writes what should be printed at the end of each generation.
+     *
+     * @param environment The environment to print out
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void writeGAGeneration( Environment environment,
+                                   Appendable out ) throws IOException;
+
+    /**
+     * Writes what should be printed at the end of the GA.
+     *
+     * @param environment The environment to print out
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void writeGAEnd( Environment environment,
+                            Appendable out ) throws IOException;
+}
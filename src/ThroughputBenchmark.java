@@ -0,0 +1,792 @@
+import java.util.*;
+import java.io.*;
+import java.lang.management.*;
+import java.net.*;
+import java.nio.file.Files;
+
+/**
+ * Times whole GA runs, where Benchmarks times single operations.
+ * Each configuration in a suite is run in its own JVM, with a fixed
+ * heap, on an alignment made by MSAGenerator, and measured after its
+ * first few generations so that start-up and JIT compilation aren't
+ * counted.  Reported for each configuration are generations and
+ * fitness evaluations per second, the rate at which memory was
+ * allocated, and the most heap used.
+ * <p>
+ * A suite is a file with a configuration on each line; blank lines
+ * and lines starting with '#' are ignored:
+ * <pre>
+ * &lt;name&gt; &lt;taxa&gt; &lt;sites&gt; &lt;workers&gt; &lt;RunGA parameters&gt;
+ * </pre>
+ * The RunGA parameters are all but the individual, which is filled in
+ * with a PhylogeneticTreeIndividual on the alignment of the given
+ * size, followed by any options.  With workers of 0 fitness is
+ * calculated in the JVM running the GA; otherwise that many
+ * FitnessWorkers are started on this host, and the GA is pointed at
+ * them.  Without a suite, DEFAULT_SUITE is run.
+ * <p>
+ * Each configuration is run a number of times, and the run with the
+ * median generations per second is kept.  The results are written to
+ * a file as a header line and a line for each configuration, separated
+ * by tabs, in the order of COLUMNS.  Given a baseline, which is the
+ * results file of an earlier run, the exit status is 1 if any
+ * configuration's generations or evaluations per second fell by more
+ * than the threshold from the baseline's.
+ * <p>
+ * Memory allocated is summed over the threads that are alive at the
+ * end of the measured generations, so memory allocated by threads
+ * that had ended by then isn't counted.  The heap used is the sum of
+ * the peak usage of each heap pool.
+ *
+ * @author Kyle Dewey
+ */
+public class ThroughputBenchmark {
+    // begin constants
+    public static final String CHILD = "child";
+    public static final String RESULT = "result";
+    public static final String COMMENT = "#";
+    public static final String SEPARATOR = "\t";
+    public static final String[] OPTIONS = { "suite",
+                                             "baseline",
+                                             "threshold",
+                                             "repeats",
+                                             "warmup",
+                                             "heap" };
+    public static final String[] COLUMNS = { "name",
+                                             "generations",
+                                             "seconds",
+                                             "generationsPerSecond",
+                                             "evaluationsPerSecond",
+                                             "allocatedBytesPerSecond",
+                                             "peakHeapBytes" };
+    public static final String[] DEFAULT_SUITE = {
+        "roulette-truncation 24 500 0 0.5 0.1 0.1 100 RouletteWheelSelection TruncationSelection NumGenerationsTerminator:15 true",
+        "binary-truncation 24 500 0 0.5 0.1 0.1 100 BinaryTournamentSelection TruncationSelection NumGenerationsTerminator:15 true",
+        "tournament-tournament 24 500 0 0.5 0.1 0.1 100 TournamentSelection:4 TournamentSelection:4 NumGenerationsTerminator:15 true",
+        "large-population 24 500 0 0.5 0.1 0.1 400 BinaryTournamentSelection TruncationSelection NumGenerationsTerminator:10 true",
+        "islands 24 500 0 0.5 0.1 0.1 100 BinaryTournamentSelection TruncationSelection NumGenerationsTerminator:15 true islands:4",
+        "remote-workers 24 500 2 0.5 0.1 0.1 100 BinaryTournamentSelection TruncationSelection NumGenerationsTerminator:15 true" };
+    public static final int NUM_SUITE_COLUMNS = 4; // before the RunGA parameters
+    public static final double DEFAULT_THRESHOLD = 0.1;
+    public static final int DEFAULT_REPEATS = 3;
+    public static final int DEFAULT_WARMUP = 3; // generations not measured
+    public static final String DEFAULT_HEAP = "1g";
+    public static final String CODEC = "PhylogeneticTreeCodec";
+    // end constants
+
+    /**
+     * The measurements of one run.
+     */
+    public static class Result {
+        private String name;
+        private long generations; // measured
+        private double seconds;
+        private double generationsPerSecond;
+        private double evaluationsPerSecond;
+        private double allocatedBytesPerSecond; // -1 if the JVM can't tell
+        private long peakHeapBytes;
+
+        /**
+         * Creates a new result.
+         *
+         * @param name The name of the configuration
+         * @param generations The generations measured
+         * @param seconds How long they took
+         * @param evaluations Fitness evaluations done in them
+         * @param allocatedBytes Memory allocated in them, or -1 if unknown
+         * @param peakHeapBytes The most heap used in them
+         */
+        public Result( String name,
+                       long generations,
+                       double seconds,
+                       long evaluations,
+                       long allocatedBytes,
+                       long peakHeapBytes ) {
+            this( name,
+                  generations,
+                  seconds,
+                  generations / seconds,
+                  evaluations / seconds,
+                  ( allocatedBytes < 0 ) ? -1 : allocatedBytes / seconds,
+                  peakHeapBytes );
+        }
+
+        /**
+         * Creates a new result, from its rates.
+         *
+         * @param name The name of the configuration
+         * @param generations The generations measured
+         * @param seconds How long they took
+         * @param generationsPerSecond Generations per second
+         * @param evaluationsPerSecond Fitness evaluations per second
+         * @param allocatedBytesPerSecond Memory allocated per second,
+         *        or -1 if unknown
+         * @param peakHeapBytes The most heap used
+         */
+        public Result( String name,
+                       long generations,
+                       double seconds,
+                       double generationsPerSecond,
+                       double evaluationsPerSecond,
+                       double allocatedBytesPerSecond,
+                       long peakHeapBytes ) {
+            this.name = name;
+            this.generations = generations;
+            this.seconds = seconds;
+            this.generationsPerSecond = generationsPerSecond;
+            this.evaluationsPerSecond = evaluationsPerSecond;
+            this.allocatedBytesPerSecond = allocatedBytesPerSecond;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        /**
+         * Gets the name of the configuration.
+         *
+         * @return The name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of generations per second.
+         *
+         * @return The rate
+         */
+        public double getGenerationsPerSecond() {
+            return generationsPerSecond;
+        }
+
+        /**
+         * Gets the number of fitness evaluations per second.
+         *
+         * @return The rate
+         */
+        public double getEvaluationsPerSecond() {
+            return evaluationsPerSecond;
+        }
+
+        /**
+         * Gets the number of bytes allocated per second.
+         *
+         * @return The rate, or -1 if unknown
+         */
+        public double getAllocatedBytesPerSecond() {
+            return allocatedBytesPerSecond;
+        }
+
+        /**
+         * Gets the most heap used.
+         *
+         * @return The heap used, in bytes
+         */
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        /**
+         * Represents the result as a line of the results file, or as
+         * sent from the child to the parent.  Values are written in
+         * full, so a result read back in compares equal to itself.
+         *
+         * @return The values in the order of COLUMNS, separated by tabs
+         */
+        public String toString() {
+            return name + SEPARATOR + generations + SEPARATOR +
+                seconds + SEPARATOR +
+                generationsPerSecond + SEPARATOR +
+                evaluationsPerSecond + SEPARATOR +
+                allocatedBytesPerSecond + SEPARATOR +
+                peakHeapBytes;
+        }
+
+        /**
+         * Reads a result, as written by toString().
+         *
+         * @param line The line
+         *
+         * @return The result
+         *
+         * @exception IOException If the line has the wrong number of
+         *            values
+         * @exception NumberFormatException If a value isn't a number
+         */
+        public static Result parse( String line ) throws IOException {
+            String[] values = line.split( SEPARATOR );
+
+            if ( values.length != COLUMNS.length ) {
+                throw new IOException( "Expected " + COLUMNS.length +
+                                       " values: " + line );
+            }
+            return new Result( values[ 0 ],
+                               Long.parseLong( values[ 1 ] ),
+                               Double.parseDouble( values[ 2 ] ),
+                               Double.parseDouble( values[ 3 ] ),
+                               Double.parseDouble( values[ 4 ] ),
+                               Double.parseDouble( values[ 5 ] ),
+                               Long.parseLong( values[ 6 ] ) );
+        }
+    }
+
+    /**
+     * Prints usage information for the benchmark.
+     */
+    public static void usage() {
+        System.out.println( "Takes the following params:\n" +
+                            "file to write the results to\n" +
+                            "Followed by any of these, as name" + RunGA.DELIM + "value:\n" +
+                            "suite: file of configurations (default a built-in suite)\n" +
+                            "baseline: results file to compare against\n" +
+                            "threshold: largest drop in throughput allowed from the " +
+                            "baseline (default " + DEFAULT_THRESHOLD + ")\n" +
+                            "repeats: runs of each configuration (default " +
+                            DEFAULT_REPEATS + ")\n" +
+                            "warmup: generations run before measuring (default " +
+                            DEFAULT_WARMUP + ")\n" +
+                            "heap: max heap of each run, as for -Xmx (default " +
+                            DEFAULT_HEAP + ")\n" );
+    }
+
+    /**
+     * Reads in the configurations of a suite.
+     *
+     * @param file The suite file
+     *
+     * @return Each configuration, split into its parts
+     *
+     * @exception IOException If the file couldn't be read, or a line
+     *            is too short
+     */
+    public static List< String[] > readSuite( File file ) throws IOException {
+        List< String > lines = new ArrayList< String >();
+        BufferedReader input = new BufferedReader( new FileReader( file ) );
+
+        try {
+            String line;
+            while ( ( line = input.readLine() ) != null ) {
+                lines.add( line );
+            }
+        } finally {
+            input.close();
+        }
+
+        return parseSuite( lines );
+    }
+
+    /**
+     * Splits the lines of a suite into configurations, skipping
+     * blank lines and comments.
+     *
+     * @param lines The lines
+     *
+     * @return Each configuration, split into its parts
+     *
+     * @exception IOException If a line is too short
+     */
+    public static List< String[] > parseSuite( List< String > lines )
+        throws IOException {
+        List< String[] > retval = new ArrayList< String[] >();
+
+        for( String line : lines ) {
+            String trimmed = line.trim();
+            if ( trimmed.equals( "" ) || trimmed.startsWith( COMMENT ) ) {
+                continue;
+            }
+            String[] configuration = trimmed.split( "\\s+" );
+            if ( configuration.length < NUM_SUITE_COLUMNS + RunGA.NUM_REQUIRED_ARGS - 1 ) {
+                throw new IOException( "Configuration is missing parameters: " + line );
+            }
+            retval.add( configuration );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets the parameters to RunGA for a configuration.
+     *
+     * @param configuration The configuration, as read from the suite
+     * @param alignment The alignment to use
+     * @param workers Where the fitness workers listen; empty for none
+     *
+     * @return The parameters
+     */
+    public static List< String > makeGAArgs( String[] configuration,
+                                             File alignment,
+                                             List< InetSocketAddress > workers ) {
+        int firstOption = NUM_SUITE_COLUMNS + RunGA.NUM_REQUIRED_ARGS - 1;
+        List< String > retval =
+            new ArrayList< String >( Arrays.asList( configuration ).subList( NUM_SUITE_COLUMNS,
+                                                                             firstOption ) );
+
+        retval.add( "PhylogeneticTreeIndividual" + RunGA.DELIM + alignment.getPath() );
+        retval.addAll( Arrays.asList( configuration ).subList( firstOption,
+                                                               configuration.length ) );
+        if ( !workers.isEmpty() ) {
+            StringBuilder peers = new StringBuilder();
+            for( InetSocketAddress worker : workers ) {
+                if ( peers.length() > 0 ) {
+                    peers.append( ',' );
+                }
+                peers.append( worker.getHostName() ).append( RunGA.DELIM )
+                    .append( worker.getPort() );
+            }
+            retval.add( RunGA.WORKERS_OPTION + RunGA.DELIM + peers );
+            retval.add( RunGA.CODEC_OPTION + RunGA.DELIM + CODEC );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Runs a configuration once, in a child JVM.
+     *
+     * @param name The name of the configuration
+     * @param gaArgs The parameters to RunGA
+     * @param warmup Generations to run before measuring
+     * @param heap The max heap of the child, as for -Xmx
+     *
+     * @return The measurements
+     *
+     * @exception IOException If the child failed
+     * @exception InterruptedException If interrupted waiting for the child
+     */
+    public static Result runChild( String name,
+                                   List< String > gaArgs,
+                                   int warmup,
+                                   String heap )
+        throws IOException, InterruptedException {
+        List< String > command = new ArrayList< String >();
+
+        command.add( System.getProperty( "java.home" ) +
+                     File.separator + "bin" + File.separator + "java" );
+        command.add( "-Xms" + heap );
+        command.add( "-Xmx" + heap );
+        command.add( "-cp" );
+        command.add( System.getProperty( "java.class.path" ) );
+        command.add( "ThroughputBenchmark" );
+        command.add( CHILD );
+        command.add( name );
+        command.add( Integer.toString( warmup ) );
+        command.addAll( gaArgs );
+
+        ProcessBuilder builder = new ProcessBuilder( command );
+        builder.redirectError( ProcessBuilder.Redirect.INHERIT );
+        Process child = builder.start();
+        BufferedReader input =
+            new BufferedReader( new InputStreamReader( child.getInputStream() ) );
+        Result retval = null;
+        String line;
+
+        while ( ( line = input.readLine() ) != null ) {
+            if ( line.startsWith( RESULT + SEPARATOR ) ) {
+                retval = Result.parse( line.substring( RESULT.length() + SEPARATOR.length() ) );
+            }
+        }
+        if ( child.waitFor() != 0 || retval == null ) {
+            throw new IOException( "Run of " + name + " failed" );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Runs a configuration a number of times, starting and stopping
+     * its fitness workers if it has any.
+     *
+     * @param configuration The configuration, as read from the suite
+     * @param directory Where to put alignments
+     * @param repeats The number of runs
+     * @param warmup Generations to run before measuring
+     * @param heap The max heap of each run, as for -Xmx
+     *
+     * @return The run with the median generations per second
+     *
+     * @exception Exception If the alignment couldn't be made, or a
+     *            run failed
+     */
+    public static Result runConfiguration( String[] configuration,
+                                           File directory,
+                                           int repeats,
+                                           int warmup,
+                                           String heap ) throws Exception {
+        String name = configuration[ 0 ];
+        File alignment = Benchmarks.makeAlignment( directory,
+                                                   Integer.parseInt( configuration[ 1 ] ),
+                                                   Integer.parseInt( configuration[ 2 ] ) );
+        int numWorkers = Integer.parseInt( configuration[ 3 ] );
+        List< Process > workers = new ArrayList< Process >();
+        List< InetSocketAddress > addresses = new ArrayList< InetSocketAddress >();
+        List< Result > results = new ArrayList< Result >();
+
+        try {
+            for( int x = 0; x < numWorkers; x++ ) {
+                int port = RemoteEvaluatorHarness.freePort();
+                workers.add( RemoteEvaluatorHarness.startWorker( port, alignment.getPath() ) );
+                addresses.add( new InetSocketAddress( "localhost", port ) );
+            }
+            for( InetSocketAddress address : addresses ) {
+                RemoteEvaluatorHarness.waitForListener( address );
+            }
+            List< String > gaArgs = makeGAArgs( configuration, alignment, addresses );
+            for( int x = 0; x < repeats; x++ ) {
+                results.add( runChild( name, gaArgs, warmup, heap ) );
+            }
+        } finally {
+            for( Process worker : workers ) {
+                worker.destroy();
+            }
+        }
+
+        Collections.sort( results, new Comparator< Result >() {
+                public int compare( Result first, Result second ) {
+                    return Double.compare( first.getGenerationsPerSecond(),
+                                           second.getGenerationsPerSecond() );
+                }
+            } );
+        return results.get( results.size() / 2 );
+    }
+
+    /**
+     * Writes out the results file.
+     *
+     * @param file Where to write it
+     * @param results The results, in order
+     *
+     * @exception IOException If the file couldn't be written
+     */
+    public static void writeResults( File file, List< Result > results )
+        throws IOException {
+        Writer output = new BufferedWriter( new FileWriter( file ) );
+
+        try {
+            output.write( String.join( SEPARATOR, COLUMNS ) );
+            output.write( '\n' );
+            for( Result result : results ) {
+                output.write( result.toString() );
+                output.write( '\n' );
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Reads in a results file.
+     *
+     * @param file The file
+     *
+     * @return The results, by configuration name
+     *
+     * @exception IOException If the file couldn't be read, or isn't a
+     *            results file
+     */
+    public static Map< String, Result > readResults( File file ) throws IOException {
+        Map< String, Result > retval = new LinkedHashMap< String, Result >();
+        BufferedReader input = new BufferedReader( new FileReader( file ) );
+
+        try {
+            String line = input.readLine();
+            if ( line == null || !line.equals( String.join( SEPARATOR, COLUMNS ) ) ) {
+                throw new IOException( "Not a results file: " + file );
+            }
+            while ( ( line = input.readLine() ) != null ) {
+                if ( !line.trim().equals( "" ) ) {
+                    Result result = Result.parse( line );
+                    retval.put( result.getName(), result );
+                }
+            }
+        } catch ( NumberFormatException e ) {
+            throw new IOException( "Not a results file: " + file );
+        } finally {
+            input.close();
+        }
+
+        return retval;
+    }
+
+    /**
+     * Prints the result of a configuration.
+     *
+     * @param result The result
+     */
+    public static void printResult( Result result ) {
+        System.out.printf( "%-28s %10.2f gen/s %12.1f eval/s %10.1f MB/s alloc %10.1f MB peak\n",
+                           result.getName(),
+                           result.getGenerationsPerSecond(),
+                           result.getEvaluationsPerSecond(),
+                           result.getAllocatedBytesPerSecond() / ( 1 << 20 ),
+                           result.getPeakHeapBytes() / (double)( 1 << 20 ) );
+    }
+
+    /**
+     * Gets whether a rate fell by more than the threshold, printing
+     * it out if so.
+     *
+     * @param name The name of the configuration
+     * @param what What the rate is of
+     * @param rate The rate
+     * @param baseline The rate in the baseline
+     * @param threshold The largest drop allowed, as a fraction
+     *
+     * @return true if it fell too far
+     */
+    public static boolean isRegression( String name,
+                                        String what,
+                                        double rate,
+                                        double baseline,
+                                        double threshold ) {
+        if ( rate >= baseline * ( 1.0 - threshold ) ) {
+            return false;
+        }
+        System.out.printf( "Regression in %s: %s fell %.1f%% (%.2f from %.2f)\n",
+                           name,
+                           what,
+                           100.0 * ( 1.0 - rate / baseline ),
+                           rate,
+                           baseline );
+        return true;
+    }
+
+    /**
+     * Compares results with a baseline.  Configurations that aren't
+     * in the baseline are skipped.
+     *
+     * @param results The results
+     * @param baseline The baseline results, by configuration name
+     * @param threshold The largest drop in throughput allowed, as a fraction
+     *
+     * @return true if any configuration fell too far
+     */
+    public static boolean compare( List< Result > results,
+                                   Map< String, Result > baseline,
+                                   double threshold ) {
+        boolean retval = false;
+
+        for( Result result : results ) {
+            Result old = baseline.get( result.getName() );
+            if ( old == null ) {
+                continue;
+            }
+            // both are checked, so neither short-circuits the other's report
+            boolean generations = isRegression( result.getName(),
+                                                "generations/s",
+                                                result.getGenerationsPerSecond(),
+                                                old.getGenerationsPerSecond(),
+                                                threshold );
+            boolean evaluations = isRegression( result.getName(),
+                                                "evaluations/s",
+                                                result.getEvaluationsPerSecond(),
+                                                old.getEvaluationsPerSecond(),
+                                                threshold );
+            retval |= generations || evaluations;
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets the memory allocated so far by every live thread.
+     *
+     * @return The memory in bytes, or -1 if the JVM can't tell
+     */
+    public static long getAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        if ( !( threads instanceof com.sun.management.ThreadMXBean ) ) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean allocations =
+            (com.sun.management.ThreadMXBean)threads;
+        if ( !allocations.isThreadAllocatedMemorySupported() ||
+             !allocations.isThreadAllocatedMemoryEnabled() ) {
+            return -1;
+        }
+        long retval = 0;
+        for( long allocated : allocations.getThreadAllocatedBytes( threads.getAllThreadIds() ) ) {
+            // -1 for threads that ended while being asked about
+            retval += Math.max( 0, allocated );
+        }
+
+        return retval;
+    }
+
+    /**
+     * Gets the sum of the peak usage of each heap pool since
+     * resetPeakHeap() was last called.
+     *
+     * @return The peak usage, in bytes
+     */
+    public static long getPeakHeap() {
+        long retval = 0;
+
+        for( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+            if ( pool.getType() == MemoryType.HEAP ) {
+                retval += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * Starts counting peak heap usage over again.
+     */
+    public static void resetPeakHeap() {
+        for( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+            if ( pool.getType() == MemoryType.HEAP ) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of fitness evaluations done so far, over
+     * every island.
+     *
+     * @param environment The environment being run
+     *
+     * @return The number of evaluations
+     */
+    public static long getNumEvaluations( Environment environment ) {
+        long retval = 0;
+
+        for( Environment island : environment.getIslands() ) {
+            retval += island.getPopulation().getNumEvaluations();
+        }
+
+        return retval;
+    }
+
+    /**
+     * Run in the child.  Runs the GA with its output thrown away,
+     * measures it from the end of the warmup generations to the end
+     * of the run, and prints out the result.
+     *
+     * @param name The name of the configuration
+     * @param warmup Generations to run before measuring
+     * @param gaArgs The parameters to RunGA
+     *
+     * @exception Exception If the GA couldn't be made, or ran out
+     *            of generations before it was measured
+     */
+    public static void child( final String name,
+                              final int warmup,
+                              String[] gaArgs ) throws Exception {
+        RunGA ga = new RunGA( gaArgs );
+        final Result[] result = new Result[ 1 ];
+
+        ga.getEnvironment().setOutput( new PrintStream( OutputStream.nullOutputStream() ) );
+        ga.getEnvironment().addListener( new EnvironmentListener() {
+                private long generations = 0;
+                private long startTime;
+                private long startEvaluations;
+                private long startAllocated;
+
+                public void gaStarted( Environment environment ) {
+                    if ( warmup == 0 ) {
+                        startMeasuring( environment );
+                    }
+                }
+
+                public void generationDone( Environment environment ) {
+                    if ( ++generations == warmup ) {
+                        startMeasuring( environment );
+                    }
+                }
+
+                private void startMeasuring( Environment environment ) {
+                    startTime = System.nanoTime();
+                    startEvaluations = getNumEvaluations( environment );
+                    startAllocated = getAllocatedBytes();
+                    resetPeakHeap();
+                }
+
+                public void gaEnded( Environment environment ) {
+                    if ( generations <= warmup ) {
+                        return;
+                    }
+                    long allocated = getAllocatedBytes();
+                    result[ 0 ] = new Result( name,
+                                              generations - warmup,
+                                              ( System.nanoTime() - startTime ) / 1e9,
+                                              getNumEvaluations( environment ) - startEvaluations,
+                                              ( allocated < 0 || startAllocated < 0 ) ?
+                                              -1 : allocated - startAllocated,
+                                              getPeakHeap() );
+                }
+            } );
+        ga.start();
+        Individual.cleanup();
+        if ( result[ 0 ] == null ) {
+            throw new ArgsException( "Ran out of generations before measuring " + name );
+        }
+        System.out.println( RESULT + SEPARATOR + result[ 0 ] );
+    }
+
+    public static void main( String[] args ) {
+        try {
+            if ( args.length > 0 && args[ 0 ].equals( CHILD ) ) {
+                if ( args.length < 3 ) {
+                    throw new ArgsException( "Child needs a name and warmup" );
+                }
+                child( args[ 1 ],
+                       Integer.parseInt( args[ 2 ] ),
+                       Arrays.copyOfRange( args, 3, args.length ) );
+                System.exit( 0 );
+            }
+            if ( args.length < 1 ) {
+                usage();
+                System.exit( 1 );
+            }
+
+            File resultsFile = new File( args[ 0 ] );
+            Map< String, String > options = RunGA.readOptions( args, 1, OPTIONS );
+            List< String[] > suite = ( options.containsKey( "suite" ) ) ?
+                readSuite( new File( options.get( "suite" ) ) ) :
+                parseSuite( Arrays.asList( DEFAULT_SUITE ) );
+            double threshold =
+                RunGA.readDouble( RunGA.getOption( options,
+                                                   "threshold",
+                                                   Double.toString( DEFAULT_THRESHOLD ) ),
+                                  0.0,
+                                  1.0 );
+            int repeats = Integer.parseInt( RunGA.getOption( options,
+                                                             "repeats",
+                                                             Integer.toString( DEFAULT_REPEATS ) ) );
+            int warmup = Integer.parseInt( RunGA.getOption( options,
+                                                            "warmup",
+                                                            Integer.toString( DEFAULT_WARMUP ) ) );
+            String heap = RunGA.getOption( options, "heap", DEFAULT_HEAP );
+            Map< String, Result > baseline = ( options.containsKey( "baseline" ) ) ?
+                readResults( new File( options.get( "baseline" ) ) ) : null;
+            File directory = Files.createTempDirectory( "throughput" ).toFile();
+            List< Result > results = new ArrayList< Result >();
+
+            if ( repeats < 1 ) {
+                throw new ArgsException( "Need at least one repeat; received " + repeats );
+            }
+            directory.deleteOnExit();
+            for( String[] configuration : suite ) {
+                Result result = runConfiguration( configuration,
+                                                  directory,
+                                                  repeats,
+                                                  warmup,
+                                                  heap );
+                printResult( result );
+                results.add( result );
+            }
+            writeResults( resultsFile, results );
+            if ( baseline != null && compare( results, baseline, threshold ) ) {
+                System.exit( 1 );
+            }
+        } catch ( NumberFormatException e ) {
+            System.err.println( e );
+            usage();
+            System.exit( 1 );
+        } catch ( Exception e ) {
+            System.err.println( e );
+            System.exit( 1 );
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.*;
+
+/**
+ * Implementation of k-ary tournament selection.  For each individual
+ * selected, k different individuals are picked at random, and the
+ * most fit of them is selected.  Larger tournaments select more
+ * strongly for fitness.  Fitness is read once into an array, and
+ * large selections are drawn in parallel, each thread with its own
+ * random numbers.
+ * <p>
+ * The tournament size may be given after the class name, as in
+ * TournamentSelection:4.  It defaults to DEFAULT_SIZE.
+ *
+ * @author Kyle Dewey
+ */
+public class TournamentSelection< T extends Individual >
+    extends Selection< T > {
+    // begin constants
+    public static final int DEFAULT_SIZE = 2;
+    // end constants
+
+    // begin instance variables
+    private int size; // number of individuals in each tournament
+    // end instance variables
+
+    /**
+     * Creates a new selection, with tournaments of DEFAULT_SIZE.
+     *
+     * @param lowGood If low fitness values mean high fitness
+     */
+    public TournamentSelection( boolean lowGood ) {
+        this( lowGood, DEFAULT_SIZE );
+    }
+
+    /**
+     * Creates a new selection.
+     *
+     * @param lowGood If low fitness values mean high fitness
+     * @param size The number of individuals in each tournament
+     */
+    public TournamentSelection( boolean lowGood, int size ) {
+        super( lowGood );
+        if ( size < 1 ) {
+            throw new IllegalArgumentException( "Tournament size must be positive: " +
+                                                size );
+        }
+        this.size = size;
+    }
+
+    /**
+     * Creates a new selection, with the tournament size given
+     * as a string, as on the command line.
+     *
+     * @param lowGood If low fitness values mean high fitness
+     * @param size The number of individuals in each tournament
+     *
+     * @exception NumberFormatException If the size isn't a number
+     */
+    public TournamentSelection( boolean lowGood, String size ) {
+        this( lowGood, Integer.parseInt( size ) );
+    }
+
+    /**
+     * Gets the number of individuals in each tournament.
+     *
+     * @return The tournament size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets individuals in the population, each the winner of
+     * a tournament.
+     *
+     * @param list The list of individuals
+     * @param fixed The number of individuals to return; <= 0
+     *        for as many as there are individuals
+     * @param lowGood if low fitnesses are good, else false
+     *
+     * @return Fittish individuals in the population
+     */
+    public List< T > performSelection( List< T > list,
+                                       int fixed,
+                                       boolean lowGood ) {
+        return performSelection( list,
+                                 getFitnesses( list ),
+                                 fixed,
+                                 lowGood );
+    }
+
+    /**
+     * Like the other, but with the fitnesses already known.
+     *
+     * @param list The list of individuals
+     * @param fitnesses The fitness of each individual, in order
+     * @param fixed The number of individuals to return; <= 0
+     *        for as many as there are individuals
+     * @param lowGood if low fitnesses are good, else false
+     *
+     * @return Fittish individuals in the population
+     */
+    public List< T > performSelection( List< T > list,
+                                       final double[] fitnesses,
+                                       int fixed,
+                                       final boolean lowGood ) {
+        final int numContestants = Math.min( size, fitnesses.length );
+        int number = ( fixed <= 0 ) ? list.size() : fixed;
+
+        return draw( list, number, new Drawer() {
+                public int draw( SplittableRandom random ) {
+                    return tournament( fitnesses, numContestants, lowGood, random );
+                }
+            } );
+    }
+
+    /**
+     * Holds a single tournament between different individuals,
+     * picked at random.  Of contestants that tie, the first
+     * picked wins.
+     *
+     * @param fitnesses The fitness of each individual
+     * @param numContestants How many individuals take part;
+     *        no more than there are individuals
+     * @param lowGood If low fitness is better
+     * @param random Where random numbers come from
+     *
+     * @return The position of the winner
+     */
+    public static int tournament( double[] fitnesses,
+                                  int numContestants,
+                                  boolean lowGood,
+                                  SplittableRandom random ) {
+        int[] contestants = new int[ numContestants ];
+        int winner = -1;
+
+        for( int x = 0; x < numContestants; x++ ) {
+            int current;
+            boolean repeat;
+
+            // contestants are few, so just try again on a repeat
+            do {
+                current = random.nextInt( fitnesses.length );
+                repeat = false;
+                for( int y = 0; y < x && !repeat; y++ ) {
+                    repeat = ( contestants[ y ] == current );
+                }
+            } while ( repeat );
+            contestants[ x ] = current;
+
+            if ( winner == -1 ||
+                 ( lowGood && fitnesses[ current ] < fitnesses[ winner ] ) ||
+                 ( !lowGood && fitnesses[ current ] > fitnesses[ winner ] ) ) {
+                winner = current;
+            }
+        }
+
+        return winner;
+    }
+}
@@ -40,6 +40,12 @@ public class TruncationSelection< T extends Individual >
 
     /**
      * Gets the best individuals in the population.
+     * The fitness of the fixed'th best individual is found by
+     * quickselect, then everything better than it is taken, along
+     * with as many individuals as fit that tie with it, earliest
+     * first.  The individuals are returned best first, ties in the
+     * order they were given in; this is the same as repeatedly
+     * taking the best remaining individual.
      *
      * @param list The original population
      * @param fixed The number of individuals to return; <=0
@@ -53,6 +59,33 @@ public class TruncationSelection< T extends Individual >
     public List< T > performSelection( List< T > list,
                                        int fixed,
                                        boolean lowGood ) {
+        // see if we actually do anything
+        if ( fixed <= 0 ||
+             fixed >= list.size() ) {
+            return new ArrayList< T >( list );
+        }
+        return performSelection( list,
+                                 getFitnesses( list ),
+                                 fixed,
+                                 lowGood );
+    }
+
+    /**
+     * Gets the best individuals in the population, whose
+     * fitnesses are already known.
+     *
+     * @param list The original population
+     * @param fitnesses The fitness of each individual, in order
+     * @param fixed The number of individuals to return
+     * @param lowGood true if low fitness values are good,
+     *        else false
+     *
+     * @return The best individuals in the population
+     */
+    public List< T > performSelection( List< T > list,
+                                       final double[] fitnesses,
+                                       int fixed,
+                                       boolean lowGood ) {
         List< T > retval; // what will be returned
 
         // see if we actually do anything
@@ -61,26 +94,142 @@ public class TruncationSelection< T extends Individual >
             retval = new ArrayList< T >( list );
         } else {
             // we need to truncate something
-            List< T > copy = new ArrayList< T >( list );
-            retval = new ArrayList< T >();
+            double[] work = fitnesses.clone();
+            double threshold; // fitness of the worst individual kept
+            int numBetter = 0; // strictly better than the threshold
+            Integer[] chosen = new Integer[ fixed ];
+            int numChosen = 0;
 
-            for( int x = 0; x < fixed; x++ ) {
-                int pos;
+            if ( lowGood ) {
+                threshold = select( work, fixed - 1 );
+            } else {
+                threshold = select( work, work.length - fixed );
+            }
+            for( double fitness : fitnesses ) {
+                if ( better( fitness, threshold, lowGood ) ) {
+                    numBetter++;
+                }
+            }
 
-                if ( lowGood ) {
-                    pos = getMinFitness( copy );
-                } else {
-                    pos = getMaxFitness( copy );
+            // those better than the threshold, and the earliest that tie
+            int numTies = fixed - numBetter;
+            for( int x = 0; x < fitnesses.length && numChosen < fixed; x++ ) {
+                if ( better( fitnesses[ x ], threshold, lowGood ) ) {
+                    chosen[ numChosen++ ] = x;
+                } else if ( fitnesses[ x ] == threshold && numTies > 0 ) {
+                    chosen[ numChosen++ ] = x;
+                    numTies--;
                 }
+            }
 
-                retval.add( copy.get( pos ) );
-                copy.remove( pos );
+            // best first; the sort is stable, so ties stay in order
+            final boolean low = lowGood;
+            Arrays.parallelSort( chosen, new Comparator< Integer >() {
+                    public int compare( Integer first, Integer second ) {
+                        int retval = Double.compare( fitnesses[ first ],
+                                                     fitnesses[ second ] );
+                        return ( low ) ? retval : -retval;
+                    }
+                } );
+
+            retval = new ArrayList< T >( fixed );
+            for( Integer index : chosen ) {
+                retval.add( list.get( index ) );
             }
         }
 
         return retval;
     }
 
+    /**
+     * Gets whether one fitness is strictly better than another.
+     *
+     * @param fitness The fitness
+     * @param other The fitness to compare against
+     * @param lowGood true if low fitness values are good
+     *
+     * @return true if fitness is better than other
+     */
+    private static boolean better( double fitness,
+                                   double other,
+                                   boolean lowGood ) {
+        return ( lowGood ) ? fitness < other : fitness > other;
+    }
+
+    /**
+     * Gets the value that would be at the given position if the
+     * given array were sorted in ascending order.  The array is
+     * partially sorted in the process.  Expected linear time; falls
+     * back on sorting if partitioning goes badly.
+     *
+     * @param values The values; rearranged
+     * @param position The position in sorted order
+     *
+     * @return The value at that position
+     */
+    public static double select( double[] values, int position ) {
+        int low = 0;
+        int high = values.length - 1;
+        int depth = 2 * ( 32 - Integer.numberOfLeadingZeros( values.length ) );
+
+        while ( low < high ) {
+            if ( depth-- == 0 ) {
+                Arrays.sort( values, low, high + 1 );
+                break;
+            }
+
+            // median of three for the pivot
+            int middle = ( low + high ) >>> 1;
+            if ( values[ middle ] < values[ low ] ) {
+                swap( values, middle, low );
+            }
+            if ( values[ high ] < values[ low ] ) {
+                swap( values, high, low );
+            }
+            if ( values[ high ] < values[ middle ] ) {
+                swap( values, high, middle );
+            }
+            double pivot = values[ middle ];
+
+            int x = low;
+            int y = high;
+            while ( x <= y ) {
+                while ( values[ x ] < pivot ) {
+                    x++;
+                }
+                while ( values[ y ] > pivot ) {
+                    y--;
+                }
+                if ( x <= y ) {
+                    swap( values, x++, y-- );
+                }
+            }
+
+            if ( position <= y ) {
+                high = y;
+            } else if ( position >= x ) {
+                low = x;
+            } else {
+                break;
+            }
+        }
+
+        return values[ position ];
+    }
+
+    /**
+     * Swaps two values in an array.
+     *
+     * @param values The array
+     * @param first The position of one value
+     * @param second The position of the other
+     */
+    private static void swap( double[] values, int first, int second ) {
+        double temp = values[ first ];
+        values[ first ] = values[ second ];
+        values[ second ] = temp;
+    }
+
     /**
      * Gets the index of the individual with the maximal fitness in
      * the given list.
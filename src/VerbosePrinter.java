@@ -22,6 +22,8 @@
  *
  */
 
+import java.io.IOException;
+
 /**
  * Prints out verbose information about the GA.
  * Prints out the number of the generation, the
@@ -30,7 +32,7 @@
  *
  * @author Kyle Dewey
  */
-public class VerbosePrinter implements EnvironmentPrinter {
+public class VerbosePrinter implements StreamingPrinter {
     /**
      * String that is to be printed out at the start of the GA
      *
@@ -77,4 +79,44 @@ public class VerbosePrinter implements EnvironmentPrinter {
 	return "Most fit individual:\n" +
 	    getBestIndividual( environment ).toString() + "\n";
     }
+
+    /**
+     * Writes what is to be printed out at the start of the GA,
+     * which is nothing.
+     *
+     * @param environment The environment
+     * @param out Where to write
+     */
+    public void writeGAStart( Environment environment,
+                              Appendable out ) {}
+
+    /**
+     * Writes out the population at the end of each generation,
+     * one individual at a time.
+     *
+     * @param environment The environment
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void writeGAGeneration( Environment environment,
+                                   Appendable out ) throws IOException {
+        environment.getPopulation().write( out );
+        out.append( "\n" );
+    }
+
+    /**
+     * Writes out the best individual at the end of the GA.
+     *
+     * @param environment The environment
+     * @param out Where to write
+     *
+     * @exception IOException If writing failed
+     */
+    public void writeGAEnd( Environment environment,
+                            Appendable out ) throws IOException {
+        out.append( "Most fit individual:\n" );
+        getBestIndividual( environment ).write( out );
+        out.append( "\n" );
+    }
 }
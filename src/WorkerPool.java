@@ -23,14 +23,16 @@ import java.util.concurrent.*;
  * It will then do the jobs in a queue fashion,
  * doing some number in parallel (equal to the
  * number of available processors).
+ * The threads are daemons, so a program that is done with the GA
+ * can exit without calling cleanup().
  *
  * @author Kyle Dewey
  */
-public class WorkerPool {
+public class WorkerPool implements FitnessEvaluator, WorkerPoolMXBean {
     // begin instance variables
     private Map< Runnable, Future > submittedJobs;
     private int numProcessors; // number of processors available
-    private ExecutorService pool;
+    private ThreadPoolExecutor pool;
     // end instance variables
 
     /**
@@ -40,28 +42,35 @@ public class WorkerPool {
         numProcessors = Runtime.getRuntime().availableProcessors();
         submittedJobs = new HashMap< Runnable, Future >();
         submittedJobs = Collections.synchronizedMap( submittedJobs );
-        pool = Executors.newFixedThreadPool( numProcessors );
+        pool = (ThreadPoolExecutor)Executors.newFixedThreadPool( numProcessors, new ThreadFactory() {
+                public Thread newThread( Runnable job ) {
+                    Thread retval = new Thread( job, "fitness-worker" );
+                    retval.setDaemon( true );
+                    return retval;
+                }
+            } );
     }
 
     /**
-     * Submits a job to the worker pool.
+     * Submits a job to the worker pool.  The job is in the map of
+     * submitted jobs before it can run, so a job that finishes quickly
+     * can't remove itself before it is put there, and be kept forever.
      *
      * @param job The job to add to the worker pool
      */
-    public synchronized void addJob( final Runnable job ) {
-        Future future;
+    public void addJob( final Runnable job ) {
+        FutureTask< Object > future = new FutureTask< Object >( new Runnable() {
+                public void run() {
+                    try {
+                        job.run();
+                    } finally {
+                        submittedJobs.remove( job );
+                    }
+                }
+            }, null );
 
-        //future = pool.submit( job );
-	future = pool.submit( new Runnable() {
-		public int hashCode() {
-		    return job.hashCode();
-		}
-		public void run() {
-		    job.run();
-		    submittedJobs.remove( job );
-		}
-	    } );
         submittedJobs.put( job, future );
+        pool.execute( future );
     }
 
     /**
@@ -82,6 +91,51 @@ public class WorkerPool {
         }
     }
 
+    /**
+     * Gets the number of threads calculating fitness.
+     *
+     * @return The number of threads
+     */
+    public int getNumWorkers() {
+        return numProcessors;
+    }
+
+    /**
+     * Gets the number of threads calculating fitness right now.
+     *
+     * @return The number of busy threads
+     */
+    public int getActiveWorkers() {
+        return pool.getActiveCount();
+    }
+
+    /**
+     * Gets the number of jobs waiting for a thread.
+     *
+     * @return The length of the queue
+     */
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * Gets the number of fitness jobs submitted but not yet finished.
+     *
+     * @return The number of pending jobs
+     */
+    public int getPendingJobs() {
+        return submittedJobs.size();
+    }
+
+    /**
+     * Gets the number of jobs finished since the pool was made.
+     *
+     * @return The number of finished jobs
+     */
+    public long getCompletedJobs() {
+        return pool.getCompletedTaskCount();
+    }
+
     /**
      * Performs internal cleanup.  To be called at GA end.
      */
@@ -0,0 +1,42 @@
+/**
+ * What a worker pool shows over JMX.  Everything can be read while
+ * the GA runs, without stopping it.
+ *
+ * @author Kyle Dewey
+ */
+public interface WorkerPoolMXBean {
+    /**
+     * Gets the number of threads calculating fitness.
+     *
+     * @return The number of threads
+     */
+    public int getNumWorkers();
+
+    /**
+     * Gets the number of threads calculating fitness right now.
+     *
+     * @return The number of busy threads
+     */
+    public int getActiveWorkers();
+
+    /**
+     * Gets the number of jobs waiting for a thread.
+     *
+     * @return The length of the queue
+     */
+    public int getQueueDepth();
+
+    /**
+     * Gets the number of fitness jobs submitted but not yet finished.
+     *
+     * @return The number of pending jobs
+     */
+    public int getPendingJobs();
+
+    /**
+     * Gets the number of jobs finished since the pool was made.
+     *
+     * @return The number of finished jobs
+     */
+    public long getCompletedJobs();
+}